@@ -0,0 +1,95 @@
+package se.payerl.benchmark;
+
+import org.apache.maven.model.Dependency;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic dependency lists for the benchmarks.
+ * <p>
+ * Lists are generated deterministically and brought into the order of the
+ * benchmarked configuration (scope, then optional, then groupId:artifactId)
+ * before the requested {@link Shape} is applied.
+ */
+public final class BenchmarkData {
+    private static final String[] SCOPES = { "compile", "provided", "runtime", "test" };
+
+    /**
+     * Order the benchmarked configurations expect: scope, then non-optional before
+     * optional, then groupId and artifactId case-insensitively.
+     */
+    public static final Comparator<Dependency> CONFIGURED_ORDER = Comparator
+            .comparingInt(BenchmarkData::scopeRank)
+            .thenComparing(dependency -> "true".equals(dependency.getOptional()))
+            .thenComparing(Dependency::getGroupId, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(Dependency::getArtifactId, String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * Order of a list compared to the configured order.
+     */
+    public enum Shape {
+        /** All dependencies in configured order. */
+        SORTED,
+        /** Configured order with about one percent of adjacent pairs swapped. */
+        NEARLY_SORTED,
+        /** Configured order reversed. */
+        REVERSED
+    }
+
+    private BenchmarkData() { }
+
+    /**
+     * Creates a synthetic dependency list.
+     *
+     * @param size number of dependencies
+     * @param shape order of the list
+     * @return new list of dependencies
+     */
+    public static List<Dependency> createDependencies(int size, Shape shape) {
+        Random random = new Random(size);
+        List<Dependency> dependencies = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Dependency dependency = new Dependency();
+            dependency.setGroupId(String.format("com.example.group%03d", random.nextInt(Math.max(1, size / 20))));
+            dependency.setArtifactId(String.format("artifact-%06d", i));
+            dependency.setVersion("1.0.0");
+            int scope = random.nextInt(10);
+            dependency.setScope(scope < 6 ? null : SCOPES[scope - 6]);
+            if (random.nextInt(10) == 0) {
+                dependency.setOptional(true);
+            }
+            dependencies.add(dependency);
+        }
+        dependencies.sort(CONFIGURED_ORDER);
+
+        switch (shape) {
+            case NEARLY_SORTED:
+                int swaps = Math.max(1, size / 100);
+                for (int i = 0; i < swaps && size > 1; i++) {
+                    int index = random.nextInt(size - 1);
+                    Collections.swap(dependencies, index, index + 1);
+                }
+                break;
+            case REVERSED:
+                Collections.reverse(dependencies);
+                break;
+            default:
+                break;
+        }
+        return dependencies;
+    }
+
+    private static int scopeRank(Dependency dependency) {
+        String scope = dependency.getScope() != null ? dependency.getScope() : "compile";
+        for (int i = 0; i < SCOPES.length; i++) {
+            if (SCOPES[i].equals(scope)) {
+                return i;
+            }
+        }
+        return SCOPES.length;
+    }
+}
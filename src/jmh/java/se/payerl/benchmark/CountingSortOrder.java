@@ -0,0 +1,115 @@
+package se.payerl.benchmark;
+
+import org.apache.maven.model.Dependency;
+import se.payerl.sort.RankedSortOrder;
+import se.payerl.sort.SortOrder;
+
+import java.util.Optional;
+
+/**
+ * SortOrder that delegates to another SortOrder and counts how often the keys and the
+ * applicability of dependencies are computed. Use {@link #wrap(SortOrder)} so that ranked
+ * SortOrders stay ranked.
+ */
+public class CountingSortOrder extends SortOrder {
+    private final SortOrder delegate;
+    long keyExtractions;
+    long applicabilityChecks;
+    long comparisons;
+
+    CountingSortOrder(SortOrder delegate) {
+        this.delegate = delegate;
+    }
+
+    public static CountingSortOrder wrap(SortOrder delegate) {
+        if (delegate instanceof RankedSortOrder) {
+            return new Ranked(delegate);
+        }
+        return new CountingSortOrder(delegate);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    @Override
+    public String extractSortKey(Dependency dependency) {
+        keyExtractions++;
+        return delegate.extractSortKey(dependency);
+    }
+
+    @Override
+    public Object createSortKey(Dependency dependency) {
+        keyExtractions++;
+        return delegate.createSortKey(dependency);
+    }
+
+    @Override
+    public int compareSortKeys(Object firstKey, Object secondKey) {
+        return delegate.compareSortKeys(firstKey, secondKey);
+    }
+
+    @Override
+    public String formatDependencyForError(Dependency dependency) {
+        return delegate.formatDependencyForError(dependency);
+    }
+
+    @Override
+    public String getDescription() {
+        return delegate.getDescription();
+    }
+
+    @Override
+    public Optional<String> validateOrder(Dependency previousDependency, Dependency currentDependency) {
+        return delegate.validateOrder(previousDependency, currentDependency);
+    }
+
+    @Override
+    public boolean isInOrder(Dependency previousDependency, Dependency currentDependency) {
+        comparisons++;
+        return delegate.isInOrder(previousDependency, currentDependency);
+    }
+
+    @Override
+    public int compare(Dependency first, Dependency second) {
+        // Compares by key, like the built-in orders, so every comparison extracts two keys
+        keyExtractions += 2;
+        comparisons++;
+        return delegate.compare(first, second);
+    }
+
+    @Override
+    public String formatViolation(Dependency previousDependency, Dependency currentDependency) {
+        return delegate.formatViolation(previousDependency, currentDependency);
+    }
+
+    @Override
+    public boolean isApplicable(Dependency dependency) {
+        applicabilityChecks++;
+        return delegate.isApplicable(dependency);
+    }
+
+    /**
+     * Counting wrapper of a {@link RankedSortOrder}, rank lookups count as key extractions.
+     */
+    static final class Ranked extends CountingSortOrder implements RankedSortOrder {
+        private final RankedSortOrder ranked;
+
+        Ranked(SortOrder delegate) {
+            super(delegate);
+            this.ranked = (RankedSortOrder) delegate;
+        }
+
+        @Override
+        public int rank(Dependency dependency) {
+            keyExtractions++;
+            return ranked.rank(dependency);
+        }
+
+        @Override
+        public int rankCount() {
+            return ranked.rankCount();
+        }
+    }
+}
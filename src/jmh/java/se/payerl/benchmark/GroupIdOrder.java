@@ -0,0 +1,51 @@
+package se.payerl.benchmark;
+
+import org.apache.maven.model.Dependency;
+import se.payerl.sort.SortOrder;
+
+import java.util.Optional;
+
+/**
+ * Grouping-only SortOrder that groups dependencies by groupId.
+ * Used to build the deeper benchmark hierarchies.
+ */
+public class GroupIdOrder extends SortOrder {
+
+    @Override
+    public String toString() {
+        return "GroupIdOrder";
+    }
+
+    @Override
+    public String fingerprint() {
+        return "";
+    }
+
+    @Override
+    public String extractSortKey(Dependency dependency) {
+        requireNonNull(dependency, "dependency");
+        return dependency.getGroupId();
+    }
+
+    @Override
+    public String formatDependencyForError(Dependency dependency) {
+        requireNonNull(dependency, "dependency");
+        return dependency.getGroupId() + ":" + dependency.getArtifactId();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Grouping by groupId";
+    }
+
+    @Override
+    public Optional<String> validateOrder(Dependency previousDependency, Dependency currentDependency) {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean isApplicable(Dependency dependency) {
+        requireNonNull(dependency, "dependency");
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+package se.payerl.benchmark;
+
+import org.apache.maven.model.Dependency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.payerl.sort.SortNode;
+import se.payerl.sort.SortOrder;
+import se.payerl.sort.node.GroupNode;
+import se.payerl.sort.node.SortLeaf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures GroupNode validation with two to four levels of nesting.
+ * <ul>
+ *   <li>2 levels: scope, then alphabetical</li>
+ *   <li>3 levels: scope, optional, then alphabetical</li>
+ *   <li>4 levels: scope, optional, groupId, then alphabetical</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupNodeBenchmark {
+
+    @Param({ "2", "3", "4" })
+    public int levels;
+
+    @Param({ "10", "1000", "10000", "100000" })
+    public int size;
+
+    @Param({ "SORTED", "NEARLY_SORTED", "REVERSED" })
+    public BenchmarkData.Shape shape;
+
+    private SortNode groupNode;
+    private List<Dependency> dependencies;
+
+    @Setup
+    public void setUp() {
+        groupNode = createHierarchy(levels);
+        dependencies = BenchmarkData.createDependencies(size, shape);
+    }
+
+    @Benchmark
+    public List<String> validateDependencies() {
+        return groupNode.validateDependencies(dependencies);
+    }
+
+    static List<SortOrder> createSortOrders(int levels) {
+        List<SortOrder> sortOrders = new ArrayList<>(Arrays.asList(
+                SortOrderBenchmark.createSortOrder("ScopeOrder"),
+                SortOrderBenchmark.createSortOrder("OptionalOrder"),
+                new GroupIdOrder()));
+        sortOrders = new ArrayList<>(sortOrders.subList(0, levels - 1));
+        sortOrders.add(SortOrderBenchmark.createSortOrder("AlphabeticalOrder"));
+        return sortOrders;
+    }
+
+    static SortNode createHierarchy(int levels) {
+        List<SortOrder> sortOrders = createSortOrders(levels);
+        SortNode node = new SortLeaf(sortOrders.get(sortOrders.size() - 1));
+        for (int i = sortOrders.size() - 2; i >= 0; i--) {
+            node = new GroupNode(sortOrders.get(i), node);
+        }
+        return node;
+    }
+}
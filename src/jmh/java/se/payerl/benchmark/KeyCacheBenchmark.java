@@ -0,0 +1,107 @@
+package se.payerl.benchmark;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.payerl.ValidationResult;
+import se.payerl.sort.SortOrder;
+import se.payerl.sort.ValidationPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the calls to the key and applicability methods of the SortOrders when a module is
+ * validated with the four level hierarchy of {@link GroupNodeBenchmark}: scope, optional,
+ * groupId, then alphabetical. The counters are reported per dependency and operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class KeyCacheBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    @Param({ "NEARLY_SORTED", "REVERSED" })
+    public BenchmarkData.Shape shape;
+
+    private List<CountingSortOrder> sortOrders;
+    private ValidationPlan plan;
+    private Model model;
+
+    /**
+     * Calls per validated dependency, averaged over the operations of an iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Calls {
+        public double keyExtractionsPerDependency;
+        public double applicabilityChecksPerDependency;
+        public double comparisonsPerDependency;
+        long operations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            keyExtractionsPerDependency = 0;
+            applicabilityChecksPerDependency = 0;
+            comparisonsPerDependency = 0;
+            operations = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        sortOrders = new ArrayList<>();
+        for (SortOrder sortOrder : GroupNodeBenchmark.createSortOrders(4)) {
+            sortOrders.add(CountingSortOrder.wrap(sortOrder));
+        }
+        plan = ValidationPlan.of(new ArrayList<>(sortOrders), true);
+        List<Dependency> dependencies = BenchmarkData.createDependencies(size, shape);
+        model = new Model();
+        model.setDependencies(dependencies);
+    }
+
+    @Benchmark
+    public ValidationResult validateModule(Calls calls) {
+        for (CountingSortOrder sortOrder : sortOrders) {
+            sortOrder.keyExtractions = 0;
+            sortOrder.applicabilityChecks = 0;
+            sortOrder.comparisons = 0;
+        }
+        ValidationResult result = ValidationResult.validate(plan, model);
+        long keyExtractions = 0;
+        long applicabilityChecks = 0;
+        long comparisons = 0;
+        for (CountingSortOrder sortOrder : sortOrders) {
+            keyExtractions += sortOrder.keyExtractions;
+            applicabilityChecks += sortOrder.applicabilityChecks;
+            comparisons += sortOrder.comparisons;
+        }
+        // Running mean, so that the counters do not depend on the number of operations
+        calls.operations++;
+        calls.keyExtractionsPerDependency += ((double) keyExtractions / size - calls.keyExtractionsPerDependency)
+                / calls.operations;
+        calls.applicabilityChecksPerDependency += ((double) applicabilityChecks / size
+                - calls.applicabilityChecksPerDependency) / calls.operations;
+        calls.comparisonsPerDependency += ((double) comparisons / size - calls.comparisonsPerDependency)
+                / calls.operations;
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package se.payerl.benchmark;
+
+import org.apache.maven.model.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.payerl.ValidationResult;
+import se.payerl.sort.ValidationMetrics;
+import se.payerl.sort.ValidationPlan;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of collecting {@link ValidationMetrics}: validates a module with the four level hierarchy
+ * of {@link GroupNodeBenchmark} without metrics, which is the default, and with metrics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    @Param({ "NEARLY_SORTED", "REVERSED" })
+    public BenchmarkData.Shape shape;
+
+    private ValidationPlan plan;
+    private Model model;
+
+    @Setup
+    public void setUp() {
+        plan = ValidationPlan.of(GroupNodeBenchmark.createSortOrders(4), true);
+        model = new Model();
+        model.setDependencies(BenchmarkData.createDependencies(size, shape));
+    }
+
+    @Benchmark
+    public ValidationResult withoutMetrics() {
+        return ValidationResult.validate(plan, model);
+    }
+
+    @Benchmark
+    public ValidationResult withMetrics() {
+        return ValidationResult.validate(plan.withMetrics(new ValidationMetrics()), model);
+    }
+}
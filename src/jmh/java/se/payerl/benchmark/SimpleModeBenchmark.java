@@ -0,0 +1,51 @@
+package se.payerl.benchmark;
+
+import org.apache.maven.model.Dependency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.payerl.sort.ValidationPlan;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the simple (non-group) mode used by DependencyOrderRule,
+ * with ScopeOrder, OptionalOrder and AlphabeticalOrder configured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleModeBenchmark {
+
+    @Param({ "10", "1000", "10000", "100000" })
+    public int size;
+
+    @Param({ "SORTED", "NEARLY_SORTED", "REVERSED" })
+    public BenchmarkData.Shape shape;
+
+    private ValidationPlan plan;
+    private List<Dependency> dependencies;
+
+    @Setup
+    public void setUp() {
+        plan = ValidationPlan.of(GroupNodeBenchmark.createSortOrders(3), false);
+        dependencies = BenchmarkData.createDependencies(size, shape);
+    }
+
+    @Benchmark
+    public List<String> validate() {
+        return plan.validate(dependencies);
+    }
+}
@@ -0,0 +1,53 @@
+package se.payerl.benchmark;
+
+import org.apache.maven.model.Dependency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.payerl.sort.node.SortLeaf;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures SortLeaf validation of a whole list with each SortOrder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortLeafBenchmark {
+
+    @Param({ "AlphabeticalOrder", "ScopeOrder", "OptionalOrder" })
+    public String sortOrderType;
+
+    @Param({ "10", "1000", "10000", "100000" })
+    public int size;
+
+    @Param({ "SORTED", "NEARLY_SORTED", "REVERSED" })
+    public BenchmarkData.Shape shape;
+
+    private SortLeaf sortLeaf;
+    private List<Dependency> dependencies;
+
+    @Setup
+    public void setUp() {
+        sortLeaf = new SortLeaf(SortOrderBenchmark.createSortOrder(sortOrderType));
+        dependencies = BenchmarkData.createDependencies(size, shape);
+    }
+
+    @Benchmark
+    public List<String> validateDependencies() {
+        return sortLeaf.validateDependencies(dependencies);
+    }
+}
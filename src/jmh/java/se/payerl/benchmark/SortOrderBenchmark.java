@@ -0,0 +1,83 @@
+package se.payerl.benchmark;
+
+import org.apache.maven.model.Dependency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import se.payerl.AlphabeticalOrder;
+import se.payerl.OptionalOrder;
+import se.payerl.ScopeOrder;
+import se.payerl.sort.SortOrder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single SortOrder checking every adjacent pair of a list,
+ * the same way the engine calls isApplicable and validateOrder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortOrderBenchmark {
+
+    @Param({ "AlphabeticalOrder", "ScopeOrder", "OptionalOrder" })
+    public String sortOrderType;
+
+    @Param({ "10", "1000", "10000", "100000" })
+    public int size;
+
+    @Param({ "SORTED", "NEARLY_SORTED", "REVERSED" })
+    public BenchmarkData.Shape shape;
+
+    private SortOrder sortOrder;
+    private List<Dependency> dependencies;
+
+    @Setup
+    public void setUp() {
+        sortOrder = createSortOrder(sortOrderType);
+        dependencies = BenchmarkData.createDependencies(size, shape);
+    }
+
+    @Benchmark
+    public void validateOrder(Blackhole blackhole) {
+        Dependency previous = null;
+        for (Dependency dependency : dependencies) {
+            if (!sortOrder.isApplicable(dependency)) {
+                continue;
+            }
+            if (previous != null) {
+                blackhole.consume(sortOrder.validateOrder(previous, dependency));
+            }
+            previous = dependency;
+        }
+    }
+
+    static SortOrder createSortOrder(String type) {
+        switch (type) {
+            case "AlphabeticalOrder":
+                return new AlphabeticalOrder();
+            case "ScopeOrder":
+                return new ScopeOrder("compile", "provided", "runtime", "test");
+            case "OptionalOrder":
+                OptionalOrder optionalOrder = new OptionalOrder();
+                optionalOrder.setFirst("false");
+                optionalOrder.setThen("true");
+                return optionalOrder;
+            default:
+                throw new IllegalArgumentException("Unknown SortOrder " + type);
+        }
+    }
+}
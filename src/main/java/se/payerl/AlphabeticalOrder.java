@@ -25,8 +25,10 @@ public class AlphabeticalOrder extends SortOrder {
      * Specifies if the sorting should be reversed.
      *
      * @param inversed true for reverse alphabetical order, false for normal order
+     * @throws IllegalStateException if this SortOrder is frozen
      */
     public void setInversed(boolean inversed) {
+        checkNotFrozen();
         this.inversed = inversed;
     }
 
@@ -44,6 +46,11 @@ public class AlphabeticalOrder extends SortOrder {
         return this.getClass().getSimpleName() + "{inversed=" + inversed + "}";
     }
 
+    @Override
+    public String fingerprint() {
+        return "inversed=" + inversed;
+    }
+
     @Override
     public String extractSortKey(Dependency dependency) {
         requireNonNull(dependency, "dependency");
@@ -63,23 +70,100 @@ public class AlphabeticalOrder extends SortOrder {
 
     @Override
     public Optional<String> validateOrder(Dependency previousDependency, Dependency currentDependency) {
+        if (isInOrder(previousDependency, currentDependency)) {
+            return Optional.empty();
+        }
+        return Optional.of(formatViolation(previousDependency, currentDependency));
+    }
+
+    @Override
+    public boolean isInOrder(Dependency previousDependency, Dependency currentDependency) {
         requireNonNull(previousDependency, "previousDependency");
         requireNonNull(currentDependency, "currentDependency");
         
-        String previousKey = extractSortKey(previousDependency);
-        String currentKey = extractSortKey(currentDependency);
-        
-        boolean isWrongOrder = (!inversed && previousKey.compareToIgnoreCase(currentKey) > 0) ||
-                              (inversed && previousKey.compareToIgnoreCase(currentKey) < 0);
-        
-        if (isWrongOrder) {
-            String errorMessage = String.format("Dependency %s must be before %s", 
-                                               formatDependencyForError(currentDependency),
-                                               formatDependencyForError(previousDependency));
-            return Optional.of(errorMessage);
+        int comparison = compareKeys(previousDependency, currentDependency);
+        return inversed ? comparison >= 0 : comparison <= 0;
+    }
+
+    @Override
+    public int compare(Dependency first, Dependency second) {
+        int comparison = compareKeys(first, second);
+        return inversed ? -comparison : comparison;
+    }
+
+    /**
+     * Returns the {@code groupId:artifactId} key of the dependency.
+     */
+    @Override
+    public Object createSortKey(Dependency dependency) {
+        return extractSortKey(dependency);
+    }
+
+    @Override
+    public int compareSortKeys(Object firstKey, Object secondKey) {
+        int comparison = String.CASE_INSENSITIVE_ORDER.compare((String) firstKey, (String) secondKey);
+        return inversed ? -comparison : comparison;
+    }
+
+    @Override
+    public String formatViolation(Dependency previousDependency, Dependency currentDependency) {
+        requireNonNull(previousDependency, "previousDependency");
+        requireNonNull(currentDependency, "currentDependency");
+        return String.format("Dependency %s must be before %s", 
+                             formatDependencyForError(currentDependency),
+                             formatDependencyForError(previousDependency));
+    }
+
+    /**
+     * Compares the sort keys of two dependencies case-insensitively without building them.
+     * <p>
+     * The result has the same sign as
+     * {@code extractSortKey(first).compareToIgnoreCase(extractSortKey(second))},
+     * including how the ':' separator compares against characters in the groupId,
+     * but groupId and artifactId are compared in place.
+     * </p>
+     *
+     * @param first first dependency
+     * @param second second dependency
+     * @return negative, zero or positive if first is before, equal to or after second
+     * @throws IllegalArgumentException if any of the dependencies is null
+     */
+    public int compareKeys(Dependency first, Dependency second) {
+        requireNonNull(first, "first");
+        requireNonNull(second, "second");
+        return compareIgnoreCase(String.valueOf(first.getGroupId()), String.valueOf(first.getArtifactId()),
+                                 String.valueOf(second.getGroupId()), String.valueOf(second.getArtifactId()));
+    }
+
+    private static int compareIgnoreCase(String groupId1, String artifactId1, String groupId2, String artifactId2) {
+        int length1 = groupId1.length() + 1 + artifactId1.length();
+        int length2 = groupId2.length() + 1 + artifactId2.length();
+        int min = Math.min(length1, length2);
+        for (int i = 0; i < min; i++) {
+            char c1 = keyCharAt(groupId1, artifactId1, i);
+            char c2 = keyCharAt(groupId2, artifactId2, i);
+            // Same folding as String.CASE_INSENSITIVE_ORDER
+            if (c1 != c2) {
+                c1 = Character.toUpperCase(c1);
+                c2 = Character.toUpperCase(c2);
+                if (c1 != c2) {
+                    c1 = Character.toLowerCase(c1);
+                    c2 = Character.toLowerCase(c2);
+                    if (c1 != c2) {
+                        return c1 - c2;
+                    }
+                }
+            }
         }
-        
-        return Optional.empty();
+        return length1 - length2;
+    }
+
+    private static char keyCharAt(String groupId, String artifactId, int index) {
+        int groupIdLength = groupId.length();
+        if (index < groupIdLength) {
+            return groupId.charAt(index);
+        }
+        return index == groupIdLength ? ':' : artifactId.charAt(index - groupIdLength - 1);
     }
 
     @Override
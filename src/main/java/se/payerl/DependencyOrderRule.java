@@ -2,18 +2,40 @@ package se.payerl;
 
 import org.apache.maven.enforcer.rule.api.AbstractEnforcerRule;
 import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
-import org.apache.maven.model.Dependency;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.project.MavenProject;
-import se.payerl.sort.SortNode;
+import org.codehaus.plexus.util.ReaderFactory;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import se.payerl.cache.ResultCache;
+import se.payerl.jfr.RuleEvent;
+import se.payerl.model.ModelSections;
+import se.payerl.ratchet.DisorderBaseline;
+import se.payerl.reactor.ReactorValidator;
+import se.payerl.report.BuildScope;
+import se.payerl.report.MetricsSummary;
+import se.payerl.report.ReactorSummary;
+import se.payerl.report.ReportFormat;
+import se.payerl.report.ReportWriter;
+import se.payerl.sort.ReportMode;
 import se.payerl.sort.SortOrder;
-import se.payerl.sort.node.GroupNode;
-import se.payerl.sort.node.SortLeaf;
+import se.payerl.sort.ValidationMetrics;
+import se.payerl.sort.ValidationPlan;
+import se.payerl.sort.ViolationFormat;
+import se.payerl.xml.PomRewriter;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.stream.Collectors;
 
 /**
@@ -51,127 +73,485 @@ import java.util.stream.Collectors;
  *       &lt;inversed&gt;false&lt;/inversed&gt;
  *     &lt;/AlphabeticalOrder&gt;
  *   &lt;/SortOrders&gt;
+ *   &lt;groupOrder&gt;
+ *     &lt;group&gt;compile&lt;/group&gt;
+ *     &lt;group&gt;test&lt;/group&gt;
+ *   &lt;/groupOrder&gt;
  * &lt;/DependencyOrderRule&gt;
  * </pre>
  * 
  * In group mode:
  * - First rule is used for grouping
+ * - Optional groupOrder specifies the order of the groups, each group must be contiguous
  * - Remaining rules are applied within each group in sequence
  * - Supports multi-scope configuration with multiple &lt;then&gt; tags
+ *
+ * The configuration is compiled once into a {@link ValidationPlan} that is shared by
+ * every module with the same configuration. Compiling the plan freezes the configured
+ * SortOrders, and the rule only reads them through the plan afterwards, so rules and
+ * SortOrders can be shared by the threads of a parallel build.
+ *
+ * With &lt;reactorMode&gt;true&lt;/reactorMode&gt; the first module validates every module
+ * of the reactor in parallel and the other modules use their precomputed result.
+ *
+ * With &lt;cache&gt;true&lt;/cache&gt; results are stored on disk, keyed by the content of the
+ * dependency sections and the rule configuration, and replayed for unchanged modules.
+ *
+ * With &lt;failFast&gt;true&lt;/failFast&gt; or &lt;maxViolations&gt;N&lt;/maxViolations&gt; the
+ * validation of a module stops as soon as 1 or N violations are found.
+ *
+ * With &lt;reportMode&gt;minimal-moves&lt;/reportMode&gt; only the smallest set of dependencies
+ * that have to be moved is reported, instead of every adjacent pair in wrong order.
+ *
+ * With &lt;fix&gt;true&lt;/fix&gt; the dependency sections of the pom.xml are rewritten into
+ * the expected order before they are validated, keeping comments and formatting.
+ *
+ * With &lt;maxDisorder&gt;N&lt;/maxDisorder&gt; violations are only logged as warnings as long as
+ * the disorder score, the number of pairs of dependencies in wrong order, is at most N.
+ * With &lt;ratchet&gt;true&lt;/ratchet&gt; the score is recorded in &lt;ratchetFile&gt; and the build
+ * only fails if the score went up. The score is only counted, and logged for every module,
+ * when one of these options or a JSON or JUnit report uses it.
+ *
+ * With &lt;sections&gt; other ordered sections than &lt;dependencies&gt; and &lt;dependencyManagement&gt;
+ * are validated as well: profiles, plugins, pluginManagement, pluginDependencies and exclusions.
+ * All selected sections are visited in one pass over the model.
+ *
+ * With &lt;messageFormat&gt;compiler&lt;/messageFormat&gt; every violation is reported as
+ * "file:line:column: error: message", taken from the locations Maven recorded in the model.
+ *
+ * With &lt;reportFormat&gt;json,junit,sarif&lt;/reportFormat&gt; the results of every module are
+ * streamed into target/dependency-order-report.{json,xml,sarif} of the top-level project as
+ * soon as the module is validated. With &lt;quiet&gt;true&lt;/quiet&gt; only warnings, errors and a
+ * single summary line per build are logged.
+ *
+ * With &lt;parallelThreshold&gt;N&lt;/parallelThreshold&gt; the groups of a group mode
+ * hierarchy with at least N dependencies are validated in parallel, with the same result.
+ *
+ * With &lt;metrics&gt;true&lt;/metrics&gt; the time and work of every module and sort rule are
+ * written to target/dependency-order-metrics.json of the top-level project and logged as a
+ * table after the last module of the build.
+ *
+ * When the build runs with JDK Flight Recorder, every module, group level and sort leaf is
+ * recorded as an event in the "Maven / Dependency Order" category, see {@link RuleEvent}.
  */
 @Named("dependencyOrderRule")
 public class DependencyOrderRule extends AbstractEnforcerRule {
     @Inject
     private MavenProject project;
 
+    @Inject
+    private MavenSession session;
+
     // Sort orders configuration
     private List<SortOrder> SortOrders;
     
     // Flag for group mode - set as XML element instead of attribute
     private boolean groupMode = false;
 
+    // Order of the groups formed by the first sort rule in group mode
+    private List<String> groupOrder;
+
+    // Validate all modules of the reactor in parallel when the first module is checked
+    private boolean reactorMode = false;
+
+    // Maximum number of threads used in reactor mode, 0 for one per available processor
+    private int reactorThreads = 0;
+
+    // Reuse results of unchanged dependency sections from earlier builds
+    private boolean cache = false;
+
+    // Directory of the result cache, defaults to target/dependency-order-cache
+    private File cacheDirectory;
+
+    // Stop validating a module at the first violation
+    private boolean failFast = false;
+
+    // Stop validating a module after this many violations, 0 for no limit
+    private int maxViolations = 0;
+
+    // Rewrite the pom.xml into the expected order before validating it
+    private boolean fix = false;
+
+    // How violations are reported: adjacent (every pair in wrong order) or minimal-moves
+    private String reportMode;
+
+    // Highest disorder score that is tolerated, negative to fail on every violation
+    private int maxDisorder = -1;
+
+    // Only fail if the disorder score went up since it was recorded in ratchetFile
+    private boolean ratchet = false;
+
+    // File holding the recorded disorder score, defaults to dependency-order.score next to the pom.xml
+    private File ratchetFile;
+
+    // Validate groups with at least this many dependencies in parallel, 0 for serial validation
+    private int parallelThreshold = 0;
+
+    // Sections of the pom.xml to validate, defaults to dependencies and dependencyManagement
+    private List<String> sections;
+
+    // How violations are rendered in the failure message: default or compiler (file:line:column: error: ...)
+    private String messageFormat;
+
+    // Formats of the report of the whole build, comma separated: json, junit and/or sarif
+    private String reportFormat;
+
+    // Only log warnings, errors and one summary line per build
+    private boolean quiet = false;
+
+    // Count and time the work of every sort rule and log a summary table per build
+    private boolean metrics = false;
+
     @Override
     public void execute() throws EnforcerRuleException {
-        List<String> dependencyErrors = checkDependencyList(project.getOriginalModel().getDependencies());
-        
-        List<String> dependencyManagementErrors = new ArrayList<>();
-        if (project.getOriginalModel().getDependencyManagement() != null) {
-            dependencyManagementErrors = checkDependencyList(project.getOriginalModel().getDependencyManagement().getDependencies());
+        long start = metrics ? System.nanoTime() : 0L;
+        if (SortOrders == null || SortOrders.isEmpty()) {
+            info("No sort rules configured");
+            return;
         }
+        Object event = RuleEvent.MODULE.begin();
 
-        if((dependencyErrors.size() + dependencyManagementErrors.size()) > 0) {
-            String exceptionMessages = "";
+        ValidationPlan plan;
+        ViolationFormat format;
+        List<ReportFormat> reportFormats;
+        try {
+            plan = createPlan();
+            format = ViolationFormat.fromValue(messageFormat);
+            reportFormats = parseReportFormats();
+        } catch (IllegalArgumentException e) {
+            throw new EnforcerRuleException(e.getMessage(), e);
+        }
+        logConfiguration(plan);
+        ValidationMetrics validationMetrics = metrics ? new ValidationMetrics() : null;
 
-            if(!dependencyErrors.isEmpty()) {
-                String exceptionMsg = String.join("\n", dependencyErrors);
-                exceptionMessages += "<dependencies> dependencies are not in correct order:\n" + exceptionMsg;
+        Model model = project.getOriginalModel();
+        boolean fixed = false;
+        if (fix) {
+            Model fixedModel = fixPom(plan);
+            if (fixedModel != null) {
+                model = fixedModel;
+                fixed = true;
             }
+        }
 
-            if(!dependencyErrors.isEmpty() && !dependencyManagementErrors.isEmpty()) {
-                exceptionMessages += "\n\n";
+        ResultCache resultCache = null;
+        String cacheKey = null;
+        ValidationResult result = null;
+        // Like reactor results, cache entries are skipped for a model that was just rewritten
+        boolean useCache = cache && !fixed;
+        if (useCache && !plan.isCacheable()) {
+            getLog().warn("cache requires sort rules with a fingerprint, validating without cache");
+        } else if (useCache) {
+            resultCache = new ResultCache(getCacheDirectory().toPath());
+            cacheKey = ResultCache.key(plan, model);
+            result = resultCache.get(cacheKey).orElse(null);
+            if (result != null) {
+                info("Dependency sections unchanged, using cached result " + cacheKey);
             }
+        }
 
-            if(!dependencyManagementErrors.isEmpty()) {
-                String exceptionMsg = String.join("\n", dependencyManagementErrors);
-                exceptionMessages += "<dependencyManagement> dependencies are not in correct order:\n" + exceptionMsg;
+        if (result == null) {
+            // Reactor results are computed from the models in memory, which are outdated after a fix
+            if (reactorMode && session != null && !fixed) {
+                int threads = reactorThreads > 0 ? reactorThreads : Runtime.getRuntime().availableProcessors();
+                result = ReactorValidator.resultFor(session, project, plan, threads);
+            } else {
+                // Reactor results are shared by all modules, so only modules validated here have rule metrics
+                result = ValidationResult.validate(plan.withMetrics(validationMetrics).withModule(project.getId()), model);
             }
+            if (resultCache != null) {
+                try {
+                    resultCache.put(cacheKey, result);
+                } catch (IOException e) {
+                    getLog().warn("Could not write result cache entry in " + resultCache.getDirectory() + ": " + e.getMessage());
+                }
+            }
+        }
 
-            throw new EnforcerRuleException(exceptionMessages);
+        if (result.isDisorderCounted()) {
+            info("Disorder score: " + describeDisorder(result));
+        }
+        report(result, reportFormats);
+        if (validationMetrics != null) {
+            recordMetrics(System.nanoTime() - start, validationMetrics);
         }
+        if (event != null && RuleEvent.end(event)) {
+            commitModuleEvent(event, plan, model);
+        }
+        checkResult(result, format);
     }
 
-    private List<String> checkDependencyList(List<Dependency> dependencies) {
-        if (dependencies == null || dependencies.size() <= 1) {
-            getLog().info("Not enough dependencies to order");
-            return new ArrayList<>();
+    /**
+     * Appends the result of the module to the reports of the build and, in quiet mode, adds it
+     * to the summary that is logged when the build has ended.
+     *
+     * @param result result of the module
+     * @param reportFormats formats of the reports to write
+     */
+    private void report(ValidationResult result, List<ReportFormat> reportFormats) {
+        String pom = project.getFile() != null ? project.getFile().getPath() : null;
+        for (ReportFormat reportFormat : reportFormats) {
+            ReportWriter writer = ReportWriter.forSession(session, getBuildFile("dependency-order-report." + reportFormat.getExtension()),
+                                                         reportFormat);
+            try {
+                writer.write(project.getId(), pom, result);
+            } catch (IOException e) {
+                getLog().warn("Could not write report " + writer.getFile() + ": " + e.getMessage());
+            }
+        }
+        if (quiet) {
+            ReactorSummary summary = BuildScope.get(session, ReactorSummary.class, ReactorSummary::new);
+            summary.record(project.getId(), result);
+            BuildScope.onEnd(session, summary, () -> getLog().info(summary.toString()));
         }
+    }
 
-        if (SortOrders != null && !SortOrders.isEmpty()) {
-            getLog().info("Configured with " + SortOrders.size() + " sort rules, groupMode=" + groupMode);
-            if (groupMode) {
-                getLog().info("Using group sorting mode");
-                return checkDependencyListWithGroupSortOrders(dependencies);
-            } else {
-                getLog().info("Using simple sorting mode");
-                return checkDependencyListWithSortOrders(dependencies);
+    /**
+     * Adds the metrics of the module to the summary of the build, which is written to the
+     * metrics file and logged as a table when the build has ended.
+     *
+     * @param nanos wall time of the rule for the module
+     * @param validationMetrics metrics collected while validating the module
+     */
+    private void recordMetrics(long nanos, ValidationMetrics validationMetrics) {
+        Path file = getBuildFile("dependency-order-metrics.json");
+        MetricsSummary summary = BuildScope.get(session, MetricsSummary.class, MetricsSummary::new);
+        summary.record(project.getId(), nanos, validationMetrics);
+        BuildScope.onEnd(session, summary, () -> {
+            try {
+                summary.write(file);
+            } catch (IOException e) {
+                getLog().warn("Could not write metrics " + file + ": " + e.getMessage());
+            }
+            Arrays.stream(summary.toTable().split("\n")).forEach(getLog()::info);
+        });
+    }
+
+    /**
+     * Writes the flight recorder event of the module, with the number of dependencies in the
+     * validated sections.
+     */
+    private void commitModuleEvent(Object event, ValidationPlan plan, Model model) {
+        int[] dependencies = new int[1];
+        plan.getSections().walk(model, (section, entries) -> dependencies[0] += entries != null ? entries.size() : 0);
+        RuleEvent.commit(event, project.getId(), plan.getSections().toString(), plan.getRoot().getDescription(),
+                         dependencies[0]);
+    }
+
+    private List<ReportFormat> parseReportFormats() {
+        List<ReportFormat> formats = new ArrayList<>();
+        if (reportFormat != null && !reportFormat.trim().isEmpty()) {
+            for (String value : reportFormat.split(",")) {
+                ReportFormat parsed = ReportFormat.fromValue(value);
+                if (!formats.contains(parsed)) {
+                    formats.add(parsed);
+                }
             }
-        } else {
-            getLog().info("No sort rules configured");
-            return new ArrayList<>();
         }
+        return formats;
     }
-    
-    private List<String> checkDependencyListWithGroupSortOrders(List<Dependency> dependencies) {
-        if (SortOrders.size() == 1) {
-            // Only one rule, use normal sorting
-            return checkDependencyListWithSortOrders(dependencies);
-        }
-        
-        // Build automatic group structure
-        SortOrder groupingRule = SortOrders.get(0);
-        getLog().info("Group sorting - Grouping by: " + groupingRule.getDescription());
-        
-        // Create child rule from remaining rules
-        SortNode childRule = createChildRuleFromSortOrders(SortOrders.subList(1, SortOrders.size()));
-        
-        // Create GroupNode
-        GroupNode groupNode = new GroupNode(groupingRule, childRule);
-        
-        return groupNode.validateDependencies(dependencies);
+
+    private Path getBuildFile(String name) {
+        MavenProject topLevelProject = session != null && session.getTopLevelProject() != null
+                ? session.getTopLevelProject() : project;
+        return Paths.get(topLevelProject.getBuild().getDirectory(), name);
     }
-    
-    private SortNode createChildRuleFromSortOrders(List<SortOrder> sortOrders) {
-        if (sortOrders.size() == 1) {
-            return new SortLeaf(sortOrders.get(0));
-        } else if (sortOrders.size() > 1) {
-            // Recursively create hierarchy
-            SortOrder groupingRule = sortOrders.get(0);
-            SortNode childRule = createChildRuleFromSortOrders(sortOrders.subList(1, sortOrders.size()));
-            return new GroupNode(groupingRule, childRule);
-        } else {
-            throw new IllegalArgumentException("Cannot create child rule from empty SortOrders list");
+
+    private void info(String message) {
+        if (!quiet) {
+            getLog().info(message);
         }
     }
 
-    private List<String> checkDependencyListWithSortOrders(List<Dependency> dependencies) {
-        List<String> errors = new ArrayList<>();
+    /**
+     * Fails the build for a result with violations, unless the disorder score is tolerated by
+     * maxDisorder or ratchet mode. In ratchet mode the recorded score follows a lower score.
+     *
+     * @param result result of the module
+     * @param format format of the violations in the message
+     * @throws EnforcerRuleException if the result is not tolerated
+     */
+    private void checkResult(ValidationResult result, ViolationFormat format) throws EnforcerRuleException {
+        long disorder = result.getDisorder();
+        boolean tolerant = maxDisorder >= 0 || ratchet;
+        DisorderBaseline baseline = ratchet ? new DisorderBaseline(getRatchetFile().toPath()) : null;
+        OptionalLong recorded = OptionalLong.empty();
+        if (baseline != null) {
+            try {
+                recorded = baseline.read();
+            } catch (IOException e) {
+                throw new EnforcerRuleException("Could not read disorder score: " + e.getMessage(), e);
+            }
+        }
 
-        SortOrders.forEach(sortOrder -> {
-            getLog().info(sortOrder.getDescription());
-            List<Dependency> applicableDependencies = dependencies.stream()
-                    .filter(sortOrder::isApplicable)
-                    .collect(Collectors.toList());
-                    
-            for(int i = 1; i < applicableDependencies.size(); i++) {
-                Optional<String> validationError = sortOrder.validateOrder(
-                    applicableDependencies.get(i-1), 
-                    applicableDependencies.get(i)
-                );
-                validationError.ifPresent(errors::add);
+        if (!result.isSuccess()) {
+            List<String> reasons = new ArrayList<>();
+            if (tolerant && !result.isDisorderCounted()) {
+                reasons.add("Disorder score is not known, the validation stopped after " + result.getLimit()
+                        + (result.getLimit() == 1 ? " violation" : " violations"));
             }
-        });
+            if (maxDisorder >= 0 && disorder > maxDisorder) {
+                reasons.add("Disorder score " + disorder + " exceeds maxDisorder " + maxDisorder);
+            }
+            if (recorded.isPresent() && disorder > recorded.getAsLong()) {
+                reasons.add("Disorder score increased from " + recorded.getAsLong() + " to " + disorder
+                        + " (recorded in " + baseline.getFile() + ")");
+            }
+            if (!tolerant || !reasons.isEmpty()) {
+                String message = result.toMessage(format);
+                throw new EnforcerRuleException(reasons.isEmpty() ? message : message + "\n\n" + String.join("\n", reasons));
+            }
+            getLog().warn(result.toMessage(format));
+            getLog().warn("Tolerating disorder score " + disorder);
+        }
+
+        if (baseline != null && result.isDisorderCounted() && (!recorded.isPresent() || disorder < recorded.getAsLong())) {
+            try {
+                baseline.write(disorder);
+                info("Recorded disorder score " + disorder + " in " + baseline.getFile());
+            } catch (IOException e) {
+                getLog().warn("Could not record disorder score in " + baseline.getFile() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static String describeDisorder(ValidationResult result) {
+        List<String> sections = new ArrayList<>();
+        result.getDisorderBySection().forEach((section, disorder) -> sections.add(section + " " + disorder));
+        return sections.isEmpty() ? String.valueOf(result.getDisorder())
+                                  : result.getDisorder() + " (" + String.join(", ", sections) + ")";
+    }
+
+    /**
+     * Returns the cache key of the project when the result cache is enabled, so that the
+     * enforcer plugin skips repeated executions for the same module and dependency sections
+     * within one build. The key includes the project id, so modules with identical
+     * dependency sections are still checked one by one and each reports its own violations.
+     *
+     * @return cache key, or null if the result cache is disabled
+     */
+    @Override
+    public String getCacheId() {
+        if (!cache || fix || SortOrders == null || SortOrders.isEmpty() || project == null) {
+            return null;
+        }
+        try {
+            ValidationPlan plan = createPlan();
+            return plan.isCacheable() ? project.getId() + ":" + ResultCache.key(plan, project.getOriginalModel()) : null;
+        } catch (IllegalArgumentException e) {
+            // Reported by execute
+            return null;
+        }
+    }
+
+    /**
+     * Rewrites the dependency sections of the pom.xml into the expected order.
+     *
+     * @param plan plan giving the expected order
+     * @return model read from the rewritten pom.xml, or null if the pom.xml was not changed
+     * @throws EnforcerRuleException if the pom.xml could not be rewritten or read
+     */
+    private Model fixPom(ValidationPlan plan) throws EnforcerRuleException {
+        File pom = project.getFile();
+        if (pom == null || !pom.isFile()) {
+            getLog().warn("fix requires a pom.xml file, validating without fixing");
+            return null;
+        }
+        List<String> sections;
+        try {
+            sections = new PomRewriter(plan).rewrite(pom.toPath());
+        } catch (IOException e) {
+            throw new EnforcerRuleException("Could not fix dependency order in " + pom + ": " + e.getMessage(), e);
+        }
+        if (sections.isEmpty()) {
+            return null;
+        }
+        info("Sorted " + String.join(" and ", sections) + " in " + pom);
+        try (Reader reader = ReaderFactory.newXmlReader(pom)) {
+            return new MavenXpp3Reader().read(reader);
+        } catch (IOException | XmlPullParserException e) {
+            throw new EnforcerRuleException("Could not read " + pom + " after fixing dependency order: " + e.getMessage(), e);
+        }
+    }
 
-        return errors;
+    private ValidationPlan createPlan() {
+        return ValidationPlan.of(SortOrders, groupMode, groupOrder, failFast ? 1 : maxViolations,
+                                 ReportMode.fromValue(reportMode))
+                .withSections(ModelSections.fromValues(sections))
+                .withParallelThreshold(parallelThreshold)
+                .withDisorder(usesDisorder());
+    }
+
+    /**
+     * Returns if the disorder score is used, by maxDisorder, ratchet mode or a report.
+     * Counting it sorts every section, so it is skipped otherwise.
+     */
+    private boolean usesDisorder() {
+        return maxDisorder >= 0 || ratchet || parseReportFormats().stream().anyMatch(ReportFormat::usesDisorder);
+    }
+
+    private File getCacheDirectory() {
+        if (cacheDirectory != null) {
+            return cacheDirectory;
+        }
+        return new File(project.getBuild().getDirectory(), "dependency-order-cache");
+    }
+
+    private File getRatchetFile() {
+        if (ratchetFile != null) {
+            return ratchetFile;
+        }
+        return new File(project.getBasedir(), "dependency-order.score");
+    }
+
+    private void logConfiguration(ValidationPlan plan) {
+        info("Configured with " + plan.getSortOrders().size() + " sort rules, groupMode=" + groupMode);
+        if (groupMode) {
+            info("Using group sorting mode");
+        } else {
+            info("Using simple sorting mode");
+        }
+        if (plan.isGroupMode()) {
+            info("Group sorting - Grouping by: " + plan.getSortOrders().get(0).getDescription());
+            if (!plan.getGroupOrder().isEmpty()) {
+                info("Group order: " + String.join(", ", plan.getGroupOrder()));
+            }
+        } else {
+            if (groupOrder != null && !groupOrder.isEmpty()) {
+                getLog().warn("groupOrder is only used in group mode with more than one sort rule");
+            }
+            plan.getSortOrders().forEach(sortOrder -> info(sortOrder.getDescription()));
+        }
+        if (plan.getMaxViolations() > 0) {
+            info("Stopping after " + plan.getMaxViolations()
+                    + (plan.getMaxViolations() == 1 ? " violation" : " violations"));
+        }
+        if (plan.getReportMode() == ReportMode.MINIMAL_MOVES) {
+            info("Reporting the minimal set of dependencies to move");
+        }
+        if (!plan.getSections().equals(ModelSections.DEFAULT)) {
+            info("Validating sections: " + plan.getSections());
+        }
+        if (plan.getParallelThreshold() > 0) {
+            info("Validating groups with at least " + plan.getParallelThreshold()
+                    + " dependencies in parallel");
+        }
+        if (fix) {
+            info("Fixing dependency order in pom.xml");
+        }
+        if (maxDisorder >= 0) {
+            info("Tolerating a disorder score of at most " + maxDisorder);
+        }
+        if (ratchet) {
+            info("Failing only if the disorder score goes up");
+        }
+        if (reactorMode) {
+            if (session != null) {
+                info("Using reactor mode");
+            } else {
+                getLog().warn("reactorMode requires a Maven session, validating module on its own");
+            }
+        }
     }
 
     @Override
@@ -1,6 +1,7 @@
 package se.payerl;
 
 import org.apache.maven.model.Dependency;
+import se.payerl.sort.RankedSortOrder;
 import se.payerl.sort.SortOrder;
 
 import java.util.Objects;
@@ -12,7 +13,7 @@ import java.util.Optional;
  * 
  * For example, one can configure that non-optional dependencies should come before optional dependencies.
  */
-public class OptionalOrder extends SortOrder {
+public class OptionalOrder extends SortOrder implements RankedSortOrder {
     private String first;
     private String then;
 
@@ -26,8 +27,10 @@ public class OptionalOrder extends SortOrder {
      * Specifies which optional value should come first.
      *
      * @param first optional value that should come first ("true" or "false")
+     * @throws IllegalStateException if this SortOrder is frozen
      */
     public void setFirst(String first) {
+        checkNotFrozen();
         this.first = first;
     }
 
@@ -35,8 +38,10 @@ public class OptionalOrder extends SortOrder {
      * Specifies which optional value should come after first.
      *
      * @param then optional value that should come after first ("true" or "false")
+     * @throws IllegalStateException if this SortOrder is frozen
      */
     public void setThen(String then) {
+        checkNotFrozen();
         this.then = then;
     }
 
@@ -67,6 +72,11 @@ public class OptionalOrder extends SortOrder {
         return this.getClass().getSimpleName() + "{first=" + first + ", then=" + then + "}";
     }
 
+    @Override
+    public String fingerprint() {
+        return "first=" + first + ";then=" + then;
+    }
+
     @Override
     public String extractSortKey(Dependency dependency) {
         requireNonNull(dependency, "dependency");
@@ -81,20 +91,72 @@ public class OptionalOrder extends SortOrder {
 
     @Override
     public Optional<String> validateOrder(Dependency previousDependency, Dependency currentDependency) {
+        if (isInOrder(previousDependency, currentDependency)) {
+            return Optional.empty();
+        }
+        return Optional.of(formatViolation(previousDependency, currentDependency));
+    }
+
+    @Override
+    public boolean isInOrder(Dependency previousDependency, Dependency currentDependency) {
         requireNonNull(previousDependency, "previousDependency");
         requireNonNull(currentDependency, "currentDependency");
 
         String prevOptional = extractSortKey(previousDependency);
         String currentOptional = extractSortKey(currentDependency);
+        return !(prevOptional.equalsIgnoreCase(then) && currentOptional.equalsIgnoreCase(first));
+    }
 
-        if (prevOptional.equalsIgnoreCase(then) && currentOptional.equalsIgnoreCase(first)) {
-            String errorMessage = String.format("Dependency %s must be before %s", 
-                                               formatDependencyForError(currentDependency),
-                                               formatDependencyForError(previousDependency));
-            return Optional.of(errorMessage);
+    @Override
+    public int compare(Dependency first, Dependency second) {
+        requireNonNull(first, "first");
+        requireNonNull(second, "second");
+        return Integer.compare(rank(first), rank(second));
+    }
+
+    /**
+     * Returns 0 for dependencies with the first optional value and 1 for the then value.
+     * Dependencies with neither value, which this rule is not applicable to, get 2.
+     *
+     * @param dependency dependency to get rank for
+     * @return rank of the optional value
+     * @throws IllegalArgumentException if dependency is null
+     */
+    @Override
+    public int rank(Dependency dependency) {
+        String optionalValue = extractSortKey(dependency);
+        if (optionalValue.equalsIgnoreCase(first)) {
+            return 0;
         }
-        
-        return Optional.empty();
+        return optionalValue.equalsIgnoreCase(then) ? 1 : 2;
+    }
+
+    /**
+     * Returns the position of the dependency in the configured order.
+     */
+    @Override
+    public Object createSortKey(Dependency dependency) {
+        requireNonNull(dependency, "dependency");
+        return rank(dependency);
+    }
+
+    @Override
+    public int compareSortKeys(Object firstKey, Object secondKey) {
+        return Integer.compare((Integer) firstKey, (Integer) secondKey);
+    }
+
+    @Override
+    public int rankCount() {
+        return 2;
+    }
+
+    @Override
+    public String formatViolation(Dependency previousDependency, Dependency currentDependency) {
+        requireNonNull(previousDependency, "previousDependency");
+        requireNonNull(currentDependency, "currentDependency");
+        return String.format("Dependency %s must be before %s", 
+                             formatDependencyForError(currentDependency),
+                             formatDependencyForError(previousDependency));
     }
 
     @Override
@@ -2,12 +2,13 @@ package se.payerl;
 
 import org.apache.maven.model.Dependency;
 import se.payerl.model.Scope;
+import se.payerl.sort.RankedSortOrder;
 import se.payerl.sort.SortOrder;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -34,9 +35,11 @@ import java.util.stream.Collectors;
  * &lt;/ScopeOrder&gt;
  * </pre>
  */
-public class ScopeOrder extends SortOrder {
+public class ScopeOrder extends SortOrder implements RankedSortOrder {
     private Scope firstScope;
     private List<Scope> thenScopeList = new ArrayList<>();
+    // Position of every Scope in the configured order indexed by Scope.ordinal(), -1 if not configured
+    private int[] rankTable = createRankTable(null, thenScopeList);
 
     /**
      * Creates a new ScopeOrder without configuration.
@@ -53,6 +56,7 @@ public class ScopeOrder extends SortOrder {
     public ScopeOrder(Scope first, Scope then) {
         this.firstScope = first;
         this.thenScopeList.add(then);
+        updateRankTable();
     }
     
     /**
@@ -65,6 +69,7 @@ public class ScopeOrder extends SortOrder {
     public ScopeOrder(String first, String then) {
         this.firstScope = Scope.fromValue(first);
         this.thenScopeList.add(Scope.fromValue(then));
+        updateRankTable();
     }
     
     /**
@@ -76,6 +81,7 @@ public class ScopeOrder extends SortOrder {
     public ScopeOrder(Scope first, Scope... thenScopes) {
         this.firstScope = first;
         this.thenScopeList.addAll(Arrays.asList(thenScopes));
+        updateRankTable();
     }
     
     /**
@@ -91,6 +97,7 @@ public class ScopeOrder extends SortOrder {
                 Arrays.stream(thenScopes)
                       .map(Scope::fromValue)
                       .collect(Collectors.toList()));
+        updateRankTable();
     }
 
     /**
@@ -98,9 +105,12 @@ public class ScopeOrder extends SortOrder {
      * Maven XML compatibility - converts string to Scope.
      *
      * @param first scope that should come first
+     * @throws IllegalStateException if this SortOrder is frozen
      */
     public void setFirst(String first) {
+        checkNotFrozen();
         this.firstScope = Scope.fromValue(first);
+        updateRankTable();
     }
 
     /**
@@ -108,12 +118,15 @@ public class ScopeOrder extends SortOrder {
      * Maven XML compatibility - converts string to Scope.
      *
      * @param then scope that should come after first
+     * @throws IllegalStateException if this SortOrder is frozen
      */
     public void setThen(String... then) {
+        checkNotFrozen();
         this.thenScopeList.clear();
         this.thenScopeList.addAll(Arrays.stream(then)
                                      .map(Scope::fromValue)
                                      .collect(Collectors.toList()));
+        updateRankTable();
     }
 
     /**
@@ -121,9 +134,12 @@ public class ScopeOrder extends SortOrder {
      * Maven XML compatibility - converts string to Scope.
      *
      * @param then scope to add to the order
+     * @throws IllegalStateException if this SortOrder is frozen
      */
     public void addThen(String then) {
+        checkNotFrozen();
         this.thenScopeList.add(Scope.fromValue(then));
+        updateRankTable();
     }
 
     /**
@@ -148,10 +164,10 @@ public class ScopeOrder extends SortOrder {
     /**
      * Returns all scopes that should come after first.
      *
-     * @return list of scopes in order
+     * @return unmodifiable list of scopes in order
      */
     public List<Scope> getThenList() {
-        return thenScopeList;
+        return Collections.unmodifiableList(thenScopeList);
     }
 
     @Override
@@ -163,6 +179,35 @@ public class ScopeOrder extends SortOrder {
         }
     }
 
+    @Override
+    public String fingerprint() {
+        return "first=" + firstScope + ";then=" + thenScopeList;
+    }
+
+    /**
+     * Returns the position of the dependency's scope in the configured order.
+     * This is a plain table lookup that does not allocate.
+     *
+     * @param dependency dependency to get rank for
+     * @return position in the configured order (0 for first), or -1 if the scope is not configured
+     * @throws IllegalArgumentException if dependency is null
+     */
+    @Override
+    public int rank(Dependency dependency) {
+        requireNonNull(dependency, "dependency");
+        return rankTable[Scope.fromValue(dependency.getScope()).ordinal()];
+    }
+
+    /**
+     * Returns the number of positions in the configured order.
+     *
+     * @return one more than the highest rank
+     */
+    @Override
+    public int rankCount() {
+        return thenScopeList.size() + 1;
+    }
+
     @Override
     public String extractSortKey(Dependency dependency) {
         requireNonNull(dependency, "dependency");
@@ -173,39 +218,61 @@ public class ScopeOrder extends SortOrder {
     @Override
     public String formatDependencyForError(Dependency dependency) {
         requireNonNull(dependency, "dependency");
-        return dependency.getGroupId() + ":" + dependency.getArtifactId() + " scope:" + extractSortKey(dependency);
+        String scope = dependency.getScope();
+        return dependency.getGroupId() + ":" + dependency.getArtifactId() + " scope:" + (scope != null ? scope : "compile");
     }
 
     @Override
     public Optional<String> validateOrder(Dependency previousDependency, Dependency currentDependency) {
+        if (isInOrder(previousDependency, currentDependency)) {
+            return Optional.empty();
+        }
+        return Optional.of(formatViolation(previousDependency, currentDependency));
+    }
+
+    @Override
+    public boolean isInOrder(Dependency previousDependency, Dependency currentDependency) {
         requireNonNull(previousDependency, "previousDependency");
         requireNonNull(currentDependency, "currentDependency");
 
-        Scope prevScope = Scope.fromValue(extractSortKey(previousDependency));
-        Scope currentScope = Scope.fromValue(extractSortKey(currentDependency));
-        
-        // Create complete order list
-        List<Scope> scopeOrder = new ArrayList<>();
-        scopeOrder.add(getFirst());
-        scopeOrder.addAll(getThenList());
-        
-        int prevIndex = scopeOrder.indexOf(prevScope);
-        int currentIndex = scopeOrder.indexOf(currentScope);
+        int prevIndex = rank(previousDependency);
+        int currentIndex = rank(currentDependency);
         
         // If any scope is not in the list, no validation
         if (prevIndex == -1 || currentIndex == -1) {
-            return Optional.empty();
-        }
-        
-        // Check that the order is correct
-        if (prevIndex > currentIndex) {
-            String errorMessage = String.format("Dependency %s (scope: %s) must be before %s (scope: %s)", 
-                                               formatDependencyForError(currentDependency), currentScope,
-                                               formatDependencyForError(previousDependency), prevScope);
-            return Optional.of(errorMessage);
+            return true;
         }
-        
-        return Optional.empty();
+        return prevIndex <= currentIndex;
+    }
+
+    @Override
+    public int compare(Dependency first, Dependency second) {
+        return Integer.compare(rank(first), rank(second));
+    }
+
+    /**
+     * Returns the position of the dependency in the configured order.
+     */
+    @Override
+    public Object createSortKey(Dependency dependency) {
+        requireNonNull(dependency, "dependency");
+        return rank(dependency);
+    }
+
+    @Override
+    public int compareSortKeys(Object firstKey, Object secondKey) {
+        return Integer.compare((Integer) firstKey, (Integer) secondKey);
+    }
+
+    @Override
+    public String formatViolation(Dependency previousDependency, Dependency currentDependency) {
+        requireNonNull(previousDependency, "previousDependency");
+        requireNonNull(currentDependency, "currentDependency");
+        return String.format("Dependency %s (scope: %s) must be before %s (scope: %s)", 
+                             formatDependencyForError(currentDependency),
+                             Scope.fromValue(currentDependency.getScope()),
+                             formatDependencyForError(previousDependency),
+                             Scope.fromValue(previousDependency.getScope()));
     }
 
     @Override
@@ -220,8 +287,26 @@ public class ScopeOrder extends SortOrder {
 
     @Override
     public boolean isApplicable(Dependency dependency) {
-        requireNonNull(dependency, "dependency");
-        Scope scope = Scope.fromValue(extractSortKey(dependency));
-        return Objects.equals(scope, getFirst()) || getThenList().contains(scope);
+        return rank(dependency) != -1;
+    }
+
+    private void updateRankTable() {
+        rankTable = createRankTable(firstScope, thenScopeList);
+    }
+
+    private static int[] createRankTable(Scope first, List<Scope> thenScopes) {
+        int[] table = new int[Scope.values().length];
+        Arrays.fill(table, -1);
+        if (first != null) {
+            table[first.ordinal()] = 0;
+        }
+        for (int i = 0; i < thenScopes.size(); i++) {
+            Scope scope = thenScopes.get(i);
+            // Same semantics as indexOf in the complete order list: first position wins
+            if (scope != null && table[scope.ordinal()] == -1) {
+                table[scope.ordinal()] = i + 1;
+            }
+        }
+        return table;
     }
 }
@@ -0,0 +1,350 @@
+package se.payerl;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import se.payerl.model.ModelSections;
+import se.payerl.sort.ValidationPlan;
+import se.payerl.sort.Violation;
+import se.payerl.sort.ViolationFormat;
+import se.payerl.sort.ViolationSink;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of validating the dependency sections of one module with a {@link ValidationPlan}.
+ * Sections are named by their path in the pom.xml, for example {@link #DEPENDENCIES} or
+ * "&lt;build&gt;&lt;plugins&gt;".
+ * <p>
+ * Violations are kept per section in the order the sections were validated. Error
+ * messages are formatted from the violations when they are asked for.
+ * When the plan has a violation limit, validation stops as soon as a violation over the
+ * limit is found and later sections are skipped.
+ * <p>
+ * When the plan {@linkplain ValidationPlan#withDisorder(boolean) counts the disorder score},
+ * the result also holds the score of every section, the number of pairs of dependencies in
+ * wrong order, which is cheap to compare between builds. The score is only known when every
+ * section was checked to the end, so it is not counted when the violation limit was reached,
+ * see {@link #isDisorderCounted()}.
+ * A result is immutable once created.
+ */
+public final class ValidationResult {
+    /** Section name of the &lt;dependencies&gt; section. */
+    public static final String DEPENDENCIES = ModelSections.DEPENDENCIES;
+    /** Section name of the &lt;dependencyManagement&gt; section. */
+    public static final String DEPENDENCY_MANAGEMENT = ModelSections.DEPENDENCY_MANAGEMENT;
+
+    private final Map<String, List<Violation>> violationsBySection;
+    private final int limit;
+    private final Map<String, Long> disorderBySection;
+    private final boolean disorderCounted;
+
+    private ValidationResult(Map<String, List<Violation>> violationsBySection, int limit,
+                             Map<String, Long> disorderBySection) {
+        this.violationsBySection = Collections.unmodifiableMap(violationsBySection);
+        this.limit = limit;
+        this.disorderCounted = disorderBySection != null;
+        this.disorderBySection = disorderCounted ? Collections.unmodifiableMap(disorderBySection)
+                                                 : Collections.<String, Long>emptyMap();
+    }
+
+    /**
+     * Validates the sections of a model selected by the plan, see {@link ValidationPlan#getSections()},
+     * in one pass over the model. By default these are the &lt;dependencies&gt; and
+     * &lt;dependencyManagement&gt; sections.
+     *
+     * @param plan plan to validate with
+     * @param model model to validate, normally the original model of a project
+     * @return result of the validation
+     */
+    public static ValidationResult validate(ValidationPlan plan, Model model) {
+        BudgetSink sink = new BudgetSink(plan.getMaxViolations());
+        Map<String, List<Violation>> violationsBySection = new LinkedHashMap<>();
+        Map<String, Long> disorderBySection = new LinkedHashMap<>();
+        plan.getSections().walk(model, (section, dependencies) ->
+                validateSection(plan, section, dependencies, sink, violationsBySection, disorderBySection));
+        boolean disorderCounted = plan.isCountingDisorder() && !sink.limitReached;
+        return new ValidationResult(violationsBySection, sink.limitReached ? plan.getMaxViolations() : 0,
+                                    disorderCounted ? disorderBySection : null);
+    }
+
+    /**
+     * Creates a result from errors that were validated earlier, for example read from a cache.
+     * The errors become violations of kind {@link Violation.Kind#MESSAGE}. The result has no
+     * disorder score.
+     *
+     * @param errorsBySection map from section name to error messages, in validation order
+     * @return result holding a copy of the errors
+     */
+    public static ValidationResult of(Map<String, List<String>> errorsBySection) {
+        return of(errorsBySection, 0);
+    }
+
+    /**
+     * Creates a result from errors that were validated earlier, for example read from a cache.
+     * The errors become violations of kind {@link Violation.Kind#MESSAGE}. The result has no
+     * disorder score.
+     *
+     * @param errorsBySection map from section name to error messages, in validation order
+     * @param limit violation limit that stopped the validation, 0 if it ran to completion
+     * @return result holding a copy of the errors
+     */
+    public static ValidationResult of(Map<String, List<String>> errorsBySection, int limit) {
+        return of(errorsBySection, limit, null);
+    }
+
+    /**
+     * Creates a result from errors and disorder scores that were validated earlier, for example
+     * read from a cache. The errors become violations of kind {@link Violation.Kind#MESSAGE}.
+     *
+     * @param errorsBySection map from section name to error messages, in validation order
+     * @param limit violation limit that stopped the validation, 0 if it ran to completion
+     * @param disorderBySection map from section name to disorder score, null if the score was not counted
+     * @return result holding a copy of the errors and scores
+     */
+    public static ValidationResult of(Map<String, List<String>> errorsBySection, int limit,
+                                      Map<String, Long> disorderBySection) {
+        Map<String, List<Violation>> violationsBySection = new LinkedHashMap<>();
+        errorsBySection.forEach((section, errors) -> {
+            List<Violation> violations = new ArrayList<>(errors.size());
+            errors.forEach(error -> violations.add(Violation.message(section, error)));
+            violationsBySection.put(section, Collections.unmodifiableList(violations));
+        });
+        return new ValidationResult(violationsBySection, Math.max(0, limit), copyOf(disorderBySection));
+    }
+
+    /**
+     * Creates a result from violations and disorder scores that were validated earlier,
+     * for example read from a cache together with their source locations.
+     *
+     * @param violationsBySection map from section name to violations, in validation order
+     * @param limit violation limit that stopped the validation, 0 if it ran to completion
+     * @param disorderBySection map from section name to disorder score, null if the score was not counted
+     * @return result holding a copy of the violations and scores
+     */
+    public static ValidationResult ofViolations(Map<String, List<Violation>> violationsBySection, int limit,
+                                                Map<String, Long> disorderBySection) {
+        Map<String, List<Violation>> copy = new LinkedHashMap<>();
+        violationsBySection.forEach((section, violations) ->
+                copy.put(section, Collections.unmodifiableList(new ArrayList<>(violations))));
+        return new ValidationResult(copy, Math.max(0, limit), copyOf(disorderBySection));
+    }
+
+    private static Map<String, Long> copyOf(Map<String, Long> disorderBySection) {
+        return disorderBySection != null ? new LinkedHashMap<>(disorderBySection) : null;
+    }
+
+    /**
+     * Validates a section, counting its disorder score in the same run if the plan counts it.
+     * Once the violation limit is reached later sections are skipped.
+     */
+    private static void validateSection(ValidationPlan plan, String section, List<Dependency> dependencies,
+                                        BudgetSink sink, Map<String, List<Violation>> violationsBySection,
+                                        Map<String, Long> disorderBySection) {
+        if (sink.limitReached) {
+            return;
+        }
+        if (dependencies == null || dependencies.size() <= 1) {
+            violationsBySection.put(section, Collections.emptyList());
+            disorderBySection.put(section, 0L);
+            return;
+        }
+        int first = sink.violations.size();
+        if (plan.isCountingDisorder()) {
+            disorderBySection.put(section, plan.validateWithDisorder(dependencies, section, sink));
+        } else {
+            plan.validate(dependencies, section, sink);
+        }
+        List<Violation> violations = sink.violations.subList(first, sink.violations.size());
+        violationsBySection.put(section, violations.isEmpty() ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(violations)));
+    }
+
+    /**
+     * Returns the violations of a section.
+     *
+     * @param section section name, for example {@link #DEPENDENCIES}
+     * @return list of violations, empty if the section is correct or was not validated
+     */
+    public List<Violation> getViolations(String section) {
+        return violationsBySection.getOrDefault(section, Collections.emptyList());
+    }
+
+    /**
+     * Returns the violations of all validated sections.
+     *
+     * @return map from section name to violations, in validation order
+     */
+    public Map<String, List<Violation>> getViolationsBySection() {
+        return violationsBySection;
+    }
+
+    /**
+     * Returns the error messages of a section.
+     *
+     * @param section section name, for example {@link #DEPENDENCIES}
+     * @return list of error messages, empty if the section is correct or was not validated
+     */
+    public List<String> getErrors(String section) {
+        return toMessages(getViolations(section));
+    }
+
+    /**
+     * Returns the error messages of all validated sections.
+     *
+     * @return map from section name to error messages, in validation order
+     */
+    public Map<String, List<String>> getErrorsBySection() {
+        Map<String, List<String>> errorsBySection = new LinkedHashMap<>();
+        violationsBySection.forEach((section, violations) -> errorsBySection.put(section, toMessages(violations)));
+        return Collections.unmodifiableMap(errorsBySection);
+    }
+
+    /**
+     * Returns the total number of errors.
+     *
+     * @return number of errors in all sections
+     */
+    public int getErrorCount() {
+        return violationsBySection.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Returns if the validation was stopped because the violation limit was reached.
+     * The sections may then have more violations than reported.
+     *
+     * @return true if the violation limit was reached
+     */
+    public boolean isLimitReached() {
+        return limit > 0;
+    }
+
+    /**
+     * Returns the violation limit that stopped the validation.
+     *
+     * @return violation limit, 0 if the validation ran to completion
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns if the disorder score was counted. It is not counted unless the plan
+     * {@linkplain ValidationPlan#withDisorder(boolean) asks for it}, and not when the
+     * violation limit was reached.
+     *
+     * @return true if the disorder scores of this result are known
+     */
+    public boolean isDisorderCounted() {
+        return disorderCounted;
+    }
+
+    /**
+     * Returns the disorder score of a section, the number of pairs of dependencies in wrong order.
+     *
+     * @param section section name, for example {@link #DEPENDENCIES}
+     * @return disorder score, 0 if the section is in correct order, does not exist or the score
+     *         was not counted
+     */
+    public long getDisorder(String section) {
+        return disorderBySection.getOrDefault(section, 0L);
+    }
+
+    /**
+     * Returns the disorder score of the module, the sum of the scores of all sections.
+     *
+     * @return disorder score, 0 if every section is in correct order or the score was not counted
+     */
+    public long getDisorder() {
+        return disorderBySection.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Returns the disorder scores of all sections.
+     *
+     * @return map from section name to disorder score, in validation order, empty if the score
+     *         was not counted
+     */
+    public Map<String, Long> getDisorderBySection() {
+        return disorderBySection;
+    }
+
+    /**
+     * Returns if no section has errors.
+     *
+     * @return true if every section is in correct order
+     */
+    public boolean isSuccess() {
+        return getErrorCount() == 0;
+    }
+
+    /**
+     * Creates the message reported when the validation fails.
+     *
+     * @return message listing the errors of every section with errors
+     */
+    public String toMessage() {
+        return toMessage(ViolationFormat.DEFAULT);
+    }
+
+    /**
+     * Creates the message reported when the validation fails, rendering every violation
+     * on its own line in a format.
+     *
+     * @param format format of the violation lines
+     * @return message listing the errors of every section with errors
+     */
+    public String toMessage(ViolationFormat format) {
+        List<String> sectionMessages = new ArrayList<>();
+        violationsBySection.forEach((section, violations) -> {
+            if (!violations.isEmpty()) {
+                List<String> lines = new ArrayList<>(violations.size());
+                violations.forEach(violation -> lines.add(format.format(violation)));
+                sectionMessages.add(section + " dependencies are not in correct order:\n" + String.join("\n", lines));
+            }
+        });
+        if (isLimitReached()) {
+            sectionMessages.add("Stopped after " + limit + (limit == 1 ? " violation" : " violations")
+                    + ", further violations were not looked for");
+        }
+        return String.join("\n\n", sectionMessages);
+    }
+
+    private static List<String> toMessages(List<Violation> violations) {
+        List<String> messages = new ArrayList<>(violations.size());
+        for (Violation violation : violations) {
+            messages.add(violation.getMessage());
+        }
+        return Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * Collects the violations of all sections of a module, up to the violation limit of the plan.
+     * The validation stops as soon as the limit is reached.
+     */
+    private static final class BudgetSink implements ViolationSink {
+        private final List<Violation> violations = new ArrayList<>();
+        private final int maxViolations;
+        private boolean limitReached;
+
+        BudgetSink(int maxViolations) {
+            this.maxViolations = maxViolations > 0 ? maxViolations : Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void accept(Violation violation) {
+            if (violations.size() < maxViolations) {
+                violations.add(violation);
+                limitReached = violations.size() == maxViolations;
+            }
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return maxViolations - violations.size();
+        }
+    }
+}
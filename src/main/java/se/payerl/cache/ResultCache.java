@@ -0,0 +1,305 @@
+package se.payerl.cache;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.InputLocation;
+import org.apache.maven.model.InputSource;
+import org.apache.maven.model.Model;
+import se.payerl.ValidationResult;
+import se.payerl.sort.ValidationPlan;
+import se.payerl.sort.Violation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * On-disk cache of validation results.
+ * <p>
+ * Entries are keyed by a SHA-256 hash of the version of this plugin, the plan fingerprint and the content of the
+ * sections of a module that the plan validates, by default the &lt;dependencies&gt; and
+ * &lt;dependencyManagement&gt; sections. A module whose
+ * dependency sections and rule configuration did not change since the last run gets
+ * the cached result back without being validated again. The source locations of the
+ * dependencies are part of the key and stored with the violations, so a replayed result
+ * points at the same lines as a fresh one.
+ * <p>
+ * Entries are written to a temporary file and moved in place, so concurrent builds
+ * sharing a cache directory never see partial entries.
+ */
+public final class ResultCache {
+    private static final String FORMAT_HEADER = "DependencyOrderRule-cache-6";
+    private static final String SECTION_PREFIX = "S ";
+    private static final String ERROR_PREFIX = "E ";
+    private static final String LIMIT_PREFIX = "L ";
+    private static final String DISORDER_PREFIX = "D ";
+    private static final String UNSCORED_LINE = "U";
+    private static final String LOCATION_PREFIX = "P ";
+    // Results of an older or newer version of the rules must not be replayed
+    private static final String PLUGIN_VERSION = loadPluginVersion();
+
+    private final Path directory;
+
+    /**
+     * Creates a cache stored in a directory.
+     *
+     * @param directory directory of the cache entries, created when the first entry is written
+     */
+    public ResultCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Creates the cache key of a model validated with a plan.
+     *
+     * @param plan plan the model is validated with
+     * @param model model to validate, normally the original model of a project
+     * @return hexadecimal SHA-256 key
+     */
+    public static String key(ValidationPlan plan, Model model) {
+        MessageDigest digest = sha256();
+        update(digest, FORMAT_HEADER);
+        update(digest, PLUGIN_VERSION);
+        update(digest, plan.getFingerprint());
+        plan.getSections().walk(model, (section, dependencies) -> {
+            update(digest, section);
+            updateDependencies(digest, dependencies);
+        });
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(String.format("%02x", b));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the cached result of a key.
+     *
+     * @param key cache key created by {@link #key(ValidationPlan, Model)}
+     * @return cached result, or empty if there is no readable entry
+     */
+    public Optional<ValidationResult> get(String key) {
+        Path entry = directory.resolve(key);
+        if (!Files.isRegularFile(entry)) {
+            return Optional.empty();
+        }
+        try (BufferedReader reader = Files.newBufferedReader(entry, StandardCharsets.UTF_8)) {
+            if (!FORMAT_HEADER.equals(reader.readLine())) {
+                return Optional.empty();
+            }
+            Map<String, List<Violation>> violationsBySection = new LinkedHashMap<>();
+            List<Violation> violations = null;
+            String section = null;
+            InputLocation location = null;
+            int limit = 0;
+            Map<String, Long> disorderBySection = new LinkedHashMap<>();
+            boolean disorderCounted = true;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(SECTION_PREFIX)) {
+                    section = line.substring(SECTION_PREFIX.length());
+                    violations = new ArrayList<>();
+                    violationsBySection.put(section, violations);
+                } else if (line.startsWith(LOCATION_PREFIX) && violations != null) {
+                    location = parseLocation(line.substring(LOCATION_PREFIX.length()));
+                } else if (line.startsWith(ERROR_PREFIX) && violations != null) {
+                    violations.add(Violation.message(section, unescape(line.substring(ERROR_PREFIX.length())), location));
+                    location = null;
+                } else if (line.startsWith(LIMIT_PREFIX)) {
+                    limit = Integer.parseInt(line.substring(LIMIT_PREFIX.length()));
+                } else if (line.equals(UNSCORED_LINE)) {
+                    disorderCounted = false;
+                } else if (line.startsWith(DISORDER_PREFIX) && line.indexOf(' ', DISORDER_PREFIX.length()) != -1) {
+                    int separator = line.indexOf(' ', DISORDER_PREFIX.length());
+                    disorderBySection.put(line.substring(separator + 1),
+                                          Long.parseLong(line.substring(DISORDER_PREFIX.length(), separator)));
+                } else {
+                    return Optional.empty();
+                }
+            }
+            return Optional.of(ValidationResult.ofViolations(violationsBySection, limit,
+                                                             disorderCounted ? disorderBySection : null));
+        } catch (IOException | NumberFormatException e) {
+            // An unreadable entry is treated as a cache miss
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the result of a key.
+     *
+     * @param key cache key created by {@link #key(ValidationPlan, Model)}
+     * @param result result to store
+     * @throws IOException if the entry could not be written
+     */
+    public void put(String key, ValidationResult result) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, key, ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                writer.write(FORMAT_HEADER);
+                writer.newLine();
+                for (Map.Entry<String, List<Violation>> section : result.getViolationsBySection().entrySet()) {
+                    writer.write(SECTION_PREFIX + section.getKey());
+                    writer.newLine();
+                    for (Violation violation : section.getValue()) {
+                        InputLocation location = violation.getLocation();
+                        if (location != null) {
+                            writer.write(LOCATION_PREFIX + formatLocation(location));
+                            writer.newLine();
+                        }
+                        writer.write(ERROR_PREFIX + escape(violation.getMessage()));
+                        writer.newLine();
+                    }
+                }
+                if (result.isLimitReached()) {
+                    writer.write(LIMIT_PREFIX + result.getLimit());
+                    writer.newLine();
+                }
+                if (!result.isDisorderCounted()) {
+                    writer.write(UNSCORED_LINE);
+                    writer.newLine();
+                }
+                for (Map.Entry<String, Long> disorder : result.getDisorderBySection().entrySet()) {
+                    writer.write(DISORDER_PREFIX + disorder.getValue() + " " + disorder.getKey());
+                    writer.newLine();
+                }
+            }
+            try {
+                Files.move(temporary, directory.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, directory.resolve(key), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Returns the directory of the cache entries.
+     *
+     * @return cache directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the version of this plugin that is part of every cache key.
+     *
+     * @return plugin version, or "unknown" if it is not available
+     */
+    public static String getPluginVersion() {
+        return PLUGIN_VERSION;
+    }
+
+    private static String loadPluginVersion() {
+        try (InputStream in = ResultCache.class.getResourceAsStream("version.properties")) {
+            if (in == null) {
+                return "unknown";
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return properties.getProperty("version", "unknown");
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+
+    private static String formatLocation(InputLocation location) {
+        String source = location.getSource() != null ? location.getSource().getLocation() : null;
+        return location.getLineNumber() + " " + location.getColumnNumber() + (source != null ? " " + escape(source) : "");
+    }
+
+    private static InputLocation parseLocation(String value) {
+        String[] parts = value.split(" ", 3);
+        if (parts.length < 2) {
+            throw new NumberFormatException("Invalid location '" + value + "'");
+        }
+        InputSource source = null;
+        if (parts.length == 3) {
+            source = new InputSource();
+            source.setLocation(unescape(parts[2]));
+        }
+        return new InputLocation(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), source);
+    }
+
+    private static void updateDependencies(MessageDigest digest, List<Dependency> dependencies) {
+        if (dependencies == null) {
+            return;
+        }
+        for (Dependency dependency : dependencies) {
+            update(digest, dependency.getGroupId());
+            update(digest, dependency.getArtifactId());
+            update(digest, dependency.getVersion());
+            update(digest, dependency.getType());
+            update(digest, dependency.getClassifier());
+            update(digest, dependency.getScope());
+            update(digest, dependency.getOptional());
+            update(digest, dependency.getSystemPath());
+            // Violations carry the file and line of their dependency, so a moved section or a
+            // module with the same content in another pom.xml gives a new entry
+            InputLocation location = dependency.getLocation("");
+            if (location != null) {
+                update(digest, location.getSource() != null ? location.getSource().getLocation() : null);
+                update(digest, location.getLineNumber() + ":" + location.getColumnNumber());
+            }
+            for (Exclusion exclusion : dependency.getExclusions()) {
+                update(digest, exclusion.getGroupId());
+                update(digest, exclusion.getArtifactId());
+            }
+            update(digest, "/dependency");
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        // Null and empty values must give different keys, and values must not run into each other
+        if (value == null) {
+            digest.update((byte) 0);
+        } else {
+            digest.update((byte) 1);
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                builder.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,230 @@
+package se.payerl.cli;
+
+import se.payerl.ValidationResult;
+import se.payerl.report.ReportFormat;
+import se.payerl.report.ReportWriter;
+import se.payerl.sort.ValidationPlan;
+import se.payerl.xml.DependencySectionReader;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command line scanner that checks the dependency order of every pom.xml below one or more
+ * directories without starting Maven.
+ * <p>
+ * The dependency sections are read with {@link DependencySectionReader} and validated with
+ * the same {@link ValidationPlan} as the enforcer rule, files are checked in parallel.
+ * <pre>
+ * java -jar DependencyOrderRule-cli.jar --config rules.xml [--threads N] [--report file] [--quiet] [directory...]
+ * </pre>
+ * With {@code --report} the results are also written to a report file in the format given by
+ * its extension: .json, .xml (JUnit) or .sarif. With {@code --quiet} only the summary is printed.
+ * Exit codes: 0 if every pom.xml is in correct order, 1 if any pom.xml has violations,
+ * 2 for invalid arguments, configuration or unreadable files.
+ */
+public final class DependencyOrderCli {
+    /** Exit code when every pom.xml is in correct order. */
+    public static final int SUCCESS = 0;
+    /** Exit code when at least one pom.xml has violations. */
+    public static final int VIOLATIONS = 1;
+    /** Exit code for invalid arguments, configuration or unreadable files. */
+    public static final int ERROR = 2;
+
+    private static final String USAGE =
+            "Usage: java -jar DependencyOrderRule-cli.jar --config <rules.xml|rules.properties> [--threads N]"
+                    + " [--report <file.json|file.xml|file.sarif>] [--quiet] [directory...]";
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    /**
+     * Creates a scanner printing to the given streams.
+     *
+     * @param out stream for violations and the summary
+     * @param err stream for errors
+     */
+    public DependencyOrderCli(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * Runs the scanner and exits with its exit code.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        System.exit(new DependencyOrderCli(System.out, System.err).run(args));
+    }
+
+    /**
+     * Runs the scanner.
+     *
+     * @param args command line arguments
+     * @return exit code
+     */
+    public int run(String[] args) {
+        Path config = null;
+        Path reportFile = null;
+        boolean quiet = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> roots = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--config":
+                        config = Paths.get(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Math.max(1, Integer.parseInt(args[++i]));
+                        break;
+                    case "--report":
+                        reportFile = Paths.get(args[++i]);
+                        break;
+                    case "--quiet":
+                        quiet = true;
+                        break;
+                    case "--help":
+                        out.println(USAGE);
+                        return SUCCESS;
+                    default:
+                        roots.add(Paths.get(args[i]));
+                        break;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            err.println(USAGE);
+            return ERROR;
+        }
+        if (config == null) {
+            err.println(USAGE);
+            return ERROR;
+        }
+        if (roots.isEmpty()) {
+            roots.add(Paths.get("."));
+        }
+
+        try {
+            // The summary line shows the disorder score
+            ValidationPlan plan = RuleConfiguration.load(config).toPlan().withDisorder(true);
+            ReportWriter reportWriter = null;
+            if (reportFile != null) {
+                reportWriter = new ReportWriter(reportFile, reportFormat(reportFile));
+                reportWriter.start();
+            }
+            List<Path> poms = new ArrayList<>();
+            for (Path root : roots) {
+                poms.addAll(findPoms(root));
+            }
+            Map<Path, ValidationResult> results = validate(poms, plan, threads);
+            return report(poms.size(), results, reportWriter, quiet);
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            err.println("Error: " + e.getMessage());
+            return ERROR;
+        }
+    }
+
+    private Map<Path, ValidationResult> validate(List<Path> poms, ValidationPlan plan, int threads) throws IOException {
+        Map<Path, ValidationResult> results = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(threads, poms.size())));
+        try {
+            pool.submit(() -> poms.parallelStream().forEach(pom -> {
+                try {
+                    results.put(pom, ValidationResult.validate(plan, DependencySectionReader.readModel(pom)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(new IOException("Could not read " + pom + ": " + e.getMessage(), e));
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while validating", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IllegalStateException("Failed to validate: " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
+    private int report(int checked, Map<Path, ValidationResult> results, ReportWriter reportWriter, boolean quiet)
+            throws IOException {
+        // Sorted by path so that the output does not depend on the scheduling of the threads
+        Map<Path, ValidationResult> sorted = new TreeMap<>(results);
+        Map<Path, ValidationResult> failed = new TreeMap<>();
+        for (Map.Entry<Path, ValidationResult> entry : sorted.entrySet()) {
+            if (reportWriter != null) {
+                reportWriter.write(entry.getKey().toString(), entry.getKey().toString(), entry.getValue());
+            }
+            if (!entry.getValue().isSuccess()) {
+                failed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!quiet) {
+            failed.forEach((pom, result) -> {
+                out.println(pom + ":");
+                out.println(result.toMessage());
+                out.println();
+            });
+        }
+        long disorder = results.values().stream().mapToLong(ValidationResult::getDisorder).sum();
+        boolean disorderCounted = results.values().stream().allMatch(ValidationResult::isDisorderCounted);
+        out.println("Checked " + checked + " pom.xml files, " + failed.size() + " with violations"
+                + (disorderCounted ? ", disorder score " + disorder : ""));
+        return failed.isEmpty() ? SUCCESS : VIOLATIONS;
+    }
+
+    private static ReportFormat reportFormat(Path reportFile) {
+        String name = reportFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        if (dot < 0) {
+            throw new IllegalArgumentException("Report file " + reportFile + " needs a .json, .xml or .sarif extension");
+        }
+        return ReportFormat.fromValue(name.substring(dot + 1));
+    }
+
+    private static List<Path> findPoms(Path root) throws IOException {
+        if (Files.isRegularFile(root)) {
+            return Collections.singletonList(root);
+        }
+        List<Path> poms = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                String name = directory.getFileName() != null ? directory.getFileName().toString() : "";
+                // Build output and hidden directories such as .git never hold sources
+                if (!directory.equals(root) && (name.equals("target") || name.startsWith("."))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (file.getFileName().toString().equals("pom.xml")) {
+                    poms.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return poms;
+    }
+}
@@ -0,0 +1,259 @@
+package se.payerl.cli;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+import se.payerl.sort.ReportMode;
+import se.payerl.sort.SortOrder;
+import se.payerl.sort.ValidationPlan;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Rule configuration of the command line scanner, read from the same XML as the
+ * configuration of the enforcer rule or from a properties file.
+ * <p>
+ * XML configuration:
+ * <pre>
+ * &lt;DependencyOrderRule&gt;
+ *   &lt;groupMode&gt;true&lt;/groupMode&gt;
+ *   &lt;SortOrders&gt;
+ *     &lt;ScopeOrder&gt;
+ *       &lt;first&gt;compile&lt;/first&gt;
+ *       &lt;then&gt;test&lt;/then&gt;
+ *     &lt;/ScopeOrder&gt;
+ *     &lt;AlphabeticalOrder/&gt;
+ *   &lt;/SortOrders&gt;
+ * &lt;/DependencyOrderRule&gt;
+ * </pre>
+ * Properties configuration, where list values are separated by commas:
+ * <pre>
+ * groupMode=true
+ * SortOrders=ScopeOrder,AlphabeticalOrder
+ * ScopeOrder.first=compile
+ * ScopeOrder.then=test
+ * </pre>
+ * SortOrders are named by their simple class name in package {@code se.payerl} or by
+ * their fully qualified class name. Every option is set through an {@code addX} method
+ * if the SortOrder has one, otherwise through a {@code setX} method.
+ */
+public final class RuleConfiguration {
+    private static final String DEFAULT_PACKAGE = "se.payerl.";
+
+    private final List<SortOrder> sortOrders = new ArrayList<>();
+    private final List<String> groupOrder = new ArrayList<>();
+    private boolean groupMode;
+    private boolean failFast;
+    private int maxViolations;
+    private ReportMode reportMode = ReportMode.ADJACENT;
+
+    private RuleConfiguration() { }
+
+    /**
+     * Loads a configuration file. Files ending with {@code .properties} are read as
+     * properties, all other files as XML.
+     *
+     * @param file configuration file
+     * @return loaded configuration
+     * @throws IOException if the file could not be read
+     * @throws IllegalArgumentException if the configuration is invalid
+     */
+    public static RuleConfiguration load(Path file) throws IOException {
+        RuleConfiguration configuration = new RuleConfiguration();
+        try (InputStream in = Files.newInputStream(file)) {
+            if (file.getFileName().toString().endsWith(".properties")) {
+                Properties properties = new Properties();
+                properties.load(in);
+                configuration.readProperties(properties);
+            } else {
+                configuration.readXml(in);
+            }
+        }
+        if (configuration.sortOrders.isEmpty()) {
+            throw new IllegalArgumentException("No sort rules configured in " + file);
+        }
+        return configuration;
+    }
+
+    /**
+     * Compiles the configuration into a plan.
+     *
+     * @return plan for the configuration
+     */
+    public ValidationPlan toPlan() {
+        return ValidationPlan.of(sortOrders, groupMode, groupOrder, failFast ? 1 : maxViolations, reportMode);
+    }
+
+    /**
+     * Returns the configured SortOrders.
+     *
+     * @return unmodifiable list of SortOrders in configured order
+     */
+    public List<SortOrder> getSortOrders() {
+        return Collections.unmodifiableList(sortOrders);
+    }
+
+    private void readProperties(Properties properties) {
+        groupMode = Boolean.parseBoolean(properties.getProperty("groupMode", "false"));
+        failFast = Boolean.parseBoolean(properties.getProperty("failFast", "false"));
+        maxViolations = Integer.parseInt(properties.getProperty("maxViolations", "0").trim());
+        reportMode = ReportMode.fromValue(properties.getProperty("reportMode"));
+        groupOrder.addAll(split(properties.getProperty("groupOrder", "")));
+        for (String type : split(properties.getProperty("SortOrders", ""))) {
+            SortOrder sortOrder = newSortOrder(type);
+            String prefix = type + ".";
+            for (String key : properties.stringPropertyNames()) {
+                if (key.startsWith(prefix)) {
+                    for (String value : split(properties.getProperty(key))) {
+                        configure(sortOrder, key.substring(prefix.length()), value);
+                    }
+                }
+            }
+            sortOrders.add(sortOrder);
+        }
+    }
+
+    private void readXml(InputStream in) throws IOException {
+        Element root;
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            Document document = builder.parse(in);
+            root = document.getDocumentElement();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Could not parse configuration: " + e.getMessage(), e);
+        }
+        for (Element option : children(root)) {
+            String text = option.getTextContent().trim();
+            switch (option.getTagName()) {
+                case "groupMode":
+                    groupMode = Boolean.parseBoolean(text);
+                    break;
+                case "failFast":
+                    failFast = Boolean.parseBoolean(text);
+                    break;
+                case "maxViolations":
+                    maxViolations = Integer.parseInt(text);
+                    break;
+                case "reportMode":
+                    reportMode = ReportMode.fromValue(text);
+                    break;
+                case "groupOrder":
+                    for (Element group : children(option)) {
+                        groupOrder.add(group.getTextContent().trim());
+                    }
+                    break;
+                case "SortOrders":
+                    for (Element element : children(option)) {
+                        String type = element.hasAttribute("implementation")
+                                ? element.getAttribute("implementation") : element.getTagName();
+                        SortOrder sortOrder = newSortOrder(type);
+                        for (Element property : children(element)) {
+                            configure(sortOrder, property.getTagName(), property.getTextContent().trim());
+                        }
+                        sortOrders.add(sortOrder);
+                    }
+                    break;
+                default:
+                    // Options of the enforcer rule that do not apply to the scanner are ignored
+                    break;
+            }
+        }
+    }
+
+    private static List<Element> children(Element parent) {
+        List<Element> children = new ArrayList<>();
+        NodeList nodes = parent.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            if (nodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                children.add((Element) nodes.item(i));
+            }
+        }
+        return children;
+    }
+
+    private static SortOrder newSortOrder(String type) {
+        String className = type.indexOf('.') == -1 ? DEFAULT_PACKAGE + type : type;
+        try {
+            Class<?> sortOrderClass = Class.forName(className);
+            if (!SortOrder.class.isAssignableFrom(sortOrderClass)) {
+                throw new IllegalArgumentException(className + " is not a SortOrder");
+            }
+            return (SortOrder) sortOrderClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Could not create SortOrder " + type + ": " + e, e);
+        }
+    }
+
+    private static void configure(SortOrder sortOrder, String property, String value) {
+        String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        Method method = findMethod(sortOrder.getClass(), "add" + suffix);
+        if (method == null) {
+            method = findMethod(sortOrder.getClass(), "set" + suffix);
+        }
+        if (method == null) {
+            throw new IllegalArgumentException("Unknown option " + property + " of " + sortOrder.getClass().getSimpleName());
+        }
+        try {
+            method.invoke(sortOrder, convert(method.getParameterTypes()[0], value));
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Could not set " + property + " of "
+                    + sortOrder.getClass().getSimpleName() + ": " + e, e);
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == 1
+                    && isSupported(method.getParameterTypes()[0])) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSupported(Class<?> type) {
+        return type == String.class || type == String[].class || type == boolean.class || type == int.class;
+    }
+
+    private static Object convert(Class<?> type, String value) {
+        if (type == boolean.class) {
+            return Boolean.parseBoolean(value);
+        }
+        if (type == int.class) {
+            return Integer.parseInt(value);
+        }
+        if (type == String[].class) {
+            return new String[] {value};
+        }
+        return value;
+    }
+
+    private static List<String> split(String value) {
+        List<String> values = new ArrayList<>();
+        for (String part : Arrays.asList(value.split(","))) {
+            if (!part.trim().isEmpty()) {
+                values.add(part.trim());
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,230 @@
+package se.payerl.jfr;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDK Flight Recorder events of the rule, so that its work shows up on the same timeline as
+ * the rest of a recorded Maven build.
+ * <p>
+ * Every event has the id of the module, the validated section, the description of the rule,
+ * the number of dependencies and, like every JFR event, its thread, start time and duration.
+ * Events are defined at runtime through {@code jdk.jfr.EventFactory} and called through method
+ * handles, since the library is compiled for Java 8 and has no compile-time dependency on JFR.
+ * On JVMs without JFR, or with JFR disabled, {@link #begin()} always returns null and an event
+ * costs a check of a constant. While no recording is running it costs a check of a flag.
+ * <p>
+ * Events are used like this, where only an event that is recorded computes its fields:
+ * <pre>
+ * Object event = RuleEvent.SORT_LEAF.begin();
+ * ...
+ * if (event != null &amp;&amp; RuleEvent.end(event)) {
+ *     RuleEvent.commit(event, module, section, rule, dependencies);
+ * }
+ * </pre>
+ */
+public enum RuleEvent {
+    /**
+     * The rule executed for a module. The section is the list of validated section kinds and
+     * the dependencies are those of all validated sections.
+     */
+    MODULE("Module", "Dependency Order Module", "DependencyOrderRule executed for a module"),
+
+    /**
+     * A GroupNode grouped a range of dependencies and validated the groups, including the
+     * events of its child nodes.
+     */
+    GROUP_LEVEL("GroupLevel", "Dependency Order Group Level",
+                "A level of a group mode hierarchy grouped and validated a range of dependencies"),
+
+    /**
+     * A SortLeaf validated the order of a range of dependencies, normally one group.
+     */
+    SORT_LEAF("SortLeaf", "Dependency Order Sort Leaf",
+              "A sort rule validated the order of a range of dependencies");
+
+    private static final String NAME_PREFIX = "se.payerl.DependencyOrder.";
+
+    // Definition of the event in JFR, null if JFR is not available
+    private final Object factory;
+    private final Object eventType;
+
+    RuleEvent(String name, String label, String description) {
+        Object[] definition = Jfr.AVAILABLE ? Jfr.define(NAME_PREFIX + name, label, description) : null;
+        this.factory = definition != null ? definition[0] : null;
+        this.eventType = definition != null ? definition[1] : null;
+    }
+
+    /**
+     * Returns if JFR is available in this JVM, that is if events are recorded while a recording is running.
+     *
+     * @return true if events can be recorded
+     */
+    public static boolean isAvailable() {
+        return Jfr.AVAILABLE;
+    }
+
+    /**
+     * Starts an event of this kind if it is recorded.
+     *
+     * @return the started event, or null if no recording records this kind of event
+     */
+    public Object begin() {
+        if (!Jfr.AVAILABLE || eventType == null) {
+            return null;
+        }
+        try {
+            if (!(boolean) Jfr.IS_ENABLED.invokeExact(eventType)) {
+                return null;
+            }
+            Object event = (Object) Jfr.NEW_EVENT.invokeExact(factory);
+            Jfr.BEGIN.invokeExact(event);
+            return event;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * Ends an event and returns if it should be committed, that is if it is still recorded
+     * and lasted at least the threshold of the recording.
+     *
+     * @param event event returned by {@link #begin()}
+     * @return true if the fields of the event should be set with {@link #commit}
+     */
+    public static boolean end(Object event) {
+        try {
+            Jfr.END.invokeExact(event);
+            return (boolean) Jfr.SHOULD_COMMIT.invokeExact(event);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sets the fields of an ended event and writes it to the recording.
+     *
+     * @param event event for which {@link #end(Object)} returned true
+     * @param module id of the module, may be null
+     * @param section validated section, may be null
+     * @param rule description of the rule
+     * @param dependencies number of dependencies
+     */
+    public static void commit(Object event, String module, String section, String rule, int dependencies) {
+        try {
+            Jfr.SET.invokeExact(event, 0, (Object) module);
+            Jfr.SET.invokeExact(event, 1, (Object) section);
+            Jfr.SET.invokeExact(event, 2, (Object) rule);
+            Jfr.SET.invokeExact(event, 3, (Object) dependencies);
+            Jfr.COMMIT.invokeExact(event);
+        } catch (Throwable e) {
+            // An event that cannot be written is dropped, it never fails the build
+        }
+    }
+
+    /**
+     * Method handles of the JFR API, all null if JFR is not available.
+     */
+    private static final class Jfr {
+        static final boolean AVAILABLE;
+        static final MethodHandle IS_ENABLED;
+        static final MethodHandle NEW_EVENT;
+        static final MethodHandle BEGIN;
+        static final MethodHandle END;
+        static final MethodHandle SHOULD_COMMIT;
+        static final MethodHandle SET;
+        static final MethodHandle COMMIT;
+        static final MethodHandle CREATE;
+        static final Constructor<?> ANNOTATION;
+        static final Constructor<?> VALUE;
+
+        static {
+            MethodHandle[] handles = new MethodHandle[8];
+            Constructor<?>[] constructors = new Constructor<?>[2];
+            boolean available = false;
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                Class<?> flightRecorder = Class.forName("jdk.jfr.FlightRecorder");
+                Class<?> factory = Class.forName("jdk.jfr.EventFactory");
+                Class<?> eventType = Class.forName("jdk.jfr.EventType");
+                Class<?> event = Class.forName("jdk.jfr.Event");
+                Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+                Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+                handles[0] = virtual(lookup, eventType, "isEnabled", boolean.class);
+                handles[1] = virtual(lookup, factory, "newEvent", event);
+                handles[2] = virtual(lookup, event, "begin", void.class);
+                handles[3] = virtual(lookup, event, "end", void.class);
+                handles[4] = virtual(lookup, event, "shouldCommit", boolean.class);
+                handles[5] = lookup.findVirtual(event, "set", MethodType.methodType(void.class, int.class, Object.class))
+                                   .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+                handles[6] = virtual(lookup, event, "commit", void.class);
+                handles[7] = lookup.findStatic(factory, "create",
+                                               MethodType.methodType(factory, List.class, List.class));
+                constructors[0] = annotationElement.getConstructor(Class.class, Object.class);
+                constructors[1] = valueDescriptor.getConstructor(Class.class, String.class, List.class);
+                available = (boolean) flightRecorder.getMethod("isAvailable").invoke(null);
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                // No JFR in this JVM, events are never started
+            }
+            AVAILABLE = available;
+            IS_ENABLED = handles[0];
+            NEW_EVENT = handles[1];
+            BEGIN = handles[2];
+            END = handles[3];
+            SHOULD_COMMIT = handles[4];
+            SET = handles[5];
+            COMMIT = handles[6];
+            CREATE = handles[7];
+            ANNOTATION = constructors[0];
+            VALUE = constructors[1];
+        }
+
+        private static MethodHandle virtual(MethodHandles.Lookup lookup, Class<?> type, String name, Class<?> returnType)
+                throws ReflectiveOperationException {
+            MethodHandle handle = lookup.findVirtual(type, name, MethodType.methodType(returnType));
+            return handle.asType(MethodType.methodType(returnType == boolean.class || returnType == void.class
+                                                               ? returnType : Object.class, Object.class));
+        }
+
+        /**
+         * Defines an event with the fields module, section, rule and dependencies.
+         *
+         * @return the EventFactory and EventType of the event, or null if it could not be defined
+         */
+        static Object[] define(String name, String label, String description) {
+            try {
+                List<Object> annotations = Arrays.asList(
+                        annotation("jdk.jfr.Name", name),
+                        annotation("jdk.jfr.Label", label),
+                        annotation("jdk.jfr.Description", description),
+                        annotation("jdk.jfr.Category", new String[] { "Maven", "Dependency Order" }),
+                        annotation("jdk.jfr.StackTrace", false));
+                List<Object> fields = new ArrayList<>();
+                fields.add(field(String.class, "module", "Module"));
+                fields.add(field(String.class, "section", "Section"));
+                fields.add(field(String.class, "rule", "Rule"));
+                fields.add(field(int.class, "dependencies", "Dependencies"));
+                Object factory = CREATE.invoke(annotations, fields);
+                Object eventType = factory.getClass().getMethod("getEventType").invoke(factory);
+                return new Object[] { factory, eventType };
+            } catch (Throwable e) {
+                return null;
+            }
+        }
+
+        private static Object annotation(String type, Object value) throws ReflectiveOperationException {
+            return ANNOTATION.newInstance(Class.forName(type), value);
+        }
+
+        private static Object field(Class<?> type, String name, String label) throws ReflectiveOperationException {
+            List<Object> annotations = Collections.singletonList(annotation("jdk.jfr.Label", label));
+            return VALUE.newInstance(type, name, annotations);
+        }
+    }
+}
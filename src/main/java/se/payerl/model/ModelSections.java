@@ -0,0 +1,202 @@
+package se.payerl.model;
+
+import org.apache.maven.model.BuildBase;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.InputLocation;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.ModelBase;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.Profile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Selection of the ordered sections of a model that are validated, and a walker that visits
+ * all of them in one pass over the model.
+ * <p>
+ * The &lt;dependencies&gt; and &lt;dependencyManagement&gt; sections of the project are always
+ * visited when they are enabled, also if they are empty, under the names used before other
+ * sections could be selected. All other sections are only visited if they have at least two
+ * entries, since a single entry is always in order. Sections are visited in this order:
+ * <ol>
+ *   <li>&lt;dependencies&gt;, followed by the &lt;exclusions&gt; of every dependency</li>
+ *   <li>&lt;dependencyManagement&gt;, followed by the &lt;exclusions&gt; of every dependency</li>
+ *   <li>&lt;build&gt;&lt;plugins&gt;, followed by the &lt;dependencies&gt; of every plugin</li>
+ *   <li>&lt;build&gt;&lt;pluginManagement&gt;, followed by the &lt;dependencies&gt; of every plugin</li>
+ *   <li>the same sections of every &lt;profile&gt;, in file order</li>
+ * </ol>
+ * Instances are immutable and can be shared between threads.
+ */
+public final class ModelSections {
+    /** The sections validated when nothing else is configured. */
+    public static final ModelSections DEFAULT = new ModelSections(EnumSet.of(Section.DEPENDENCIES,
+                                                                             Section.DEPENDENCY_MANAGEMENT));
+
+    /** Path of the &lt;dependencies&gt; section of the project. */
+    public static final String DEPENDENCIES = "<dependencies>";
+    /** Path of the &lt;dependencyManagement&gt; section of the project. */
+    public static final String DEPENDENCY_MANAGEMENT = "<dependencyManagement>";
+
+    private final Set<Section> sections;
+
+    private ModelSections(Set<Section> sections) {
+        this.sections = Collections.unmodifiableSet(sections);
+    }
+
+    /**
+     * Returns a selection of section kinds.
+     *
+     * @param sections section kinds to validate
+     * @return selection of the section kinds, {@link #DEFAULT} if sections is null or empty
+     */
+    public static ModelSections of(Collection<Section> sections) {
+        if (sections == null || sections.isEmpty()) {
+            return DEFAULT;
+        }
+        EnumSet<Section> selected = EnumSet.copyOf(sections);
+        return selected.equals(DEFAULT.sections) ? DEFAULT : new ModelSections(selected);
+    }
+
+    /**
+     * Returns a selection of section kinds by name, see {@link Section#fromValue(String)}.
+     *
+     * @param values names of the section kinds to validate
+     * @return selection of the section kinds, {@link #DEFAULT} if values is null or empty
+     * @throws IllegalArgumentException if a name is not a section kind
+     */
+    public static ModelSections fromValues(Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return DEFAULT;
+        }
+        return of(values.stream().map(Section::fromValue).collect(Collectors.toList()));
+    }
+
+    /**
+     * Returns the selected section kinds.
+     *
+     * @return unmodifiable set of section kinds
+     */
+    public Set<Section> getSections() {
+        return sections;
+    }
+
+    /**
+     * Returns if a section kind is selected.
+     *
+     * @param section section kind
+     * @return true if the sections of that kind are visited
+     */
+    public boolean contains(Section section) {
+        return sections.contains(section);
+    }
+
+    /**
+     * Visits every selected section of a model.
+     *
+     * @param model model to walk, normally the original model of a project
+     * @param visitor visitor receiving the sections
+     */
+    public void walk(Model model, SectionVisitor visitor) {
+        walkModelBase(model, model.getBuild(), "", visitor);
+        if (contains(Section.PROFILES)) {
+            for (Profile profile : model.getProfiles()) {
+                walkModelBase(profile, profile.getBuild(), "<profile " + profile.getId() + ">", visitor);
+            }
+        }
+    }
+
+    private void walkModelBase(ModelBase base, BuildBase build, String prefix, SectionVisitor visitor) {
+        boolean project = prefix.isEmpty();
+        if (contains(Section.DEPENDENCIES)) {
+            visitDependencies(prefix + DEPENDENCIES, base.getDependencies(), project, visitor);
+        }
+        if (contains(Section.DEPENDENCY_MANAGEMENT) && base.getDependencyManagement() != null) {
+            visitDependencies(prefix + DEPENDENCY_MANAGEMENT, base.getDependencyManagement().getDependencies(),
+                              project, visitor);
+        }
+        if (build == null) {
+            return;
+        }
+        if (contains(Section.PLUGINS) || contains(Section.PLUGIN_DEPENDENCIES)) {
+            visitPlugins(prefix + "<build><plugins>", build.getPlugins(), contains(Section.PLUGINS), visitor);
+        }
+        if ((contains(Section.PLUGIN_MANAGEMENT) || contains(Section.PLUGIN_DEPENDENCIES))
+                && build.getPluginManagement() != null) {
+            visitPlugins(prefix + "<build><pluginManagement>", build.getPluginManagement().getPlugins(),
+                         contains(Section.PLUGIN_MANAGEMENT), visitor);
+        }
+    }
+
+    private void visitDependencies(String path, List<Dependency> dependencies, boolean always,
+                                   SectionVisitor visitor) {
+        if (always || (dependencies != null && dependencies.size() > 1)) {
+            visitor.visit(path, dependencies);
+        }
+        if (!contains(Section.EXCLUSIONS) || dependencies == null) {
+            return;
+        }
+        for (Dependency dependency : dependencies) {
+            List<Exclusion> exclusions = dependency.getExclusions();
+            if (exclusions.size() > 1) {
+                List<Dependency> entries = new ArrayList<>(exclusions.size());
+                for (Exclusion exclusion : exclusions) {
+                    entries.add(entry(exclusion.getGroupId(), exclusion.getArtifactId(), null,
+                                      exclusion.getLocation("")));
+                }
+                visitor.visit(path + "<dependency " + dependency.getGroupId() + ":" + dependency.getArtifactId()
+                                      + "><exclusions>", entries);
+            }
+        }
+    }
+
+    private void visitPlugins(String path, List<Plugin> plugins, boolean visitPlugins, SectionVisitor visitor) {
+        if (visitPlugins && plugins.size() > 1) {
+            List<Dependency> entries = new ArrayList<>(plugins.size());
+            for (Plugin plugin : plugins) {
+                entries.add(entry(plugin.getGroupId(), plugin.getArtifactId(), plugin.getVersion(),
+                                  plugin.getLocation("")));
+            }
+            visitor.visit(path, entries);
+        }
+        if (contains(Section.PLUGIN_DEPENDENCIES)) {
+            for (Plugin plugin : plugins) {
+                visitDependencies(path + "<plugin " + plugin.getGroupId() + ":" + plugin.getArtifactId()
+                                          + "><dependencies>", plugin.getDependencies(), false, visitor);
+            }
+        }
+    }
+
+    private static Dependency entry(String groupId, String artifactId, String version, InputLocation location) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion(version);
+        if (location != null) {
+            // Violations of plugins and exclusions point at the plugin or exclusion element
+            dependency.setLocation("", location);
+        }
+        return dependency;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ModelSections && sections.equals(((ModelSections) other).sections);
+    }
+
+    @Override
+    public int hashCode() {
+        return sections.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return sections.stream().map(Section::getValue).collect(Collectors.joining(","));
+    }
+}
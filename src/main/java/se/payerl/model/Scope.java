@@ -43,6 +43,8 @@ public enum Scope {
      */
     IMPORT("import");
 
+    private static final Scope[] VALUES = values();
+
     private final String value;
 
     Scope(String value) {
@@ -60,7 +62,7 @@ public enum Scope {
     
     /**
      * Converts a Maven scope string to Scope enum.
-     * Handles both uppercase and lowercase letters.
+     * Handles both uppercase and lowercase letters without allocating.
      * 
      * @param scopeValue Maven scope value as string (e.g. "compile", "COMPILE", "test")
      * @return Corresponding Scope enum, or COMPILE if value is null or unknown
@@ -71,24 +73,13 @@ public enum Scope {
         }
         
         // Map to main (non-deprecated) enum constants based on value
-        String normalizedValue = scopeValue.toLowerCase();
-        switch (normalizedValue) {
-            case "compile":
-                return COMPILE;
-            case "provided":
-                return PROVIDED;
-            case "runtime":
-                return RUNTIME;
-            case "test":
-                return TEST;
-            case "system":
-                return SYSTEM;
-            case "import":
-                return IMPORT;
-            default:
-                // If scope is not recognized, return COMPILE as default
-                return COMPILE;
+        for (Scope scope : VALUES) {
+            if (scope.value.equalsIgnoreCase(scopeValue)) {
+                return scope;
+            }
         }
+        // If scope is not recognized, return COMPILE as default
+        return COMPILE;
     }
     
     @Override
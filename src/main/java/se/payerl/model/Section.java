@@ -0,0 +1,84 @@
+package se.payerl.model;
+
+import java.util.Locale;
+
+/**
+ * Kinds of ordered sections of a pom.xml that can be validated.
+ * <p>
+ * Plugins and exclusions are validated as dependencies with the same groupId and artifactId,
+ * so the configured SortOrders apply to them without changes.
+ */
+public enum Section {
+    /**
+     * The &lt;dependencies&gt; of the project and of every enabled profile.
+     */
+    DEPENDENCIES("dependencies"),
+
+    /**
+     * The &lt;dependencyManagement&gt; of the project and of every enabled profile.
+     */
+    DEPENDENCY_MANAGEMENT("dependencyManagement"),
+
+    /**
+     * The &lt;exclusions&gt; of every dependency in an enabled dependency section.
+     */
+    EXCLUSIONS("exclusions"),
+
+    /**
+     * The &lt;build&gt;&lt;plugins&gt; of the project and of every enabled profile.
+     */
+    PLUGINS("plugins"),
+
+    /**
+     * The &lt;build&gt;&lt;pluginManagement&gt;&lt;plugins&gt; of the project and of every enabled profile.
+     */
+    PLUGIN_MANAGEMENT("pluginManagement"),
+
+    /**
+     * The &lt;dependencies&gt; of every plugin in &lt;plugins&gt; and &lt;pluginManagement&gt;.
+     */
+    PLUGIN_DEPENDENCIES("pluginDependencies"),
+
+    /**
+     * The other enabled sections inside every &lt;profile&gt;.
+     */
+    PROFILES("profiles");
+
+    private final String value;
+
+    Section(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the name of the section kind as used in the rule configuration.
+     *
+     * @return name of the section kind (e.g. "dependencies", "pluginManagement")
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the section kind with a name, ignoring case and accepting '-' and '_' between words.
+     *
+     * @param value name of the section kind, for example "pluginManagement" or "plugin-management"
+     * @return section kind
+     * @throws IllegalArgumentException if there is no section kind with the name
+     */
+    public static Section fromValue(String value) {
+        String name = value == null ? "" : value.trim().replace("-", "").replace("_", "").toLowerCase(Locale.ROOT);
+        for (Section section : values()) {
+            if (section.value.toLowerCase(Locale.ROOT).equals(name)) {
+                return section;
+            }
+        }
+        throw new IllegalArgumentException("Unknown section '" + value + "', expected one of dependencies, "
+                + "dependencyManagement, exclusions, plugins, pluginManagement, pluginDependencies or profiles");
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,22 @@
+package se.payerl.model;
+
+import org.apache.maven.model.Dependency;
+
+import java.util.List;
+
+/**
+ * Receives the ordered sections of a model from {@link ModelSections#walk}.
+ */
+@FunctionalInterface
+public interface SectionVisitor {
+
+    /**
+     * Visits one section.
+     *
+     * @param path path of the section in the pom.xml, for example
+     *             "&lt;build&gt;&lt;plugins&gt;" or "&lt;profile ci&gt;&lt;dependencies&gt;"
+     * @param entries entries of the section in file order, plugins and exclusions as dependencies
+     *                with the same coordinates, or null if the section does not exist
+     */
+    void visit(String path, List<Dependency> entries);
+}
@@ -0,0 +1,98 @@
+package se.payerl.ratchet;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Properties;
+
+/**
+ * Disorder score of a module recorded in a file, used as baseline in ratchet mode.
+ * <p>
+ * The file is a properties file with a single {@code disorder} entry. It is meant to be
+ * committed next to the pom.xml, so that a build fails when the disorder score of the
+ * module goes up and the recorded score follows when the score goes down.
+ */
+public final class DisorderBaseline {
+    private static final String KEY = "disorder";
+
+    private final Path file;
+
+    /**
+     * Creates a baseline stored in a file.
+     *
+     * @param file file holding the recorded score
+     */
+    public DisorderBaseline(Path file) {
+        this.file = Objects.requireNonNull(file, "file cannot be null");
+    }
+
+    /**
+     * Reads the recorded score.
+     *
+     * @return recorded score, or empty if no score is recorded yet
+     * @throws IOException if the file could not be read or does not hold a valid score
+     */
+    public OptionalLong read() throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return OptionalLong.empty();
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        String value = properties.getProperty(KEY);
+        if (value == null) {
+            return OptionalLong.empty();
+        }
+        try {
+            long score = Long.parseLong(value.trim());
+            if (score < 0) {
+                throw new IOException("Invalid disorder score '" + value + "' in " + file);
+            }
+            return OptionalLong.of(score);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid disorder score '" + value + "' in " + file, e);
+        }
+    }
+
+    /**
+     * Records a score, replacing the file atomically.
+     *
+     * @param score score to record
+     * @throws IOException if the file could not be written
+     */
+    public void write(long score) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                writer.write("# Dependency order disorder score, updated by DependencyOrderRule in ratchet mode\n");
+                writer.write(KEY + "=" + score + "\n");
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Returns the file holding the recorded score.
+     *
+     * @return path of the file
+     */
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,105 @@
+package se.payerl.reactor;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import se.payerl.ValidationResult;
+import se.payerl.sort.ValidationPlan;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Validates all modules of a reactor at once and hands each module its precomputed result.
+ * <p>
+ * The first module that asks for a result reads the original model of every project in
+ * the session and validates them in parallel on a bounded fork-join pool. All later
+ * modules, also when running concurrently with {@code mvn -T}, only look up their result.
+ * Results are kept per session and plan fingerprint. Sessions are held weakly so that
+ * finished builds in a long-lived mvnd daemon can be garbage collected. A plan that is not
+ * {@linkplain ValidationPlan#isCacheable() cacheable} has a fingerprint per rule instance,
+ * so its modules are validated one by one.
+ */
+public final class ReactorValidator {
+    private static final Map<MavenSession, Map<String, FutureTask<Map<String, ValidationResult>>>> RESULTS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ReactorValidator() { }
+
+    /**
+     * Returns the result of a project, validating the whole reactor on first use.
+     *
+     * @param session current Maven session
+     * @param project project to get the result for
+     * @param plan plan to validate with
+     * @param threads maximum number of threads used to validate the reactor
+     * @return result of the project
+     * @throws IllegalStateException if the reactor validation failed
+     */
+    public static ValidationResult resultFor(MavenSession session, MavenProject project, ValidationPlan plan, int threads) {
+        Objects.requireNonNull(session, "session cannot be null");
+        Objects.requireNonNull(project, "project cannot be null");
+        if (!plan.isCacheable()) {
+            return ValidationResult.validate(plan.withModule(project.getId()), project.getOriginalModel());
+        }
+
+        Map<String, FutureTask<Map<String, ValidationResult>>> resultsByPlan;
+        synchronized (RESULTS) {
+            resultsByPlan = RESULTS.computeIfAbsent(session, key -> new ConcurrentHashMap<>());
+        }
+
+        FutureTask<Map<String, ValidationResult>> task =
+                new FutureTask<>(() -> validateReactor(session.getProjects(), plan, threads));
+        FutureTask<Map<String, ValidationResult>> existing = resultsByPlan.putIfAbsent(plan.getFingerprint(), task);
+        if (existing == null) {
+            task.run();
+        } else {
+            task = existing;
+        }
+
+        Map<String, ValidationResult> results = await(task);
+        // Each result is handed out once; a project that is not part of the reactor or
+        // that is validated again by another execution is validated directly
+        ValidationResult result = results.remove(project.getId());
+        return result != null ? result : ValidationResult.validate(plan.withModule(project.getId()), project.getOriginalModel());
+    }
+
+    private static Map<String, ValidationResult> validateReactor(List<MavenProject> projects, ValidationPlan plan, int threads) {
+        Map<String, ValidationResult> results = new ConcurrentHashMap<>();
+        if (projects == null || projects.isEmpty()) {
+            return results;
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(threads, projects.size())));
+        try {
+            pool.submit(() -> projects.parallelStream().forEach(project ->
+                    results.put(project.getId(), ValidationResult.validate(plan.withModule(project.getId()),
+                                                                            project.getOriginalModel()))))
+                .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while validating reactor", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to validate reactor: " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
+    private static Map<String, ValidationResult> await(FutureTask<Map<String, ValidationResult>> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for reactor validation", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to validate reactor: " + e.getCause(), e.getCause());
+        }
+    }
+}
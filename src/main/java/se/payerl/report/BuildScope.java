@@ -0,0 +1,114 @@
+package se.payerl.report;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * State shared by the modules of a build, with actions that run when the build has ended.
+ * <p>
+ * The documented hook for the end of a build, {@code AbstractMavenLifecycleParticipant},
+ * is only looked up in core and build extensions. The rule is loaded as a dependency of the
+ * enforcer plugin, where Maven never creates such a participant. Instead the first use of a
+ * build puts a {@link SessionEndListener} in front of the execution listener of the request,
+ * which Maven looks up for every event, and runs the end actions when the session ends.
+ * <p>
+ * The trade-off is that the execution listener is shared by the whole build. The listener it
+ * replaces still receives every event, but an extension that later sets its own listener
+ * without passing events on also drops the end actions, and with them the quiet summary and
+ * the metrics table. Reports are written as modules are validated and are not affected.
+ * <p>
+ * The sessions that {@code mvn -T} clones per module share the request, so state is kept per
+ * request, held weakly so that finished builds in a long-lived mvnd daemon can be garbage
+ * collected.
+ */
+public final class BuildScope {
+    private static final Map<MavenExecutionRequest, BuildScope> SCOPES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<Class<?>, Object> values = new HashMap<>();
+    private final Map<Object, Runnable> endActions = new LinkedHashMap<>();
+    private boolean ended;
+
+    private BuildScope() {
+    }
+
+    /**
+     * Returns the object of a type shared by all modules of a build.
+     *
+     * @param <T> type of the object
+     * @param session current Maven session, or null to get an object of its own
+     * @param type type of the object
+     * @param factory creates the object on first use in the build
+     * @return object of the type for the build
+     */
+    public static <T> T get(MavenSession session, Class<T> type, Supplier<T> factory) {
+        BuildScope scope = forSession(session);
+        if (scope == null) {
+            return factory.get();
+        }
+        synchronized (scope) {
+            return type.cast(scope.values.computeIfAbsent(type, key -> factory.get()));
+        }
+    }
+
+    /**
+     * Runs an action once the build has ended, after every module has been built.
+     * Only the first action registered for a key runs, so modules can register the same
+     * key without the action running once per module.
+     *
+     * @param session current Maven session, or null to run the action right away
+     * @param key identity of the action, usually the object it reports on
+     * @param action action to run
+     */
+    public static void onEnd(MavenSession session, Object key, Runnable action) {
+        BuildScope scope = forSession(session);
+        if (scope == null) {
+            action.run();
+            return;
+        }
+        synchronized (scope) {
+            if (scope.ended) {
+                action.run();
+            } else {
+                scope.endActions.putIfAbsent(key, action);
+            }
+        }
+    }
+
+    private static BuildScope forSession(MavenSession session) {
+        MavenExecutionRequest request = session != null ? session.getRequest() : null;
+        if (request == null) {
+            return null;
+        }
+        synchronized (SCOPES) {
+            BuildScope scope = SCOPES.get(request);
+            if (scope == null) {
+                scope = new BuildScope();
+                SCOPES.put(request, scope);
+                request.setExecutionListener(new SessionEndListener(request.getExecutionListener(), scope::end));
+            }
+            return scope;
+        }
+    }
+
+    private void end() {
+        List<Runnable> actions;
+        synchronized (this) {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            actions = new ArrayList<>(endActions.values());
+        }
+        actions.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,147 @@
+package se.payerl.report;
+
+import se.payerl.sort.RuleMetrics;
+import se.payerl.sort.SortOrder;
+import se.payerl.sort.ValidationMetrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of the modules of a build, written to a metrics file and logged as a table when the
+ * build has ended.
+ * <p>
+ * One summary is shared by all modules of a build through {@link BuildScope}, like
+ * {@link ReactorSummary}. Modules only add their metrics in memory, so the file is written
+ * once per build however many modules it has.
+ */
+public final class MetricsSummary {
+    private final Map<String, Module> modules = new LinkedHashMap<>();
+
+    /**
+     * Adds the metrics of a module, replacing earlier metrics of the same module.
+     *
+     * @param module id of the module
+     * @param nanos wall time of the rule for the module
+     * @param metrics metrics collected while validating the module
+     */
+    public synchronized void record(String module, long nanos, ValidationMetrics metrics) {
+        modules.put(module, new Module(module, nanos, metrics));
+    }
+
+    /**
+     * Writes the metrics of every module and rule to a file.
+     *
+     * @param file metrics file, an existing file is replaced
+     * @throws IOException if the metrics file could not be written
+     */
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the metrics of every module and rule as a JSON document.
+     *
+     * @return JSON document
+     */
+    public synchronized String toJson() {
+        StringBuilder builder = new StringBuilder("{\"tool\":\"DependencyOrderRule\",\"modules\":[\n");
+        boolean firstModule = true;
+        for (Module module : modules.values()) {
+            ValidationMetrics metrics = module.metrics;
+            builder.append(firstModule ? "" : ",\n")
+                   .append("{\"module\":").append(ReportFormat.json(module.id))
+                   .append(",\"wallTimeMs\":").append(millis(module.nanos))
+                   .append(",\"validationTimeMs\":").append(millis(metrics.getNanos()))
+                   .append(",\"sections\":").append(metrics.getSections())
+                   .append(",\"dependencies\":").append(metrics.getDependencies())
+                   .append(",\"rules\":[");
+            boolean first = true;
+            for (Map.Entry<SortOrder, RuleMetrics> rule : metrics.getRules().entrySet()) {
+                RuleMetrics counters = rule.getValue();
+                builder.append(first ? "" : ",")
+                       .append("{\"rule\":").append(ReportFormat.json(rule.getKey().getDescription()))
+                       .append(",\"timeMs\":").append(millis(counters.getNanos()))
+                       .append(",\"examined\":").append(counters.getExamined())
+                       .append(",\"keysExtracted\":").append(counters.getKeysExtracted())
+                       .append(",\"comparisons\":").append(counters.getComparisons())
+                       .append(",\"violations\":").append(counters.getViolations())
+                       .append('}');
+                first = false;
+            }
+            builder.append("]}");
+            firstModule = false;
+        }
+        return builder.append("\n]}\n").toString();
+    }
+
+    /**
+     * Returns the summary table: one row per module, followed by the totals of every rule
+     * over all modules.
+     *
+     * @return table with one line per row, separated by '\n'
+     */
+    public synchronized String toTable() {
+        String rowFormat = "%-50s %10s %10s %8s %12s %12s %10s";
+        List<String> lines = new ArrayList<>();
+        long totalNanos = 0;
+        lines.add("Dependency order metrics:");
+        lines.add(String.format(Locale.ROOT, rowFormat, "Module", "Time ms", "Rules ms", "Deps", "Keys",
+                                "Comparisons", "Violations"));
+        Map<String, RuleMetrics> rules = new LinkedHashMap<>();
+        for (Module module : modules.values()) {
+            RuleMetrics moduleTotals = new RuleMetrics();
+            for (Map.Entry<SortOrder, RuleMetrics> rule : module.metrics.getRules().entrySet()) {
+                moduleTotals.add(rule.getValue());
+                rules.computeIfAbsent(rule.getKey().getDescription(), key -> new RuleMetrics()).add(rule.getValue());
+            }
+            totalNanos += module.nanos;
+            lines.add(String.format(Locale.ROOT, rowFormat, abbreviate(module.id), millis(module.nanos),
+                                    millis(moduleTotals.getNanos()), module.metrics.getDependencies(),
+                                    moduleTotals.getKeysExtracted(), moduleTotals.getComparisons(),
+                                    moduleTotals.getViolations()));
+        }
+        lines.add(String.format(Locale.ROOT, rowFormat, "Rule", "", "Rule ms", "Examined", "Keys",
+                                "Comparisons", "Violations"));
+        for (Map.Entry<String, RuleMetrics> rule : rules.entrySet()) {
+            RuleMetrics counters = rule.getValue();
+            lines.add(String.format(Locale.ROOT, rowFormat, abbreviate(rule.getKey()), "",
+                                    millis(counters.getNanos()), counters.getExamined(), counters.getKeysExtracted(),
+                                    counters.getComparisons(), counters.getViolations()));
+        }
+        lines.add(String.format(Locale.ROOT, "%d %s in %s ms", modules.size(),
+                                modules.size() == 1 ? "module" : "modules", millis(totalNanos)));
+        return String.join("\n", lines);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() <= 50 ? text : text.substring(0, 47) + "...";
+    }
+
+    private static final class Module {
+        final String id;
+        final long nanos;
+        final ValidationMetrics metrics;
+
+        Module(String id, long nanos, ValidationMetrics metrics) {
+            this.id = id;
+            this.nanos = nanos;
+            this.metrics = metrics;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package se.payerl.report;
+
+import se.payerl.ValidationResult;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Totals of the modules of a build, for the single summary line of quiet mode.
+ * <p>
+ * One summary is shared by all modules of a build through {@link BuildScope}, which logs it
+ * when the build has ended. Results are kept per module, so a module that runs the rule in
+ * more than one execution is counted once, with its last result.
+ */
+public final class ReactorSummary {
+    private final Map<String, Module> modules = new LinkedHashMap<>();
+
+    /**
+     * Adds the result of a module, replacing an earlier result of the same module.
+     *
+     * @param module id of the module
+     * @param result result of the module
+     */
+    public synchronized void record(String module, ValidationResult result) {
+        modules.put(module, new Module(result));
+    }
+
+    @Override
+    public synchronized String toString() {
+        int failedModules = 0;
+        int violations = 0;
+        long disorder = 0;
+        boolean disorderCounted = true;
+        for (Module module : modules.values()) {
+            failedModules += module.success ? 0 : 1;
+            violations += module.violations;
+            disorder += module.disorder;
+            disorderCounted &= module.disorderCounted;
+        }
+        return "Dependency order: checked " + modules.size() + (modules.size() == 1 ? " module, " : " modules, ")
+                + failedModules + " with violations (" + violations + (violations == 1 ? " violation" : " violations")
+                + ")" + (disorderCounted ? ", disorder score " + disorder : "");
+    }
+
+    private static final class Module {
+        final boolean success;
+        final int violations;
+        final long disorder;
+        final boolean disorderCounted;
+
+        Module(ValidationResult result) {
+            this.success = result.isSuccess();
+            this.violations = result.getErrorCount();
+            this.disorder = result.getDisorder();
+            this.disorderCounted = result.isDisorderCounted();
+        }
+    }
+}
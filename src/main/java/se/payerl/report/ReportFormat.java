@@ -0,0 +1,301 @@
+package se.payerl.report;
+
+import org.apache.maven.model.InputLocation;
+import se.payerl.ValidationResult;
+import se.payerl.sort.Violation;
+import se.payerl.sort.ViolationFormat;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Machine-readable formats of the report written by {@link ReportWriter}.
+ * <p>
+ * Every format consists of a fixed header, one entry per module and a fixed footer, so
+ * modules can be appended to a report one at a time without reading it back.
+ */
+public enum ReportFormat {
+    /**
+     * One JSON document with an entry per module, holding the disorder score and the
+     * violations of every section. The scores are left out when they were not counted.
+     */
+    JSON("json", true) {
+        @Override
+        String header() {
+            return "{\"tool\":\"DependencyOrderRule\",\"modules\":[\n";
+        }
+
+        @Override
+        String footer() {
+            return "]}\n";
+        }
+
+        @Override
+        String module(String module, String pom, ValidationResult result, boolean first) {
+            StringBuilder builder = new StringBuilder(first ? "" : ",\n");
+            builder.append("{\"module\":").append(json(module))
+                   .append(",\"pom\":").append(json(pom))
+                   .append(",\"success\":").append(result.isSuccess());
+            if (result.isDisorderCounted()) {
+                builder.append(",\"disorder\":").append(result.getDisorder());
+            }
+            builder.append(",\"limitReached\":").append(result.isLimitReached())
+                   .append(",\"sections\":[");
+            boolean firstSection = true;
+            for (Map.Entry<String, List<Violation>> section : result.getViolationsBySection().entrySet()) {
+                builder.append(firstSection ? "" : ",")
+                       .append("{\"section\":").append(json(section.getKey()));
+                Long disorder = result.getDisorderBySection().get(section.getKey());
+                if (disorder != null) {
+                    builder.append(",\"disorder\":").append(disorder);
+                }
+                builder.append(",\"violations\":[");
+                List<Violation> violations = section.getValue();
+                for (int i = 0; i < violations.size(); i++) {
+                    Violation violation = violations.get(i);
+                    builder.append(i == 0 ? "" : ",")
+                           .append("{\"kind\":").append(json(violation.getKind().name()))
+                           .append(",\"rule\":").append(json(ruleId(violation)))
+                           .append(",\"message\":").append(json(violation.getMessage()));
+                    InputLocation location = violation.getLocation();
+                    if (location != null) {
+                        builder.append(",\"file\":").append(json(source(location, null)))
+                               .append(",\"line\":").append(location.getLineNumber())
+                               .append(",\"column\":").append(location.getColumnNumber());
+                    }
+                    builder.append('}');
+                }
+                builder.append("]}");
+                firstSection = false;
+            }
+            return builder.append("]}").toString();
+        }
+    },
+
+    /**
+     * JUnit XML as read by CI servers, with a test suite per module and a test case per section.
+     * The violations of a section are the text of its failure, in compiler format.
+     */
+    JUNIT("xml", true) {
+        @Override
+        String header() {
+            return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuites name=\"DependencyOrderRule\">\n";
+        }
+
+        @Override
+        String footer() {
+            return "</testsuites>\n";
+        }
+
+        @Override
+        String module(String module, String pom, ValidationResult result, boolean first) {
+            Map<String, List<Violation>> sections = result.getViolationsBySection();
+            long failures = sections.values().stream().filter(violations -> !violations.isEmpty()).count();
+            StringBuilder builder = new StringBuilder();
+            builder.append("  <testsuite name=\"").append(xml(module))
+                   .append("\" tests=\"").append(sections.size())
+                   .append("\" failures=\"").append(failures).append("\">\n");
+            for (Map.Entry<String, List<Violation>> section : sections.entrySet()) {
+                List<Violation> violations = section.getValue();
+                builder.append("    <testcase classname=\"").append(xml(module))
+                       .append("\" name=\"").append(xml(section.getKey())).append('"');
+                if (violations.isEmpty()) {
+                    builder.append("/>\n");
+                    continue;
+                }
+                builder.append(">\n      <failure type=\"DependencyOrder\" message=\"")
+                       .append(violations.size()).append(violations.size() == 1 ? " violation" : " violations");
+                Long disorder = result.getDisorderBySection().get(section.getKey());
+                if (disorder != null) {
+                    builder.append(", disorder score ").append(disorder);
+                }
+                builder.append("\">");
+                for (Violation violation : violations) {
+                    builder.append(xml(ViolationFormat.COMPILER.format(violation))).append('\n');
+                }
+                builder.append("</failure>\n    </testcase>\n");
+            }
+            return builder.append("  </testsuite>\n").toString();
+        }
+    },
+
+    /**
+     * SARIF 2.1.0 as read by code scanning tools, with a result per violation.
+     * Violations without a source location point at the pom.xml of their module.
+     */
+    SARIF("sarif", false) {
+        @Override
+        String header() {
+            return "{\"version\":\"2.1.0\",\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\","
+                    + "\"runs\":[{\"tool\":{\"driver\":{\"name\":\"DependencyOrderRule\","
+                    + "\"informationUri\":\"https://github.com/APayerl/DependencyOrderRule\"}},\"results\":[\n";
+        }
+
+        @Override
+        String footer() {
+            return "]}]}\n";
+        }
+
+        @Override
+        String module(String module, String pom, ValidationResult result, boolean first) {
+            StringBuilder builder = new StringBuilder();
+            result.getViolationsBySection().forEach((section, violations) -> {
+                for (Violation violation : violations) {
+                    builder.append(first && builder.length() == 0 ? "" : ",\n")
+                           .append("{\"ruleId\":").append(json(ruleId(violation)))
+                           .append(",\"level\":\"error\",\"message\":{\"text\":").append(json(violation.getMessage()))
+                           .append("},\"locations\":[{\"physicalLocation\":{\"artifactLocation\":{\"uri\":");
+                    InputLocation location = violation.getLocation();
+                    builder.append(json(uri(location != null ? source(location, pom) : pom))).append('}');
+                    if (location != null && location.getLineNumber() > 0) {
+                        builder.append(",\"region\":{\"startLine\":").append(location.getLineNumber());
+                        if (location.getColumnNumber() > 0) {
+                            builder.append(",\"startColumn\":").append(location.getColumnNumber());
+                        }
+                        builder.append('}');
+                    }
+                    builder.append("}}],\"properties\":{\"module\":").append(json(module))
+                           .append(",\"section\":").append(json(section)).append("}}");
+                }
+            });
+            return builder.toString();
+        }
+    };
+
+    private final String extension;
+    private final boolean usesDisorder;
+
+    ReportFormat(String extension, boolean usesDisorder) {
+        this.extension = extension;
+        this.usesDisorder = usesDisorder;
+    }
+
+    /**
+     * Returns the file extension of reports in this format.
+     *
+     * @return file extension without dot, for example "json"
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Returns if reports in this format show the disorder score, so that it has to be counted.
+     *
+     * @return true if the format uses the disorder score
+     */
+    public boolean usesDisorder() {
+        return usesDisorder;
+    }
+
+    /**
+     * Returns the text that starts a report.
+     */
+    abstract String header();
+
+    /**
+     * Returns the text that ends a report.
+     */
+    abstract String footer();
+
+    /**
+     * Returns the entry of a module, empty if the format has nothing to report for it.
+     *
+     * @param first true if nothing has been written after the header yet
+     */
+    abstract String module(String module, String pom, ValidationResult result, boolean first);
+
+    /**
+     * Returns the format with a name or file extension, ignoring case.
+     *
+     * @param value name of the format, for example "json", "junit" or "sarif"
+     * @return report format
+     * @throws IllegalArgumentException if there is no format with the name
+     */
+    public static ReportFormat fromValue(String value) {
+        String name = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        for (ReportFormat format : values()) {
+            if (format.name().toLowerCase(Locale.ROOT).equals(name) || format.extension.equals(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown report format '" + value + "', expected json, junit or sarif");
+    }
+
+    private static String ruleId(Violation violation) {
+        return violation.getRule() != null ? violation.getRule().getClass().getSimpleName() : "DependencyOrder";
+    }
+
+    private static String source(InputLocation location, String fallback) {
+        return location.getSource() != null && location.getSource().getLocation() != null
+                ? location.getSource().getLocation() : fallback;
+    }
+
+    private static String uri(String path) {
+        return path != null ? Paths.get(path).toUri().toString() : "pom.xml";
+    }
+
+    static String json(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                    break;
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    static String xml(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<':
+                    builder.append("&lt;");
+                    break;
+                case '>':
+                    builder.append("&gt;");
+                    break;
+                case '&':
+                    builder.append("&amp;");
+                    break;
+                case '"':
+                    builder.append("&quot;");
+                    break;
+                default:
+                    if (c >= 0x20 || c == '\n' || c == '\t' || c == '\r') {
+                        builder.append(c);
+                    }
+                    break;
+            }
+        }
+        return builder.toString();
+    }
+}
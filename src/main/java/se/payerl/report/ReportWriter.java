@@ -0,0 +1,118 @@
+package se.payerl.report;
+
+import org.apache.maven.execution.MavenSession;
+import se.payerl.ValidationResult;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams the results of the modules of a build into one report file.
+ * <p>
+ * Each module is appended as soon as it has been validated and the footer of the format is
+ * written after it, so the file is a complete report after every module and nothing but the
+ * position of the footer is kept in memory. The first module of a build replaces the report
+ * of an earlier build. Modules validated concurrently with {@code mvn -T} are appended one
+ * at a time, in the order they finish.
+ */
+public final class ReportWriter {
+    private final Path file;
+    private final ReportFormat format;
+    // Length of the report without its footer, -1 until the header has been written
+    private long footerOffset = -1;
+    private boolean empty = true;
+
+    /**
+     * Creates a writer that starts a new report on the first module it writes.
+     *
+     * @param file report file, an existing file is replaced
+     * @param format format of the report
+     */
+    public ReportWriter(Path file, ReportFormat format) {
+        this.file = file;
+        this.format = format;
+    }
+
+    /**
+     * Returns the writer of a report file shared by all modules of a build.
+     *
+     * @param session current Maven session, or null to get a writer of its own
+     * @param file report file
+     * @param format format of the report
+     * @return writer of the report file for the build
+     */
+    public static ReportWriter forSession(MavenSession session, Path file, ReportFormat format) {
+        return BuildScope.get(session, Writers.class, Writers::new).byFile
+                         .computeIfAbsent(file.toAbsolutePath().normalize(), key -> new ReportWriter(key, format));
+    }
+
+    /**
+     * Appends the result of a module to the report.
+     *
+     * @param module id of the module
+     * @param pom path of the pom.xml of the module, may be null
+     * @param result result of the module
+     * @throws IOException if the report could not be written
+     */
+    public synchronized void write(String module, String pom, ValidationResult result) throws IOException {
+        start();
+        String entry = format.module(module, pom, result, empty);
+        append(entry);
+        empty &= entry.isEmpty();
+    }
+
+    /**
+     * Starts a new report without modules, replacing the report of an earlier build.
+     * Has no effect once the report has been started.
+     *
+     * @throws IOException if the report could not be written
+     */
+    public synchronized void start() throws IOException {
+        if (footerOffset >= 0) {
+            return;
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.deleteIfExists(file);
+        footerOffset = 0;
+        append(format.header());
+    }
+
+    private void append(String text) throws IOException {
+        try (RandomAccessFile report = new RandomAccessFile(file.toFile(), "rw")) {
+            report.seek(footerOffset);
+            report.write(text.getBytes(StandardCharsets.UTF_8));
+            footerOffset = report.getFilePointer();
+            report.write(format.footer().getBytes(StandardCharsets.UTF_8));
+            report.setLength(report.getFilePointer());
+        }
+    }
+
+    /**
+     * Returns the report file.
+     *
+     * @return report file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the format of the report.
+     *
+     * @return report format
+     */
+    public ReportFormat getFormat() {
+        return format;
+    }
+
+    private static final class Writers {
+        final Map<Path, ReportWriter> byFile = new ConcurrentHashMap<>();
+    }
+}
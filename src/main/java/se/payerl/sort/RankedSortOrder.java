@@ -0,0 +1,41 @@
+package se.payerl.sort;
+
+import org.apache.maven.model.Dependency;
+
+/**
+ * Optional extension of a {@link SortOrder} whose keys come from a small, known domain,
+ * such as scopes or the optional flag. The key of a dependency is then encoded as a
+ * primitive rank, which the validation engine uses for grouping, comparing and sorting
+ * through primitive arrays instead of String keys.
+ * <p>
+ * For every pair of dependencies the SortOrder is applicable to, ranks must be consistent with
+ * the SortOrder:
+ * <ul>
+ *   <li>{@code 0 <= rank(dependency) < rankCount()}</li>
+ *   <li>{@link SortOrder#isInOrder(Dependency, Dependency)} is true exactly when
+ *       {@code rank(previous) <= rank(current)}, and {@link SortOrder#compare(Dependency, Dependency)}
+ *       has the sign of {@code Integer.compare(rank(first), rank(second))}</li>
+ *   <li>two dependencies have the same rank exactly when they have the same
+ *       {@link SortOrder#extractSortKey(Dependency)}</li>
+ * </ul>
+ * Open-ended orders such as {@code AlphabeticalOrder} do not implement this interface and
+ * are compared by their String keys.
+ */
+public interface RankedSortOrder {
+
+    /**
+     * Returns the rank of a dependency the SortOrder is applicable to.
+     *
+     * @param dependency applicable dependency
+     * @return rank, 0 for the dependencies that come first
+     * @throws IllegalArgumentException if dependency is null
+     */
+    int rank(Dependency dependency);
+
+    /**
+     * Returns the number of ranks, one more than the highest rank of an applicable dependency.
+     *
+     * @return number of ranks
+     */
+    int rankCount();
+}
@@ -0,0 +1,39 @@
+package se.payerl.sort;
+
+import java.util.Locale;
+
+/**
+ * How violations of a SortOrder are reported.
+ */
+public enum ReportMode {
+    /**
+     * Every pair of adjacent dependencies in wrong order is reported.
+     */
+    ADJACENT,
+    /**
+     * Only the smallest set of dependencies that have to be moved is reported, each with
+     * the dependency it should be moved before or after. The set is found with a longest
+     * increasing subsequence analysis of the configured order.
+     */
+    MINIMAL_MOVES;
+
+    /**
+     * Returns the report mode with a name, ignoring case and accepting '-' instead of '_'.
+     *
+     * @param value name of the report mode, for example "minimal-moves"
+     * @return report mode, ADJACENT if value is null or empty
+     * @throws IllegalArgumentException if there is no report mode with the name
+     */
+    public static ReportMode fromValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return ADJACENT;
+        }
+        String name = value.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+        for (ReportMode mode : values()) {
+            if (mode.name().equals(name)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown report mode '" + value + "', expected adjacent or minimal-moves");
+    }
+}
@@ -0,0 +1,115 @@
+package se.payerl.sort;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Work done by one SortOrder during the validations of a module, collected by
+ * {@link ValidationContext} when {@link ValidationMetrics} are enabled.
+ * <p>
+ * Counters are updated from every thread that validates a fork of a context,
+ * so they are {@link LongAdder}s and can be read while they are updated.
+ */
+public final class RuleMetrics {
+    private final LongAdder examined = new LongAdder();
+    private final LongAdder keysExtracted = new LongAdder();
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder violations = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * Creates counters without any work, to which the counters of other instances can be added.
+     */
+    public RuleMetrics() {
+    }
+
+    void examined() {
+        examined.increment();
+    }
+
+    void keyExtracted() {
+        keysExtracted.increment();
+    }
+
+    void compared() {
+        comparisons.increment();
+    }
+
+    void violation() {
+        violations.increment();
+    }
+
+    void addTime(long startNanos) {
+        nanos.add(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Adds the counters of another instance to this one.
+     *
+     * @param other counters to add
+     */
+    public void add(RuleMetrics other) {
+        examined.add(other.getExamined());
+        keysExtracted.add(other.getKeysExtracted());
+        comparisons.add(other.getComparisons());
+        violations.add(other.getViolations());
+        nanos.add(other.getNanos());
+    }
+
+    /**
+     * Returns how many times the SortOrder looked at a dependency, once per dependency
+     * and level of the validation tree that checks it.
+     *
+     * @return number of dependencies examined
+     */
+    public long getExamined() {
+        return examined.sum();
+    }
+
+    /**
+     * Returns how many keys and ranks were computed by the SortOrder. Keys are cached per
+     * validation, so this is at most the number of dependencies per kind of key.
+     *
+     * @return number of keys extracted
+     */
+    public long getKeysExtracted() {
+        return keysExtracted.sum();
+    }
+
+    /**
+     * Returns how many pairs of dependencies were compared by the SortOrder.
+     *
+     * @return number of comparisons
+     */
+    public long getComparisons() {
+        return comparisons.sum();
+    }
+
+    /**
+     * Returns how many violations of the SortOrder were reported.
+     *
+     * @return number of violations
+     */
+    public long getViolations() {
+        return violations.sum();
+    }
+
+    /**
+     * Returns the time spent in the methods of the SortOrder: applicability checks, key
+     * extraction and comparisons of keys that are not ranks.
+     *
+     * @return time in nanoseconds
+     */
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    /**
+     * Returns the time spent in the methods of the SortOrder in milliseconds.
+     *
+     * @return time in milliseconds
+     */
+    public double getMillis() {
+        return getNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
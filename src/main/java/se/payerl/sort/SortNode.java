@@ -2,8 +2,10 @@ package se.payerl.sort;
 
 import org.apache.maven.model.Dependency;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Abstract base class for hierarchical sorting of Maven dependencies.
@@ -20,6 +22,12 @@ import java.util.Optional;
  */
 public abstract class SortNode {
     
+    /**
+     * Disorder score returned by {@link #validateWithDisorder(ValidationContext)} when the sink
+     * stopped the validation, so the score was not counted.
+     */
+    public static final long DISORDER_NOT_COUNTED = -1L;
+    
     /**
      * Validates the order of a list of dependencies according to this node's rules.
      * 
@@ -29,6 +37,176 @@ public abstract class SortNode {
      */
     public abstract List<String> validateDependencies(List<Dependency> dependencies);
     
+    /**
+     * Validates the dependencies at positions {@code from..to} of a validation context
+     * and adds the errors to the context.
+     * <p>
+     * Nodes built into this library work directly on the permutation of the context.
+     * The default implementation copies the range into a list and delegates to
+     * {@link #validateDependencies(List)}, so custom nodes work inside a tree without changes.
+     *
+     * @param context validation context holding the dependencies
+     * @param from first position of the range (inclusive)
+     * @param to last position of the range (exclusive)
+     */
+    public void validateRange(ValidationContext context, int from, int to) {
+        List<Dependency> dependencies = new ArrayList<>(to - from);
+        for (int position = from; position < to; position++) {
+            dependencies.add(context.get(position));
+        }
+        for (String error : validateDependencies(dependencies)) {
+            if (context.isStopped()) {
+                return;
+            }
+            context.addError(error);
+        }
+    }
+    
+    /**
+     * Counts the inversions of the dependencies at positions {@code from..to} of a validation
+     * context: the number of pairs of dependencies in wrong order according to this node.
+     * <p>
+     * Nodes built into this library count inversions with a merge sort in O(n log n).
+     * The default implementation counts the errors reported by {@link #validateDependencies(List)}.
+     *
+     * @param context validation context holding the dependencies
+     * @param from first position of the range (inclusive)
+     * @param to last position of the range (exclusive)
+     * @return number of inversions, 0 if the range is in correct order
+     */
+    public long countInversions(ValidationContext context, int from, int to) {
+        List<Dependency> dependencies = new ArrayList<>(to - from);
+        for (int position = from; position < to; position++) {
+            dependencies.add(context.get(position));
+        }
+        return validateDependencies(dependencies).size();
+    }
+    
+    /**
+     * Returns the disorder score of a list of dependencies, the number of pairs of
+     * dependencies in wrong order according to this node.
+     *
+     * @param dependencies List of dependencies
+     * @return disorder score, 0 if the list is in correct order
+     * @throws IllegalArgumentException if dependencies is null
+     */
+    public final long disorder(List<Dependency> dependencies) {
+        requireNonNull(dependencies, "dependencies");
+        ValidationContext context = new ValidationContext(dependencies);
+        return countInversions(context, 0, context.size());
+    }
+    
+    /**
+     * Validates a section of dependencies and delivers the violations to a sink.
+     * Messages are only formatted if the sink renders them.
+     *
+     * @param dependencies List of dependencies to validate
+     * @param section name of the section, may be null
+     * @param sink sink receiving the violations
+     * @throws IllegalArgumentException if dependencies or sink is null
+     */
+    public void validate(List<Dependency> dependencies, String section, ViolationSink sink) {
+        requireNonNull(dependencies, "dependencies");
+        if (sink == null) {
+            throw new IllegalArgumentException("sink cannot be null");
+        }
+        ValidationContext context = new ValidationContext(dependencies, section, sink);
+        validateRange(context, 0, context.size());
+    }
+    
+    /**
+     * Validates a section of dependencies like {@link #validate(List, String, ViolationSink)}
+     * and returns its disorder score like {@link #disorder(List)}. Both passes share one
+     * {@link ValidationContext}, so the keys of every dependency are computed once.
+     * The score is not counted once the sink stops the validation.
+     *
+     * @param dependencies List of dependencies to validate
+     * @param section name of the section, may be null
+     * @param sink sink receiving the violations
+     * @return disorder score, 0 if the list is in correct order, or {@link #DISORDER_NOT_COUNTED}
+     *         if the sink stopped the validation
+     * @throws IllegalArgumentException if dependencies or sink is null
+     */
+    public final long validateWithDisorder(List<Dependency> dependencies, String section, ViolationSink sink) {
+        requireNonNull(dependencies, "dependencies");
+        if (sink == null) {
+            throw new IllegalArgumentException("sink cannot be null");
+        }
+        return validateWithDisorder(new ValidationContext(dependencies, section, sink));
+    }
+    
+    /**
+     * Validates all dependencies of a new context and returns their disorder score.
+     * A score is of no use once the sink is full, so it is then not counted.
+     *
+     * @param context new validation context
+     * @return disorder score, 0 if the dependencies are in correct order, or
+     *         {@link #DISORDER_NOT_COUNTED} if the sink stopped the validation
+     * @see #validateWithDisorder(List, String, ViolationSink)
+     */
+    public final long validateWithDisorder(ValidationContext context) {
+        if (context.isStopped()) {
+            return DISORDER_NOT_COUNTED;
+        }
+        validateRange(context, 0, context.size());
+        if (context.isStopped()) {
+            return DISORDER_NOT_COUNTED;
+        }
+        context.restoreOrder();
+        return countInversions(context, 0, context.size());
+    }
+    
+    /**
+     * Validates a complete list through {@link #validateRange(ValidationContext, int, int)}.
+     * Used by nodes that implement {@link #validateDependencies(List)} on top of ranges.
+     *
+     * @param dependencies List of dependencies to validate
+     * @return List of error messages, empty if everything is correct
+     * @throws IllegalArgumentException if dependencies is null
+     */
+    protected final List<String> validateAsRange(List<Dependency> dependencies) {
+        requireNonNull(dependencies, "dependencies");
+        ValidationContext context = new ValidationContext(dependencies);
+        validateRange(context, 0, context.size());
+        return context.getErrors();
+    }
+    
+    /**
+     * Returns the dependencies in the order this node expects them to be in.
+     * <p>
+     * Used to fix the order of dependencies. The default implementation keeps the given
+     * order, so custom nodes that only validate leave their dependencies where they are.
+     *
+     * @param dependencies List of dependencies to sort
+     * @return new list with the same dependencies in expected order
+     * @throws IllegalArgumentException if dependencies is null
+     */
+    public List<Dependency> sort(List<Dependency> dependencies) {
+        requireNonNull(dependencies, "dependencies");
+        return new ArrayList<>(dependencies);
+    }
+    
+    /**
+     * Returns a comparator that orders dependencies the way this node validates them:
+     * a list sorted with the comparator passes validation, unless the rules of the node conflict.
+     * <p>
+     * The comparator compares one pair at a time. To sort many dependencies {@link #sort(List)}
+     * is faster, since it computes the sort key of every dependency once. The default
+     * implementation validates both orders of the pair with {@link #validateDependencies(List)}.
+     *
+     * @return comparator consistent with this node
+     */
+    public Comparator<Dependency> comparator() {
+        return (first, second) -> {
+            boolean forward = validateDependencies(Arrays.asList(first, second)).isEmpty();
+            boolean backward = validateDependencies(Arrays.asList(second, first)).isEmpty();
+            if (forward == backward) {
+                return 0;
+            }
+            return forward ? -1 : 1;
+        };
+    }
+    
     /**
      * Returns a description of what this node checks.
      * Used for logging.
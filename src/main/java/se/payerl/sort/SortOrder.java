@@ -2,6 +2,7 @@ package se.payerl.sort;
 
 import org.apache.maven.model.Dependency;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,8 +19,44 @@ import java.util.Optional;
  *   <li>{@code ScopeOrder} - Sorts dependencies based on scope (e.g. compile before test)</li>
  *   <li>{@code OptionalOrder} - Sorts dependencies based on the optional flag</li>
  * </ul>
+ * 
+ * A SortOrder is configured through its setters and then {@linkplain #freeze() frozen} when
+ * a ValidationPlan is compiled from it. A frozen SortOrder rejects configuration changes, so
+ * it can be shared by the threads of a parallel build without locks.
  */
 public abstract class SortOrder {
+    // Written once when a plan is compiled, volatile so that every thread sees the final configuration
+    private volatile boolean frozen;
+    
+    /**
+     * Makes the configuration of this SortOrder unmodifiable. Called when a ValidationPlan is
+     * compiled, after which the setters of the SortOrder throw {@link IllegalStateException}.
+     * Freezing a frozen SortOrder has no effect.
+     */
+    public final void freeze() {
+        frozen = true;
+    }
+    
+    /**
+     * Returns if the configuration of this SortOrder is unmodifiable.
+     *
+     * @return true if the SortOrder is frozen, otherwise false
+     */
+    public final boolean isFrozen() {
+        return frozen;
+    }
+    
+    /**
+     * Helper method for setters to check that the configuration can still be changed.
+     *
+     * @throws IllegalStateException if this SortOrder is frozen
+     */
+    protected final void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException(getClass().getSimpleName()
+                    + " cannot be changed after a validation plan was compiled from it");
+        }
+    }
     
     /**
      * Returns a string representation of this sorting order.
@@ -29,7 +66,22 @@ public abstract class SortOrder {
      */
     @Override
     public abstract String toString();
-    
+
+    /**
+     * Returns a fingerprint of the configuration of this SortOrder. Two SortOrders of the same
+     * class with the same fingerprint must validate every list of dependencies identically,
+     * since a ValidationPlan compiled from one of them is cached per JVM and reused for the other.
+     * <p>
+     * The default implementation returns null: the SortOrder has no fingerprint, so plans
+     * compiled from it are not cached and its results are not stored in the result cache.
+     * SortOrders without configuration can return an empty string.
+     *
+     * @return fingerprint of the configuration, or null if the SortOrder has none
+     */
+    public String fingerprint() {
+        return null;
+    }
+
     /**
      * Extracts the sorting key from a dependency used for comparison.
      * 
@@ -79,6 +131,109 @@ public abstract class SortOrder {
      */
     public abstract Optional<String> validateOrder(Dependency previousDependency, Dependency currentDependency);
     
+    /**
+     * Checks that two dependencies are in correct order without creating an error message.
+     * <p>
+     * Used by the validation engine on every adjacent pair, so implementations should not allocate.
+     * The default implementation delegates to {@link #validateOrder(Dependency, Dependency)}.
+     *
+     * @param previousDependency The previous dependency in the list
+     * @param currentDependency The current dependency to compare with
+     * @return {@code true} if the order is correct, otherwise {@code false}
+     * @throws IllegalArgumentException if any of the dependencies is null
+     */
+    public boolean isInOrder(Dependency previousDependency, Dependency currentDependency) {
+        return !validateOrder(previousDependency, currentDependency).isPresent();
+    }
+    
+    /**
+     * Compares two applicable dependencies for sorting. Sorting the applicable dependencies
+     * of a list stably with this method gives an order that {@link #isInOrder(Dependency, Dependency)}
+     * accepts.
+     * <p>
+     * The default implementation derives the result from {@link #isInOrder(Dependency, Dependency)}
+     * in both directions. SortOrders that have a natural key should override it with a direct comparison.
+     *
+     * @param first first dependency
+     * @param second second dependency
+     * @return negative, zero or positive if first should be before, is equal to or should be after second
+     * @throws IllegalArgumentException if any of the dependencies is null
+     */
+    public int compare(Dependency first, Dependency second) {
+        boolean forward = isInOrder(first, second);
+        boolean backward = isInOrder(second, first);
+        if (forward == backward) {
+            return 0;
+        }
+        return forward ? -1 : 1;
+    }
+    
+    /**
+     * Creates the key that {@link #compareSortKeys(Object, Object)} compares. Used when many
+     * dependencies are sorted, so that the key of every dependency is computed once instead of
+     * on every comparison.
+     * <p>
+     * The default implementation returns the dependency itself. SortOrders that override
+     * {@link #compare(Dependency, Dependency)} with a key comparison should override both methods.
+     *
+     * @param dependency applicable dependency
+     * @return sort key of the dependency
+     * @throws IllegalArgumentException if dependency is null
+     */
+    public Object createSortKey(Dependency dependency) {
+        requireNonNull(dependency, "dependency");
+        return dependency;
+    }
+    
+    /**
+     * Compares two keys created by {@link #createSortKey(Dependency)}. The result has the same
+     * sign as {@link #compare(Dependency, Dependency)} for the dependencies of the keys.
+     * The default implementation compares the dependencies returned by the default
+     * {@link #createSortKey(Dependency)}.
+     *
+     * @param firstKey key of the first dependency
+     * @param secondKey key of the second dependency
+     * @return negative, zero or positive if the first dependency should be before, is equal to or should be after the second
+     */
+    public int compareSortKeys(Object firstKey, Object secondKey) {
+        return compare((Dependency) firstKey, (Dependency) secondKey);
+    }
+    
+    /**
+     * Returns a comparator that orders dependencies the way this rule validates them.
+     * Applicable dependencies are ordered by {@link #compare(Dependency, Dependency)} and come
+     * before the dependencies this rule is not applicable to, which are equal to each other.
+     *
+     * @return comparator consistent with this rule
+     */
+    public Comparator<Dependency> comparator() {
+        return (first, second) -> {
+            boolean firstApplicable = isApplicable(first);
+            boolean secondApplicable = isApplicable(second);
+            if (firstApplicable && secondApplicable) {
+                return compare(first, second);
+            }
+            return Boolean.compare(secondApplicable, firstApplicable);
+        };
+    }
+    
+    /**
+     * Creates the error message for two dependencies that are not in correct order.
+     * Only called when a violation is rendered.
+     * The default implementation delegates to {@link #validateOrder(Dependency, Dependency)}.
+     *
+     * @param previousDependency The previous dependency in the list
+     * @param currentDependency The current dependency that should come before the previous
+     * @return error message
+     * @throws IllegalArgumentException if any of the dependencies is null
+     */
+    public String formatViolation(Dependency previousDependency, Dependency currentDependency) {
+        return validateOrder(previousDependency, currentDependency)
+                .orElseGet(() -> String.format("Dependency %s must be before %s",
+                                               formatDependencyForError(currentDependency),
+                                               formatDependencyForError(previousDependency)));
+    }
+    
     /**
      * Checks if this sorting rule is applicable to a given dependency.
      * 
@@ -0,0 +1,586 @@
+package se.payerl.sort;
+
+import org.apache.maven.model.Dependency;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * State of one validation of a dependency list through a {@link SortNode} tree.
+ * <p>
+ * Instead of copying dependencies into new lists for every group, nodes work on
+ * ranges of positions in a primitive permutation of the input list. A GroupNode
+ * partitions its range in place so that each group becomes a contiguous sub-range
+ * that is handed to the child node. The permutation and the scratch arrays are
+ * shared by all levels, so memory use is O(n) regardless of the depth of the tree.
+ * <p>
+ * Nodes report {@link Violation}s to the context, which delivers them to its
+ * {@link ViolationSink}. Messages are only formatted when a violation is rendered.
+ * <p>
+ * The context also caches the applicability and the keys of every dependency for every
+ * SortOrder, with one slot per SortOrder and the dependencies keyed by their index in the
+ * validated list. Each of them is computed at most once per run, however many levels and
+ * passes ask for it. SortOrders that implement {@link RankedSortOrder} are compared by their
+ * cached primitive ranks instead of their keys.
+ * <p>
+ * With {@link #setMetrics(ValidationMetrics) metrics} the context also counts and times the work
+ * of every SortOrder. Without them the only cost is a null check per call.
+ * <p>
+ * A context is used by a single validation and is not thread-safe. To validate part of
+ * the range on another thread, a node {@linkplain #fork(int, int) forks} an independent
+ * context for it and reports the violations of the fork to this context afterwards.
+ */
+public final class ValidationContext {
+    private final List<Dependency> dependencies;
+    private final int[] order;
+    // Index in the validated list of every dependency of a fork, null if this context is not a fork
+    private final int[] originalIndices;
+    private final String section;
+    private final ViolationSink sink;
+    private final List<Violation> violations;
+    private final Map<SortOrder, KeySlot> keySlots = new IdentityHashMap<>();
+    private int[] groupIds;
+    private int[] positions;
+    private int[] buffer;
+    private int parallelThreshold;
+    private ValidationMetrics metrics;
+    private String module;
+
+    /**
+     * Creates a context for validating a list of dependencies that collects the
+     * violations, see {@link #getViolations()}.
+     *
+     * @param dependencies dependencies to validate
+     * @throws IllegalArgumentException if dependencies is null
+     */
+    public ValidationContext(List<Dependency> dependencies) {
+        this(dependencies, null, null);
+    }
+
+    /**
+     * Creates a context for validating a section of dependencies that delivers the
+     * violations to a sink.
+     *
+     * @param dependencies dependencies to validate
+     * @param section name of the section, may be null
+     * @param sink sink receiving the violations, or null to collect them in this context
+     * @throws IllegalArgumentException if dependencies is null
+     */
+    public ValidationContext(List<Dependency> dependencies, String section, ViolationSink sink) {
+        this(dependencies, section, sink, new ArrayList<>(), null);
+    }
+
+    private ValidationContext(List<Dependency> dependencies, String section, ViolationSink sink,
+                              List<Violation> violations, int[] originalIndices) {
+        if (dependencies == null) {
+            throw new IllegalArgumentException("dependencies cannot be null");
+        }
+        this.section = section;
+        this.violations = violations;
+        this.originalIndices = originalIndices;
+        this.sink = sink != null ? sink : violations::add;
+        this.dependencies = dependencies instanceof RandomAccess ? dependencies : new ArrayList<>(dependencies);
+        this.order = new int[dependencies.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+    }
+
+    /**
+     * Returns the number of dependencies being validated.
+     *
+     * @return number of dependencies
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * Returns the dependency at a position of the permutation.
+     *
+     * @param position position in the permutation
+     * @return dependency at the position
+     */
+    public Dependency get(int position) {
+        return dependencies.get(order[position]);
+    }
+
+    /**
+     * Returns the index in the original list of the dependency at a position of the permutation.
+     *
+     * @param position position in the permutation
+     * @return index in the validated list
+     */
+    public int indexAt(int position) {
+        return originalIndices == null ? order[position] : originalIndices[order[position]];
+    }
+
+    /**
+     * Creates an independent context for the dependencies at positions {@code from..to}, which
+     * can be validated on another thread while this context is used. The fork has the module,
+     * section, parallel threshold and metrics of this context and reports the indices of the
+     * validated list. It collects its violations, see {@link #getViolations()}, up to the
+     * remaining capacity of this context at the time of the fork.
+     *
+     * @param from first position of the range (inclusive)
+     * @param to last position of the range (exclusive)
+     * @return new context holding the dependencies of the range
+     */
+    public ValidationContext fork(int from, int to) {
+        List<Dependency> range = new ArrayList<>(to - from);
+        int[] indices = new int[to - from];
+        for (int position = from; position < to; position++) {
+            range.add(get(position));
+            indices[position - from] = indexAt(position);
+        }
+        List<Violation> collected = new ArrayList<>();
+        int capacity = remainingCapacity();
+        ValidationContext fork = new ValidationContext(range, section, new ViolationSink() {
+            @Override
+            public void accept(Violation violation) {
+                collected.add(violation);
+            }
+
+            @Override
+            public int remainingCapacity() {
+                return capacity - collected.size();
+            }
+        }, collected, indices);
+        fork.parallelThreshold = parallelThreshold;
+        fork.metrics = metrics;
+        fork.module = module;
+        return fork;
+    }
+
+    /**
+     * Returns the size from which nodes validate independent ranges, such as the groups of a
+     * GroupNode, in parallel on {@link #fork(int, int) forks}.
+     *
+     * @return minimum size of a range that is validated in parallel, 0 if validation is serial
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the size from which nodes validate independent ranges in parallel. The violations
+     * are the same, in the same order, as in serial validation.
+     *
+     * @param parallelThreshold minimum size of a range that is validated in parallel,
+     *                          0 or less for serial validation
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = Math.max(0, parallelThreshold);
+    }
+
+    /**
+     * Returns the metrics this context adds the work of every SortOrder to.
+     *
+     * @return metrics, or null if no metrics are collected
+     */
+    public ValidationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the metrics this context adds the work of every SortOrder to. Must be set before
+     * the validation starts.
+     *
+     * @param metrics metrics, or null to collect none
+     */
+    public void setMetrics(ValidationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns if a SortOrder is applicable to the dependency at a position, computed once per run.
+     *
+     * @param rule SortOrder to check
+     * @param position position in the permutation
+     * @return true if the rule is applicable to the dependency
+     */
+    public boolean isApplicable(SortOrder rule, int position) {
+        KeySlot slot = keySlot(rule);
+        RuleMetrics ruleMetrics = slot.metrics;
+        if (ruleMetrics != null) {
+            ruleMetrics.examined();
+        }
+        int index = order[position];
+        byte applicable = slot.applicable[index];
+        if (applicable == KeySlot.UNKNOWN) {
+            long start = ruleMetrics != null ? System.nanoTime() : 0L;
+            applicable = rule.isApplicable(dependencies.get(index)) ? KeySlot.APPLICABLE : KeySlot.NOT_APPLICABLE;
+            slot.applicable[index] = applicable;
+            if (ruleMetrics != null) {
+                ruleMetrics.addTime(start);
+            }
+        }
+        return applicable == KeySlot.APPLICABLE;
+    }
+
+    /**
+     * Returns {@link SortOrder#extractSortKey(Dependency)} of the dependency at a position,
+     * computed once per run.
+     *
+     * @param rule SortOrder giving the key
+     * @param position position in the permutation
+     * @return key of the dependency
+     */
+    public String extractSortKey(SortOrder rule, int position) {
+        KeySlot slot = keySlot(rule);
+        if (slot.extractedKeys == null) {
+            slot.extractedKeys = new String[order.length];
+        }
+        int index = order[position];
+        String key = slot.extractedKeys[index];
+        if (key == null) {
+            long start = slot.metrics != null ? System.nanoTime() : 0L;
+            key = rule.extractSortKey(dependencies.get(index));
+            slot.extractedKeys[index] = key;
+            slot.keyExtracted(start);
+        }
+        return key;
+    }
+
+    /**
+     * Returns {@link SortOrder#createSortKey(Dependency)} of the dependency at a position,
+     * computed once per run.
+     *
+     * @param rule SortOrder giving the key
+     * @param position position in the permutation
+     * @return sort key of the dependency
+     */
+    public Object sortKey(SortOrder rule, int position) {
+        KeySlot slot = keySlot(rule);
+        if (slot.sortKeys == null) {
+            slot.sortKeys = new Object[order.length];
+        }
+        int index = order[position];
+        Object key = slot.sortKeys[index];
+        if (key == null) {
+            long start = slot.metrics != null ? System.nanoTime() : 0L;
+            key = rule.createSortKey(dependencies.get(index));
+            slot.sortKeys[index] = key;
+            slot.keyExtracted(start);
+        }
+        return key;
+    }
+
+    /**
+     * Returns {@link RankedSortOrder#rank(Dependency)} of the dependency at a position,
+     * computed once per run.
+     *
+     * @param rule SortOrder that implements {@link RankedSortOrder}
+     * @param position position of an applicable dependency in the permutation
+     * @return rank of the dependency
+     * @throws ClassCastException if the rule does not implement RankedSortOrder
+     */
+    public int rank(SortOrder rule, int position) {
+        KeySlot slot = keySlot(rule);
+        if (slot.ranks == null) {
+            slot.ranks = new int[order.length];
+            Arrays.fill(slot.ranks, KeySlot.NO_RANK);
+        }
+        int index = order[position];
+        int rank = slot.ranks[index];
+        if (rank == KeySlot.NO_RANK) {
+            long start = slot.metrics != null ? System.nanoTime() : 0L;
+            rank = ((RankedSortOrder) rule).rank(dependencies.get(index));
+            slot.ranks[index] = rank;
+            slot.keyExtracted(start);
+        }
+        return rank;
+    }
+
+    /**
+     * Compares the dependencies at two positions with the cached ranks or sort keys of a SortOrder.
+     *
+     * @param rule SortOrder giving the order
+     * @param firstPosition position of the first dependency
+     * @param secondPosition position of the second dependency
+     * @return negative, zero or positive if the first dependency should be before, is equal to or should be after the second
+     */
+    public int compare(SortOrder rule, int firstPosition, int secondPosition) {
+        if (rule instanceof RankedSortOrder) {
+            countComparison(rule);
+            return Integer.compare(rank(rule, firstPosition), rank(rule, secondPosition));
+        }
+        Object firstKey = sortKey(rule, firstPosition);
+        Object secondKey = sortKey(rule, secondPosition);
+        RuleMetrics ruleMetrics = countComparison(rule);
+        if (ruleMetrics == null) {
+            return rule.compareSortKeys(firstKey, secondKey);
+        }
+        long start = System.nanoTime();
+        int result = rule.compareSortKeys(firstKey, secondKey);
+        ruleMetrics.addTime(start);
+        return result;
+    }
+
+    /**
+     * Checks that two applicable dependencies are in correct order according to a SortOrder.
+     * Ranked SortOrders compare their cached ranks, others use
+     * {@link SortOrder#isInOrder(Dependency, Dependency)}.
+     *
+     * @param rule SortOrder to check
+     * @param previousPosition position of the dependency that comes first
+     * @param currentPosition position of the dependency that comes after it
+     * @return true if the order is correct
+     */
+    public boolean isInOrder(SortOrder rule, int previousPosition, int currentPosition) {
+        RuleMetrics ruleMetrics = countComparison(rule);
+        if (rule instanceof RankedSortOrder) {
+            return rank(rule, previousPosition) <= rank(rule, currentPosition);
+        }
+        if (ruleMetrics == null) {
+            return rule.isInOrder(get(previousPosition), get(currentPosition));
+        }
+        long start = System.nanoTime();
+        boolean inOrder = rule.isInOrder(get(previousPosition), get(currentPosition));
+        ruleMetrics.addTime(start);
+        return inOrder;
+    }
+
+    private RuleMetrics countComparison(SortOrder rule) {
+        if (metrics == null) {
+            return null;
+        }
+        RuleMetrics ruleMetrics = keySlot(rule).metrics;
+        ruleMetrics.compared();
+        return ruleMetrics;
+    }
+
+    private KeySlot keySlot(SortOrder rule) {
+        KeySlot slot = keySlots.get(rule);
+        if (slot == null) {
+            slot = new KeySlot(order.length, metrics != null ? metrics.forRule(rule) : null);
+            keySlots.put(rule, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Puts the dependencies back in the order of the validated list, so that another pass
+     * can start over. The cached keys are kept.
+     */
+    void restoreOrder() {
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+    }
+
+    /**
+     * Returns a scratch array, one slot per dependency, where a node assigns a group
+     * id to each position before calling {@link #partition(int, int, int)}.
+     * The content is only valid until the next partition.
+     *
+     * @return scratch array of group ids
+     */
+    public int[] groupIds() {
+        if (groupIds == null) {
+            groupIds = new int[order.length];
+        }
+        return groupIds;
+    }
+
+    /**
+     * Returns a scratch array, one slot per dependency, where a node collects the positions
+     * it works on, for example the positions that take part in counting inversions.
+     * The content is only valid until the node hands a range to a child node.
+     *
+     * @return scratch array of positions
+     */
+    public int[] positions() {
+        if (positions == null) {
+            positions = new int[order.length];
+        }
+        return positions;
+    }
+
+    /**
+     * Returns a scratch array, one slot per dependency, used as temporary storage by
+     * {@link #partition(int, int, int)} and by merge sorts of {@link #positions()}.
+     * The content is not kept between calls.
+     *
+     * @return scratch array
+     */
+    public int[] buffer() {
+        if (buffer == null) {
+            buffer = new int[order.length];
+        }
+        return buffer;
+    }
+
+    /**
+     * Stably partitions the positions {@code from..to} by the group ids stored in
+     * {@link #groupIds()}. Groups are placed in ascending group id order; positions
+     * with a negative group id are moved behind all groups.
+     *
+     * @param from first position of the range (inclusive)
+     * @param to last position of the range (exclusive)
+     * @param groupCount number of groups, group ids are 0 to groupCount - 1
+     * @return boundaries of the groups: group g occupies positions
+     *         {@code bounds[g]..bounds[g + 1]}
+     */
+    public int[] partition(int from, int to, int groupCount) {
+        int[] ids = groupIds();
+        int[] buffer = buffer();
+        // Counting sort: bounds[g + 1] counts group g, the last slot counts ungrouped positions
+        int[] bounds = new int[groupCount + 2];
+        for (int position = from; position < to; position++) {
+            int id = ids[position];
+            bounds[(id < 0 ? groupCount : id) + 1]++;
+        }
+        bounds[0] = from;
+        for (int group = 1; group < bounds.length; group++) {
+            bounds[group] += bounds[group - 1];
+        }
+        int[] next = new int[groupCount + 1];
+        System.arraycopy(bounds, 0, next, 0, next.length);
+        for (int position = from; position < to; position++) {
+            int id = ids[position];
+            buffer[next[id < 0 ? groupCount : id]++] = order[position];
+        }
+        System.arraycopy(buffer, from, order, from, to - from);
+        return bounds;
+    }
+
+    /**
+     * Returns the id of the module being validated, used to tell the events of modules apart.
+     *
+     * @return module id, or null if not known
+     */
+    public String getModule() {
+        return module;
+    }
+
+    /**
+     * Sets the id of the module being validated.
+     *
+     * @param module module id, or null if not known
+     */
+    public void setModule(String module) {
+        this.module = module;
+    }
+
+    /**
+     * Returns the name of the section being validated.
+     *
+     * @return section name, or null if not known
+     */
+    public String getSection() {
+        return section;
+    }
+
+    /**
+     * Reports that two dependencies are in wrong order according to a SortOrder.
+     *
+     * @param rule violated rule
+     * @param previousPosition position of the dependency that comes first
+     * @param currentPosition position of the dependency that should come before it
+     */
+    public void reportOrder(SortOrder rule, int previousPosition, int currentPosition) {
+        report(Violation.order(section, rule,
+                               get(previousPosition), indexAt(previousPosition),
+                               get(currentPosition), indexAt(currentPosition)));
+    }
+
+    /**
+     * Reports a violation.
+     *
+     * @param violation violation to report
+     */
+    public void report(Violation violation) {
+        // Violations of a fork are counted when the parent context reports them
+        if (metrics != null && originalIndices == null && violation.getRule() != null) {
+            metrics.forRule(violation.getRule()).violation();
+        }
+        sink.accept(violation);
+    }
+
+    /**
+     * Returns how many more violations are accepted by the sink of this context.
+     *
+     * @return number of violations still accepted
+     */
+    public int remainingCapacity() {
+        return sink.remainingCapacity();
+    }
+
+    /**
+     * Returns if the sink accepts no more violations. Nodes check this after reporting
+     * and skip the rest of their work, including their children, once it is true.
+     *
+     * @return true if the validation should stop
+     */
+    public boolean isStopped() {
+        return sink.remainingCapacity() <= 0;
+    }
+
+    /**
+     * Adds an error message to the result of this validation.
+     *
+     * @param error error message
+     */
+    public void addError(String error) {
+        report(Violation.message(section, error));
+    }
+
+    /**
+     * Returns the violations collected so far.
+     * Always empty when the context delivers violations to a sink given at creation,
+     * except for {@linkplain #fork(int, int) forks}.
+     *
+     * @return list of violations in reporting order
+     */
+    public List<Violation> getViolations() {
+        return violations;
+    }
+
+    /**
+     * Returns the messages of the violations collected so far.
+     *
+     * @return list of error messages
+     */
+    public List<String> getErrors() {
+        List<String> errors = new ArrayList<>(violations.size());
+        for (Violation violation : violations) {
+            errors.add(violation.getMessage());
+        }
+        return errors;
+    }
+
+    /**
+     * Cached applicability and keys of every dependency for one SortOrder, indexed by the
+     * index of the dependency in the validated list. Key arrays are created on first use.
+     * Holds the metrics of the SortOrder, null if no metrics are collected.
+     */
+    private static final class KeySlot {
+        static final byte UNKNOWN = 0;
+        static final byte APPLICABLE = 1;
+        static final byte NOT_APPLICABLE = 2;
+        static final int NO_RANK = Integer.MIN_VALUE;
+
+        final byte[] applicable;
+        final RuleMetrics metrics;
+        String[] extractedKeys;
+        Object[] sortKeys;
+        int[] ranks;
+
+        KeySlot(int size, RuleMetrics metrics) {
+            applicable = new byte[size];
+            this.metrics = metrics;
+        }
+
+        void keyExtracted(long startNanos) {
+            if (metrics != null) {
+                metrics.addTime(startNanos);
+                metrics.keyExtracted();
+            }
+        }
+    }
+}
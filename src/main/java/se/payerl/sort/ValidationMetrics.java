@@ -0,0 +1,108 @@
+package se.payerl.sort;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the validations of one module: the sections and dependencies validated, the
+ * time spent validating them and the {@link RuleMetrics} of every SortOrder.
+ * <p>
+ * Metrics are collected by a {@link ValidationPlan} created with
+ * {@link ValidationPlan#withMetrics(ValidationMetrics)}. Without metrics nothing is counted
+ * and nothing is timed, so validation runs at full speed. An instance can be shared by the
+ * forks of a parallel validation.
+ */
+public final class ValidationMetrics {
+    private final Map<SortOrder, RuleMetrics> rules = new IdentityHashMap<>();
+    // Rules in the order they were first used, which is the order of the validation tree
+    private final Map<SortOrder, RuleMetrics> orderedRules = new LinkedHashMap<>();
+    private final LongAdder sections = new LongAdder();
+    private final LongAdder dependencies = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * Returns the metrics of a SortOrder, created on first use.
+     * Called once per SortOrder and validation context, not per dependency.
+     *
+     * @param rule SortOrder
+     * @return metrics of the SortOrder
+     */
+    synchronized RuleMetrics forRule(SortOrder rule) {
+        RuleMetrics metrics = rules.get(rule);
+        if (metrics == null) {
+            metrics = new RuleMetrics();
+            rules.put(rule, metrics);
+            orderedRules.put(rule, metrics);
+        }
+        return metrics;
+    }
+
+    /**
+     * Records the validation of a section.
+     *
+     * @param size number of dependencies in the section
+     * @param startNanos {@link System#nanoTime()} when the validation started
+     */
+    void recordSection(int size, long startNanos) {
+        nanos.add(System.nanoTime() - startNanos);
+        sections.increment();
+        dependencies.add(size);
+    }
+
+    /**
+     * Returns the metrics of every SortOrder that took part in a validation.
+     *
+     * @return unmodifiable map from SortOrder to its metrics, in order of first use
+     */
+    public synchronized Map<SortOrder, RuleMetrics> getRules() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(orderedRules));
+    }
+
+    /**
+     * Returns the number of sections validated.
+     *
+     * @return number of sections
+     */
+    public long getSections() {
+        return sections.sum();
+    }
+
+    /**
+     * Returns the number of dependencies in the validated sections.
+     *
+     * @return number of dependencies
+     */
+    public long getDependencies() {
+        return dependencies.sum();
+    }
+
+    /**
+     * Returns the time spent validating sections, including the disorder score.
+     *
+     * @return time in nanoseconds
+     */
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    /**
+     * Returns the sum of the comparisons of all SortOrders.
+     *
+     * @return number of comparisons
+     */
+    public long getComparisons() {
+        return getRules().values().stream().mapToLong(RuleMetrics::getComparisons).sum();
+    }
+
+    /**
+     * Returns the sum of the violations of all SortOrders.
+     *
+     * @return number of violations
+     */
+    public long getViolations() {
+        return getRules().values().stream().mapToLong(RuleMetrics::getViolations).sum();
+    }
+}
@@ -0,0 +1,559 @@
+package se.payerl.sort;
+
+import org.apache.maven.model.Dependency;
+import se.payerl.model.ModelSections;
+import se.payerl.sort.node.GroupNode;
+import se.payerl.sort.node.SequenceNode;
+import se.payerl.sort.node.SortLeaf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable, compiled form of a DependencyOrderRule configuration.
+ * <p>
+ * A plan turns the configured SortOrders and group mode flag into a ready-made
+ * {@link SortNode} tree once. Plans are cached per JVM and keyed by a fingerprint of
+ * the configuration, so every module in a reactor with the same rule configuration
+ * shares one plan. The fingerprint of a SortOrder is taken from
+ * {@link SortOrder#fingerprint()}. Plans of SortOrders without a fingerprint are compiled
+ * for every configuration and never cached.
+ * <p>
+ * Plans hold no per-validation state and can be used from several threads at the same
+ * time (for example with {@code mvn -T} or in a long-lived mvnd daemon). Compiling a plan
+ * {@linkplain SortOrder#freeze() freezes} its SortOrders, so the configuration a plan was
+ * compiled from cannot change while other threads use it.
+ * <p>
+ * {@link #withParallelThreshold(int)} gives a plan that validates large groups in parallel.
+ * The threshold is not part of the fingerprint, since it does not change the result.
+ * {@link #withMetrics(ValidationMetrics)} gives a plan for one module that counts and times
+ * its work, without metrics a plan collects none. {@link #withDisorder(boolean)} gives a plan
+ * that also counts the disorder score, which is not counted by default.
+ */
+public final class ValidationPlan {
+    /**
+     * Upper bound of cached plans. A build normally has one or a few configurations,
+     * the bound only protects long-lived daemons from unbounded growth.
+     */
+    private static final int MAX_CACHED_PLANS = 64;
+
+    // Least recently used plans are evicted first, so the plans of the running build stay cached
+    private static final Map<String, ValidationPlan> PLANS = new LinkedHashMap<String, ValidationPlan>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ValidationPlan> eldest) {
+            return size() > MAX_CACHED_PLANS;
+        }
+    };
+
+    // Fingerprint of the compiled configuration, without the options that plans derived from it add
+    private final String configFingerprint;
+    private final String fingerprint;
+    private final List<SortOrder> sortOrders;
+    private final boolean groupMode;
+    private final List<String> groupOrder;
+    private final int maxViolations;
+    private final ReportMode reportMode;
+    private final SortNode root;
+    private final ModelSections sections;
+    private final int parallelThreshold;
+    private final ValidationMetrics metrics;
+    private final String module;
+    private final boolean countDisorder;
+
+    private ValidationPlan(String fingerprint, List<SortOrder> sortOrders, boolean groupMode, List<String> groupOrder,
+                           int maxViolations, ReportMode reportMode) {
+        this.configFingerprint = fingerprint;
+        this.fingerprint = fingerprint;
+        this.sortOrders = Collections.unmodifiableList(new ArrayList<>(sortOrders));
+        this.groupMode = groupMode && sortOrders.size() > 1;
+        this.groupOrder = Collections.unmodifiableList(new ArrayList<>(groupOrder));
+        this.maxViolations = maxViolations;
+        this.reportMode = reportMode;
+        this.root = this.groupMode
+                ? createGroupNode(this.sortOrders, this.groupOrder, reportMode)
+                : new SequenceNode(this.sortOrders, reportMode);
+        this.sections = ModelSections.DEFAULT;
+        this.parallelThreshold = 0;
+        this.metrics = null;
+        this.module = null;
+        this.countDisorder = false;
+    }
+
+    private ValidationPlan(ValidationPlan plan, ModelSections sections, int parallelThreshold,
+                           ValidationMetrics metrics, String module, boolean countDisorder) {
+        this.configFingerprint = plan.configFingerprint;
+        this.fingerprint = configFingerprint
+                + (sections != ModelSections.DEFAULT ? ";sections=" + sections : "")
+                + (countDisorder ? ";disorder" : "");
+        this.sortOrders = plan.sortOrders;
+        this.groupMode = plan.groupMode;
+        this.groupOrder = plan.groupOrder;
+        this.maxViolations = plan.maxViolations;
+        this.reportMode = plan.reportMode;
+        this.root = plan.root;
+        this.sections = sections;
+        this.parallelThreshold = parallelThreshold;
+        this.metrics = metrics;
+        this.module = module;
+        this.countDisorder = countDisorder;
+    }
+
+    /**
+     * Returns a plan that validates other sections of a model than the &lt;dependencies&gt; and
+     * &lt;dependencyManagement&gt; sections, see {@link se.payerl.ValidationResult#validate}.
+     * The sections are part of the fingerprint, since they change the result.
+     *
+     * @param sections sections to validate
+     * @return plan validating the sections, sharing the compiled SortNode tree of this plan
+     */
+    public ValidationPlan withSections(ModelSections sections) {
+        ModelSections selected = sections != null ? sections : ModelSections.DEFAULT;
+        if (selected.equals(this.sections)) {
+            return this;
+        }
+        return new ValidationPlan(this, selected, parallelThreshold, metrics, module, countDisorder);
+    }
+
+    /**
+     * Returns the sections of a model that this plan validates.
+     *
+     * @return selected sections, {@link ModelSections#DEFAULT} unless configured
+     */
+    public ModelSections getSections() {
+        return sections;
+    }
+
+    /**
+     * Returns a plan that validates the groups of a group mode hierarchy as fork-join tasks when
+     * they have at least a number of dependencies. The violations are the same, in the same order,
+     * as in serial validation.
+     *
+     * @param parallelThreshold minimum number of dependencies of a group that is validated in
+     *                          parallel, 0 or less for serial validation
+     * @return plan with the threshold, sharing the compiled SortNode tree of this plan
+     */
+    public ValidationPlan withParallelThreshold(int parallelThreshold) {
+        int threshold = Math.max(0, parallelThreshold);
+        return threshold == this.parallelThreshold ? this
+                : new ValidationPlan(this, sections, threshold, metrics, module, countDisorder);
+    }
+
+    /**
+     * Returns the minimum number of dependencies of a group that is validated in parallel.
+     *
+     * @return parallel threshold, 0 for serial validation
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Returns a plan that adds the sections it validates and the work of every SortOrder to
+     * metrics. Metrics belong to one module, so the plan should not be shared between modules.
+     *
+     * @param metrics metrics to collect, or null to collect none
+     * @return plan collecting the metrics, sharing the compiled SortNode tree of this plan
+     */
+    public ValidationPlan withMetrics(ValidationMetrics metrics) {
+        return metrics == this.metrics ? this
+                : new ValidationPlan(this, sections, parallelThreshold, metrics, module, countDisorder);
+    }
+
+    /**
+     * Returns the metrics collected by this plan.
+     *
+     * @return metrics, or null if this plan collects none
+     */
+    public ValidationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns a plan that validates the sections of a module, which identifies the module in the
+     * JDK Flight Recorder events of the validation, see {@link se.payerl.jfr.RuleEvent}.
+     *
+     * @param module id of the module, or null if not known
+     * @return plan for the module, sharing the compiled SortNode tree of this plan
+     */
+    public ValidationPlan withModule(String module) {
+        return Objects.equals(module, this.module) ? this
+                : new ValidationPlan(this, sections, parallelThreshold, metrics, module, countDisorder);
+    }
+
+    /**
+     * Returns the id of the module this plan validates.
+     *
+     * @return module id, or null if not known
+     */
+    public String getModule() {
+        return module;
+    }
+
+    /**
+     * Returns a plan that also counts the disorder score of every section it validates, see
+     * {@link se.payerl.ValidationResult#validate}. Counting the score sorts every section, so
+     * it is only worth doing when the score is used. The flag is part of the fingerprint,
+     * since results with and without scores differ.
+     *
+     * @param countDisorder true to count the disorder score
+     * @return plan counting the score, sharing the compiled SortNode tree of this plan
+     */
+    public ValidationPlan withDisorder(boolean countDisorder) {
+        return countDisorder == this.countDisorder ? this
+                : new ValidationPlan(this, sections, parallelThreshold, metrics, module, countDisorder);
+    }
+
+    /**
+     * Returns if this plan counts the disorder score of the sections it validates.
+     *
+     * @return true if the disorder score is counted
+     */
+    public boolean isCountingDisorder() {
+        return countDisorder;
+    }
+
+    /**
+     * Returns the cached plan for a configuration, compiling it on first use.
+     *
+     * @param sortOrders configured SortOrders, must not be empty
+     * @param groupMode true if group mode sorting is configured
+     * @return plan for the configuration
+     * @throws IllegalArgumentException if sortOrders is null or empty
+     */
+    public static ValidationPlan of(List<SortOrder> sortOrders, boolean groupMode) {
+        return of(sortOrders, groupMode, Collections.emptyList());
+    }
+
+    /**
+     * Returns the cached plan for a configuration, compiling it on first use.
+     *
+     * @param sortOrders configured SortOrders, must not be empty
+     * @param groupMode true if group mode sorting is configured
+     * @param groupOrder order of the groups formed by the first SortOrder in group mode,
+     *                   empty to accept any order
+     * @return plan for the configuration
+     * @throws IllegalArgumentException if sortOrders is null or empty
+     */
+    public static ValidationPlan of(List<SortOrder> sortOrders, boolean groupMode, List<String> groupOrder) {
+        return of(sortOrders, groupMode, groupOrder, 0);
+    }
+
+    /**
+     * Returns the cached plan for a configuration, compiling it on first use.
+     *
+     * @param sortOrders configured SortOrders, must not be empty
+     * @param groupMode true if group mode sorting is configured
+     * @param groupOrder order of the groups formed by the first SortOrder in group mode,
+     *                   empty to accept any order
+     * @param maxViolations number of violations after which a module is not validated any further,
+     *                      0 or less for no limit
+     * @return plan for the configuration
+     * @throws IllegalArgumentException if sortOrders is null or empty
+     */
+    public static ValidationPlan of(List<SortOrder> sortOrders, boolean groupMode, List<String> groupOrder,
+                                    int maxViolations) {
+        return of(sortOrders, groupMode, groupOrder, maxViolations, ReportMode.ADJACENT);
+    }
+
+    /**
+     * Returns the cached plan for a configuration, compiling it on first use.
+     *
+     * @param sortOrders configured SortOrders, must not be empty
+     * @param groupMode true if group mode sorting is configured
+     * @param groupOrder order of the groups formed by the first SortOrder in group mode,
+     *                   empty to accept any order
+     * @param maxViolations number of violations after which a module is not validated any further,
+     *                      0 or less for no limit
+     * @param reportMode how violations of the SortOrders are reported, null for {@link ReportMode#ADJACENT}
+     * @return plan for the configuration
+     * @throws IllegalArgumentException if sortOrders is null or empty
+     */
+    public static ValidationPlan of(List<SortOrder> sortOrders, boolean groupMode, List<String> groupOrder,
+                                    int maxViolations, ReportMode reportMode) {
+        List<String> configuredGroupOrder = groupOrder != null ? groupOrder : Collections.<String>emptyList();
+        int configuredMaxViolations = Math.max(0, maxViolations);
+        ReportMode configuredReportMode = reportMode != null ? reportMode : ReportMode.ADJACENT;
+        String fingerprint = fingerprint(sortOrders, groupMode, configuredGroupOrder, configuredMaxViolations,
+                                         configuredReportMode);
+        // The fingerprint is taken from the configuration, which must not change afterwards
+        sortOrders.forEach(SortOrder::freeze);
+        if (!isCacheable(sortOrders)) {
+            return new ValidationPlan(fingerprint, sortOrders, groupMode, configuredGroupOrder, configuredMaxViolations,
+                                      configuredReportMode);
+        }
+        synchronized (PLANS) {
+            ValidationPlan plan = PLANS.get(fingerprint);
+            if (plan == null) {
+                plan = new ValidationPlan(fingerprint, sortOrders, groupMode, configuredGroupOrder,
+                                          configuredMaxViolations, configuredReportMode);
+                PLANS.put(fingerprint, plan);
+            }
+            return plan;
+        }
+    }
+
+    /**
+     * Returns if every SortOrder of a configuration has a
+     * {@linkplain SortOrder#fingerprint() fingerprint}, so that plans and results of the
+     * configuration can be cached.
+     *
+     * @param sortOrders configured SortOrders
+     * @return true if the configuration can be cached
+     */
+    private static boolean isCacheable(List<SortOrder> sortOrders) {
+        for (SortOrder sortOrder : sortOrders) {
+            if (sortOrder.fingerprint() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates the fingerprint used as cache key for a configuration.
+     * Two configurations with the same fingerprint validate dependencies identically.
+     * A SortOrder without a {@linkplain SortOrder#fingerprint() fingerprint} is identified by its
+     * instance instead, which is only unique within one JVM, see {@link #isCacheable()}.
+     *
+     * @param sortOrders configured SortOrders, must not be empty
+     * @param groupMode true if group mode sorting is configured
+     * @param groupOrder configured group order, empty if none
+     * @param maxViolations configured violation limit, 0 for no limit
+     * @param reportMode configured report mode
+     * @return fingerprint of the configuration
+     * @throws IllegalArgumentException if sortOrders is null or empty
+     */
+    public static String fingerprint(List<SortOrder> sortOrders, boolean groupMode, List<String> groupOrder,
+                                     int maxViolations, ReportMode reportMode) {
+        if (sortOrders == null || sortOrders.isEmpty()) {
+            throw new IllegalArgumentException("sortOrders cannot be null or empty");
+        }
+        StringBuilder builder = new StringBuilder("groupMode=").append(groupMode);
+        builder.append(";groupOrder=").append(groupOrder);
+        builder.append(";maxViolations=").append(maxViolations);
+        builder.append(";reportMode=").append(reportMode);
+        for (SortOrder sortOrder : sortOrders) {
+            Objects.requireNonNull(sortOrder, "sortOrder cannot be null");
+            String sortOrderFingerprint = sortOrder.fingerprint();
+            builder.append(';').append(sortOrder.getClass().getName());
+            if (sortOrderFingerprint != null) {
+                builder.append('=').append(sortOrderFingerprint);
+            } else {
+                builder.append('@').append(Integer.toHexString(System.identityHashCode(sortOrder)));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static SortNode createGroupNode(List<SortOrder> sortOrders, List<String> groupOrder, ReportMode reportMode) {
+        if (sortOrders.size() == 1) {
+            return new SortLeaf(sortOrders.get(0), reportMode);
+        }
+        // Recursively create hierarchy, the group order only applies to the top level
+        SortNode childRule = createGroupNode(sortOrders.subList(1, sortOrders.size()), Collections.emptyList(), reportMode);
+        return new GroupNode(sortOrders.get(0), childRule, groupOrder);
+    }
+
+    /**
+     * Validates the order of a list of dependencies according to this plan.
+     *
+     * @param dependencies List of dependencies to validate
+     * @return List of error messages, empty if everything is correct
+     * @throws IllegalArgumentException if dependencies is null
+     */
+    public List<String> validate(List<Dependency> dependencies) {
+        if (usesDefaultContext()) {
+            return root.validateDependencies(dependencies);
+        }
+        ValidationContext context = createContext(dependencies, null, null);
+        root.validateRange(context, 0, context.size());
+        return context.getErrors();
+    }
+
+    /**
+     * Validates the order of a section of dependencies and delivers the violations to a sink.
+     *
+     * @param dependencies List of dependencies to validate
+     * @param section name of the section, may be null
+     * @param sink sink receiving the violations
+     * @throws IllegalArgumentException if dependencies or sink is null
+     */
+    public void validate(List<Dependency> dependencies, String section, ViolationSink sink) {
+        if (usesDefaultContext()) {
+            root.validate(dependencies, section, sink);
+            return;
+        }
+        long start = metrics != null ? System.nanoTime() : 0L;
+        ValidationContext context = createContext(dependencies, section, requireSink(sink));
+        root.validateRange(context, 0, context.size());
+        if (metrics != null) {
+            metrics.recordSection(context.size(), start);
+        }
+    }
+
+    /**
+     * Validates a section of dependencies and returns its disorder score in one run, computing
+     * the keys of every dependency once. Nothing is validated if the sink is already full, and
+     * the score is not counted once the sink stops the validation.
+     *
+     * @param dependencies List of dependencies to validate
+     * @param section name of the section, may be null
+     * @param sink sink receiving the violations
+     * @return disorder score, 0 if the list is in correct order, or {@link SortNode#DISORDER_NOT_COUNTED}
+     *         if the sink stopped the validation
+     * @throws IllegalArgumentException if dependencies or sink is null
+     */
+    public long validateWithDisorder(List<Dependency> dependencies, String section, ViolationSink sink) {
+        if (usesDefaultContext()) {
+            return root.validateWithDisorder(dependencies, section, sink);
+        }
+        long start = metrics != null ? System.nanoTime() : 0L;
+        ValidationContext context = createContext(dependencies, section, requireSink(sink));
+        long disorder = root.validateWithDisorder(context);
+        if (metrics != null) {
+            metrics.recordSection(context.size(), start);
+        }
+        return disorder;
+    }
+
+    private boolean usesDefaultContext() {
+        return parallelThreshold == 0 && metrics == null && module == null;
+    }
+
+    private ValidationContext createContext(List<Dependency> dependencies, String section, ViolationSink sink) {
+        ValidationContext context = new ValidationContext(dependencies, section, sink);
+        context.setParallelThreshold(parallelThreshold);
+        context.setMetrics(metrics);
+        context.setModule(module);
+        return context;
+    }
+
+    private static ViolationSink requireSink(ViolationSink sink) {
+        if (sink == null) {
+            throw new IllegalArgumentException("sink cannot be null");
+        }
+        return sink;
+    }
+
+    /**
+     * Returns a comparator that orders dependencies the way this plan validates them.
+     * To sort many dependencies {@link #sort(List)} is faster.
+     *
+     * @return comparator consistent with this plan
+     * @see SortNode#comparator()
+     */
+    public Comparator<Dependency> comparator() {
+        return root.comparator();
+    }
+
+    /**
+     * Returns the disorder score of a list of dependencies according to this plan,
+     * the number of pairs of dependencies in wrong order.
+     *
+     * @param dependencies List of dependencies
+     * @return disorder score, 0 if the list is in correct order
+     * @throws IllegalArgumentException if dependencies is null
+     */
+    public long disorder(List<Dependency> dependencies) {
+        return root.disorder(dependencies);
+    }
+
+    /**
+     * Returns the dependencies in the order this plan expects them to be in.
+     *
+     * @param dependencies List of dependencies to sort
+     * @return new list with the same dependencies in expected order
+     * @throws IllegalArgumentException if dependencies is null
+     */
+    public List<Dependency> sort(List<Dependency> dependencies) {
+        return root.sort(dependencies);
+    }
+
+    /**
+     * Returns the fingerprint of the configuration this plan was compiled from.
+     *
+     * @return configuration fingerprint
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns if every SortOrder of this plan has a
+     * {@linkplain SortOrder#fingerprint() fingerprint}. Only then the plan is cached and its
+     * fingerprint identifies the configuration outside of this JVM, for example in the result
+     * cache.
+     *
+     * @return true if the fingerprint identifies the configuration
+     */
+    public boolean isCacheable() {
+        return isCacheable(sortOrders);
+    }
+
+    /**
+     * Returns the SortOrders of this plan.
+     *
+     * @return unmodifiable list of SortOrders in configured order
+     */
+    public List<SortOrder> getSortOrders() {
+        return sortOrders;
+    }
+
+    /**
+     * Returns if the plan validates in group mode.
+     * A group mode configuration with a single rule is validated in simple mode.
+     *
+     * @return true if the plan groups dependencies, otherwise false
+     */
+    public boolean isGroupMode() {
+        return groupMode;
+    }
+
+    /**
+     * Returns the order of the top level groups in group mode.
+     *
+     * @return unmodifiable list of group keys, empty if any group order is accepted
+     */
+    public List<String> getGroupOrder() {
+        return groupOrder;
+    }
+
+    /**
+     * Returns the number of violations after which a module is not validated any further.
+     *
+     * @return violation limit, 0 if there is no limit
+     */
+    public int getMaxViolations() {
+        return maxViolations;
+    }
+
+    /**
+     * Returns how violations of the SortOrders are reported.
+     *
+     * @return report mode
+     */
+    public ReportMode getReportMode() {
+        return reportMode;
+    }
+
+    /**
+     * Returns the root of the compiled SortNode tree.
+     *
+     * @return root SortNode
+     */
+    public SortNode getRoot() {
+        return root;
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationPlan[" + fingerprint + "]";
+    }
+}
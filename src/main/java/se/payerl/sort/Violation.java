@@ -0,0 +1,311 @@
+package se.payerl.sort;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.InputLocation;
+
+import java.util.Objects;
+
+/**
+ * A dependency order violation found during validation.
+ * <p>
+ * A violation holds the rule, the dependencies involved, their positions in the validated
+ * section and the section name. The message is only formatted when {@link #getMessage()}
+ * is called, so validations that report many violations or reporters that render
+ * violations in their own format do not pay for string formatting.
+ * <p>
+ * The source location of a violation is taken from the {@link InputLocation} that Maven
+ * records on the dependencies of a model read with location tracking, so the pom.xml is
+ * never read again to find it.
+ */
+public final class Violation {
+
+    /**
+     * Kind of violation.
+     */
+    public enum Kind {
+        /** Two dependencies are in wrong order according to a SortOrder. */
+        ORDER,
+        /** A group comes after a group that it should come before. */
+        GROUP_ORDER,
+        /** A dependency has to be moved before or after another dependency. */
+        MOVE,
+        /** A violation that is only known by its message, for example reported by a custom SortNode. */
+        MESSAGE
+    }
+
+    private final Kind kind;
+    private final String section;
+    private final SortOrder rule;
+    private final Dependency previous;
+    private final int previousIndex;
+    private final Dependency current;
+    private final int currentIndex;
+    private final String previousGroup;
+    private final String currentGroup;
+    private final String message;
+    private final boolean before;
+    private final InputLocation location;
+
+    private Violation(Kind kind, String section, SortOrder rule,
+                      Dependency previous, int previousIndex, Dependency current, int currentIndex,
+                      String previousGroup, String currentGroup, String message, boolean before) {
+        this(kind, section, rule, previous, previousIndex, current, currentIndex, previousGroup, currentGroup,
+             message, before, null);
+    }
+
+    private Violation(Kind kind, String section, SortOrder rule,
+                      Dependency previous, int previousIndex, Dependency current, int currentIndex,
+                      String previousGroup, String currentGroup, String message, boolean before,
+                      InputLocation location) {
+        this.kind = kind;
+        this.section = section;
+        this.rule = rule;
+        this.previous = previous;
+        this.previousIndex = previousIndex;
+        this.current = current;
+        this.currentIndex = currentIndex;
+        this.previousGroup = previousGroup;
+        this.currentGroup = currentGroup;
+        this.message = message;
+        this.before = before;
+        this.location = location;
+    }
+
+    /**
+     * Creates a violation for two dependencies in wrong order.
+     *
+     * @param section name of the validated section, may be null
+     * @param rule rule that is violated
+     * @param previous dependency that comes first in the section
+     * @param previousIndex index of previous in the section
+     * @param current dependency that should come before previous
+     * @param currentIndex index of current in the section
+     * @return new violation
+     */
+    public static Violation order(String section, SortOrder rule,
+                                  Dependency previous, int previousIndex, Dependency current, int currentIndex) {
+        return new Violation(Kind.ORDER, section, Objects.requireNonNull(rule, "rule cannot be null"),
+                             previous, previousIndex, current, currentIndex, null, null, null, false);
+    }
+
+    /**
+     * Creates a violation for a group that comes after a group it should come before.
+     *
+     * @param section name of the validated section, may be null
+     * @param groupingRule rule that forms the groups
+     * @param previousGroup key of the group that comes first in the section
+     * @param previous first dependency of the previous group run
+     * @param previousIndex index of previous in the section
+     * @param currentGroup key of the group that should come before previousGroup
+     * @param current first dependency of the misplaced group run
+     * @param currentIndex index of current in the section
+     * @return new violation
+     */
+    public static Violation groupOrder(String section, SortOrder groupingRule,
+                                       String previousGroup, Dependency previous, int previousIndex,
+                                       String currentGroup, Dependency current, int currentIndex) {
+        return new Violation(Kind.GROUP_ORDER, section, groupingRule,
+                             previous, previousIndex, current, currentIndex, previousGroup, currentGroup, null, false);
+    }
+
+    /**
+     * Creates a violation for a dependency that has to be moved.
+     * The target of the move is given by another dependency that stays in place.
+     *
+     * @param section name of the validated section, may be null
+     * @param rule rule that is violated
+     * @param dependency dependency that has to be moved
+     * @param index index of dependency in the section
+     * @param target dependency that stays in place
+     * @param targetIndex index of target in the section
+     * @param before true if dependency should be moved before target, false for after
+     * @return new violation
+     */
+    public static Violation move(String section, SortOrder rule, Dependency dependency, int index,
+                                 Dependency target, int targetIndex, boolean before) {
+        return new Violation(Kind.MOVE, section, Objects.requireNonNull(rule, "rule cannot be null"),
+                             target, targetIndex, dependency, index, null, null, null, before);
+    }
+
+    /**
+     * Creates a violation that is only known by its message.
+     *
+     * @param section name of the validated section, may be null
+     * @param message error message
+     * @return new violation
+     */
+    public static Violation message(String section, String message) {
+        return message(section, message, null);
+    }
+
+    /**
+     * Creates a violation that is only known by its message and source location,
+     * for example read back from a cache.
+     *
+     * @param section name of the section, may be null
+     * @param message error message
+     * @param location source location of the violation, may be null
+     * @return new violation
+     */
+    public static Violation message(String section, String message, InputLocation location) {
+        return new Violation(Kind.MESSAGE, section, null, null, -1, null, -1, null, null,
+                             Objects.requireNonNull(message, "message cannot be null"), false, location);
+    }
+
+    /**
+     * Returns the error message of this violation, formatting it on each call.
+     *
+     * @return error message
+     */
+    public String getMessage() {
+        switch (kind) {
+            case ORDER:
+                return rule.formatViolation(previous, current);
+            case GROUP_ORDER:
+                return String.format("Group '%s' should come before group '%s'", currentGroup, previousGroup);
+            case MOVE:
+                return String.format("Dependency %s must be moved %s %s",
+                                     rule.formatDependencyForError(current),
+                                     before ? "before" : "after",
+                                     rule.formatDependencyForError(previous));
+            default:
+                return message;
+        }
+    }
+
+    /**
+     * Returns the kind of violation.
+     *
+     * @return kind of violation
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the name of the section the violation was found in.
+     *
+     * @return section name, or null if not known
+     */
+    public String getSection() {
+        return section;
+    }
+
+    /**
+     * Returns the violated rule.
+     *
+     * @return SortOrder, or null for {@link Kind#MESSAGE} violations
+     */
+    public SortOrder getRule() {
+        return rule;
+    }
+
+    /**
+     * Returns the dependency that comes first in the section, or the target for
+     * {@link Kind#MOVE} violations.
+     *
+     * @return previous dependency, or null for {@link Kind#MESSAGE} violations
+     */
+    public Dependency getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Returns the index of the previous dependency in the section.
+     *
+     * @return index, or -1 if not known
+     */
+    public int getPreviousIndex() {
+        return previousIndex;
+    }
+
+    /**
+     * Returns the dependency that should come before the previous dependency, or the
+     * dependency to move for {@link Kind#MOVE} violations.
+     *
+     * @return current dependency, or null for {@link Kind#MESSAGE} violations
+     */
+    public Dependency getCurrent() {
+        return current;
+    }
+
+    /**
+     * Returns the index of the current dependency in the section.
+     *
+     * @return index, or -1 if not known
+     */
+    public int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    /**
+     * Returns if the current dependency should be moved before the previous dependency
+     * for {@link Kind#MOVE} violations. For these violations the previous dependency is
+     * the target of the move.
+     *
+     * @return true to move before the target, false to move after it or for other kinds
+     */
+    public boolean isBefore() {
+        return before;
+    }
+
+    /**
+     * Returns the key of the group that comes first for {@link Kind#GROUP_ORDER} violations.
+     *
+     * @return group key, or null for other kinds
+     */
+    public String getPreviousGroup() {
+        return previousGroup;
+    }
+
+    /**
+     * Returns the key of the misplaced group for {@link Kind#GROUP_ORDER} violations.
+     *
+     * @return group key, or null for other kinds
+     */
+    public String getCurrentGroup() {
+        return currentGroup;
+    }
+
+    /**
+     * Returns the source location of the violation, the location of the current dependency
+     * (the dependency to move) as recorded by Maven when the model was read.
+     *
+     * @return source location, or null if the model was read without location tracking
+     */
+    public InputLocation getLocation() {
+        if (current != null) {
+            return current.getLocation("");
+        }
+        return location;
+    }
+
+    /**
+     * Returns the source location of the violation as "file:line:column", the format used
+     * by compilers and understood by IDE problem matchers. Parts that are not known are left out.
+     *
+     * @return formatted source location, or null if the location is not known
+     */
+    public String formatLocation() {
+        InputLocation inputLocation = getLocation();
+        if (inputLocation == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        if (inputLocation.getSource() != null && inputLocation.getSource().getLocation() != null) {
+            builder.append(inputLocation.getSource().getLocation());
+        }
+        if (inputLocation.getLineNumber() > 0) {
+            builder.append(builder.length() > 0 ? ":" : "").append(inputLocation.getLineNumber());
+            if (inputLocation.getColumnNumber() > 0) {
+                builder.append(':').append(inputLocation.getColumnNumber());
+            }
+        }
+        return builder.length() > 0 ? builder.toString() : null;
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
@@ -0,0 +1,59 @@
+package se.payerl.sort;
+
+import java.util.Locale;
+
+/**
+ * How a violation is rendered in the message of a failed validation.
+ */
+public enum ViolationFormat {
+    /**
+     * Only the error message, for example "Dependency a:a must be before b:b".
+     */
+    DEFAULT {
+        @Override
+        public String format(Violation violation) {
+            return violation.getMessage();
+        }
+    },
+    /**
+     * The source location followed by the error message, the way compilers report errors:
+     * "/path/pom.xml:12:9: error: Dependency a:a must be before b:b". IDE problem matchers
+     * and CI annotations pick these lines up without further configuration. The location is
+     * left out when the model was read without location tracking.
+     */
+    COMPILER {
+        @Override
+        public String format(Violation violation) {
+            String location = violation.formatLocation();
+            return (location != null ? location + ": " : "") + "error: " + violation.getMessage();
+        }
+    };
+
+    /**
+     * Renders a violation as a single line.
+     *
+     * @param violation violation to render
+     * @return rendered violation
+     */
+    public abstract String format(Violation violation);
+
+    /**
+     * Returns the format with a name, ignoring case.
+     *
+     * @param value name of the format, for example "compiler"
+     * @return format, DEFAULT if value is null or empty
+     * @throws IllegalArgumentException if there is no format with the name
+     */
+    public static ViolationFormat fromValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return DEFAULT;
+        }
+        String name = value.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+        for (ViolationFormat format : values()) {
+            if (format.name().equals(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown message format '" + value + "', expected default or compiler");
+    }
+}
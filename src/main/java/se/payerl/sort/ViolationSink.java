@@ -0,0 +1,32 @@
+package se.payerl.sort;
+
+/**
+ * Receives the violations found while validating dependencies.
+ * <p>
+ * Violations are delivered in reporting order. Implementations decide how and if
+ * they are rendered, for example collected for an exception message or written
+ * to a report file.
+ * <p>
+ * A sink can limit how many violations it accepts. Validation stops as soon as
+ * {@link #remainingCapacity()} reaches zero.
+ */
+@FunctionalInterface
+public interface ViolationSink {
+
+    /**
+     * Accepts a violation.
+     *
+     * @param violation violation found during validation
+     */
+    void accept(Violation violation);
+
+    /**
+     * Returns how many more violations this sink accepts.
+     * The default implementation accepts any number of violations.
+     *
+     * @return number of violations still accepted, 0 or less to stop the validation
+     */
+    default int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -1,22 +1,33 @@
 package se.payerl.sort.node;
 
 import org.apache.maven.model.Dependency;
+import se.payerl.jfr.RuleEvent;
+import se.payerl.sort.RankedSortOrder;
 import se.payerl.sort.SortNode;
 import se.payerl.sort.SortOrder;
+import se.payerl.sort.ValidationContext;
+import se.payerl.sort.Violation;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * SortNode that groups dependencies according to a SortOrder rule and applies
  * child rules to each group.
  * <p>
  * Example: Group by scope and within each scope apply alphabetical sorting.
+ * <p>
+ * Groups are formed by partitioning index ranges of the {@link ValidationContext} in
+ * place, so no group lists are copied at any level of the hierarchy.
+ * <p>
+ * When the context has a parallel threshold, groups of at least that size are validated
+ * as fork-join tasks, see {@link ValidationContext#setParallelThreshold(int)}.
  */
 public class GroupNode extends SortNode {
     private final SortOrder groupingRule;
     private final SortNode childRule;
     private final List<String> groupOrder;
+    private final Map<String, Integer> rankByGroup;
     
     /**
      * Creates a GroupNode with specified grouping rule and child rule.
@@ -29,6 +40,7 @@ public class GroupNode extends SortNode {
         this.groupingRule = Objects.requireNonNull(groupingRule, "groupingRule cannot be null");
         this.childRule = Objects.requireNonNull(childRule, "childRule cannot be null");
         this.groupOrder = new ArrayList<>(Objects.requireNonNull(groupOrder, "groupOrder cannot be null"));
+        this.rankByGroup = createRanks(this.groupOrder);
     }
     
     /**
@@ -42,31 +54,235 @@ public class GroupNode extends SortNode {
         this.groupingRule = Objects.requireNonNull(groupingRule, "groupingRule cannot be null");
         this.childRule = Objects.requireNonNull(childRule, "childRule cannot be null");
         this.groupOrder = new ArrayList<>();
+        this.rankByGroup = Collections.emptyMap();
     }
 
     @Override
     public List<String> validateDependencies(List<Dependency> dependencies) {
-        requireNonNull(dependencies, "dependencies");
+        return validateAsRange(dependencies);
+    }
+
+    @Override
+    public void validateRange(ValidationContext context, int from, int to) {
+        if (to - from <= 1) {
+            return;
+        }
+        Object event = RuleEvent.GROUP_LEVEL.begin();
+        validateGroups(context, from, to);
+        if (event != null && RuleEvent.end(event)) {
+            RuleEvent.commit(event, context.getModule(), context.getSection(), groupingRule.getDescription(), to - from);
+        }
+    }
+
+    private void validateGroups(ValidationContext context, int from, int to) {
+        // Group dependencies according to the grouping rule, extracting each key once.
+        // The order between groups is checked in the same pass: every time a new run of a
+        // group starts, its rank is compared to the previous ranked run, which also reports
+        // groups that are split by another group (A, B, A).
+        GroupTable groups = new GroupTable();
+        int[] groupIds = context.groupIds();
+        int currentId = -1;
+        int previousRankedId = -1;
+        int previousRankedPosition = -1;
+        for (int position = from; position < to; position++) {
+            if (!context.isApplicable(groupingRule, position)) {
+                groupIds[position] = -1;
+                continue;
+            }
+            int id = groups.idOf(context, position);
+            groupIds[position] = id;
+            
+            if (id != currentId) {
+                currentId = id;
+                int rank = groups.orderRank(id);
+                if (rank != -1) { // Group exists in group order
+                    if (previousRankedId != -1 && rank < groups.orderRank(previousRankedId)) {
+                        context.report(Violation.groupOrder(context.getSection(), groupingRule,
+                                groups.key(previousRankedId), context.get(previousRankedPosition),
+                                context.indexAt(previousRankedPosition),
+                                groups.key(id), context.get(position), context.indexAt(position)));
+                        if (context.isStopped()) {
+                            return;
+                        }
+                    }
+                    previousRankedId = id;
+                    previousRankedPosition = position;
+                }
+            }
+        }
         
-        if (dependencies.size() <= 1) {
-            return new ArrayList<>();
+        // Make every group a contiguous range and validate the order within each group
+        int[] bounds = context.partition(from, to, groups.size());
+        if (hasParallelGroup(context, bounds, groups.size())) {
+            validateGroupsInParallel(context, bounds, groups.size());
+            return;
+        }
+        for (int group = 0; group < groups.size() && !context.isStopped(); group++) {
+            childRule.validateRange(context, bounds[group], bounds[group + 1]);
+        }
+    }
+    
+    /**
+     * Validates the groups of at least the parallel threshold as fork-join tasks on forks of the
+     * context while the smaller groups are validated on this thread. The violations of every group
+     * are reported in group order and up to the capacity of the context, which gives the same
+     * result as serial validation.
+     */
+    private void validateGroupsInParallel(ValidationContext context, int[] bounds, int groupCount) {
+        List<ForkJoinTask<ValidationContext>> tasks = new ArrayList<>(groupCount);
+        for (int group = 0; group < groupCount; group++) {
+            ForkJoinTask<ValidationContext> task = null;
+            if (bounds[group + 1] - bounds[group] >= context.getParallelThreshold()) {
+                ValidationContext fork = context.fork(bounds[group], bounds[group + 1]);
+                task = ForkJoinTask.adapt(() -> {
+                    childRule.validateRange(fork, 0, fork.size());
+                    return fork;
+                }).fork();
+            }
+            tasks.add(task);
+        }
+        for (int group = 0; group < groupCount; group++) {
+            ForkJoinTask<ValidationContext> task = tasks.get(group);
+            if (context.isStopped()) {
+                if (task != null) {
+                    task.cancel(false);
+                }
+                continue;
+            }
+            if (task == null) {
+                childRule.validateRange(context, bounds[group], bounds[group + 1]);
+                continue;
+            }
+            for (Violation violation : task.join().getViolations()) {
+                if (context.isStopped()) {
+                    break;
+                }
+                context.report(violation);
+            }
+        }
+    }
+    
+    private static boolean hasParallelGroup(ValidationContext context, int[] bounds, int groupCount) {
+        int threshold = context.getParallelThreshold();
+        if (threshold <= 0 || groupCount < 2) {
+            return false;
+        }
+        for (int group = 0; group < groupCount; group++) {
+            if (bounds[group + 1] - bounds[group] >= threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Counts the pairs of dependencies whose groups are in wrong group order, plus the
+     * inversions within every group counted by the child rule.
+     */
+    @Override
+    public long countInversions(ValidationContext context, int from, int to) {
+        if (to - from <= 1) {
+            return 0;
         }
         
-        List<String> errors = new ArrayList<>();
+        GroupTable groups = new GroupTable();
+        int[] groupIds = context.groupIds();
+        int[] rankedPositions = context.positions();
+        int rankedCount = 0;
+        for (int position = from; position < to; position++) {
+            if (!context.isApplicable(groupingRule, position)) {
+                groupIds[position] = -1;
+                continue;
+            }
+            int id = groups.idOf(context, position);
+            groupIds[position] = id;
+            if (groups.orderRank(id) != -1) {
+                rankedPositions[rankedCount++] = position;
+            }
+        }
         
-        // Group dependencies according to the grouping rule
-        Map<String, List<Dependency>> groups = groupDependencies(dependencies);
+        // The group ids stay in place until the partition, so the ranks are looked up through them
+        long inversions = Inversions.count(rankedPositions, rankedCount, context.buffer(),
+                (first, second) -> Integer.compare(groups.orderRank(groupIds[first]),
+                                                   groups.orderRank(groupIds[second])));
+        int groupCount = groups.size();
+        int[] bounds = context.partition(from, to, groupCount);
+        boolean parallel = hasParallelGroup(context, bounds, groupCount);
+        List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+        for (int group = 0; group < groupCount; group++) {
+            if (parallel && bounds[group + 1] - bounds[group] >= context.getParallelThreshold()) {
+                ValidationContext fork = context.fork(bounds[group], bounds[group + 1]);
+                tasks.add(ForkJoinTask.adapt(() -> childRule.countInversions(fork, 0, fork.size())).fork());
+            } else {
+                inversions += childRule.countInversions(context, bounds[group], bounds[group + 1]);
+            }
+        }
+        for (ForkJoinTask<Long> task : tasks) {
+            inversions += task.join();
+        }
+        return inversions;
+    }
+    
+    /**
+     * Places the groups in group order, followed by groups that are not part of the group
+     * order sorted by the grouping rule, and sorts every group with the child rule.
+     * Dependencies the grouping rule is not applicable to are placed last.
+     */
+    @Override
+    public List<Dependency> sort(List<Dependency> dependencies) {
+        requireNonNull(dependencies, "dependencies");
+        Map<String, List<Dependency>> groups = new LinkedHashMap<>();
+        List<Dependency> ungrouped = new ArrayList<>();
+        for (Dependency dependency : dependencies) {
+            if (groupingRule.isApplicable(dependency)) {
+                groups.computeIfAbsent(groupingRule.extractSortKey(dependency), key -> new ArrayList<>()).add(dependency);
+            } else {
+                ungrouped.add(dependency);
+            }
+        }
         
-        // Validate the order between groups
-        errors.addAll(validateGroupOrder(dependencies, groups));
+        // Rank and sort key of every group are computed once, not on every comparison
+        List<GroupEntry> orderedGroups = new ArrayList<>(groups.size());
+        groups.forEach((key, members) -> orderedGroups.add(new GroupEntry(
+                rankByGroup.getOrDefault(key, Integer.MAX_VALUE), groupingRule.createSortKey(members.get(0)), members)));
+        orderedGroups.sort((first, second) -> {
+            if (first.rank != second.rank) {
+                return Integer.compare(first.rank, second.rank);
+            }
+            return groupingRule.compareSortKeys(first.sortKey, second.sortKey);
+        });
         
-        // Validate the order within each group
-        for (Map.Entry<String, List<Dependency>> entry : groups.entrySet()) {
-            List<String> groupErrors = childRule.validateDependencies(entry.getValue());
-            errors.addAll(groupErrors);
+        List<Dependency> sorted = new ArrayList<>(dependencies.size());
+        for (GroupEntry group : orderedGroups) {
+            sorted.addAll(childRule.sort(group.members));
         }
-        
-        return errors;
+        sorted.addAll(ungrouped);
+        return sorted;
+    }
+    
+    /**
+     * Compares by group order, then by the grouping rule and the group key so that every group
+     * stays contiguous, and within a group by the child rule. Dependencies the grouping rule is
+     * not applicable to come last.
+     */
+    @Override
+    public Comparator<Dependency> comparator() {
+        Comparator<Dependency> byGroup = (first, second) -> {
+            boolean firstApplicable = groupingRule.isApplicable(first);
+            boolean secondApplicable = groupingRule.isApplicable(second);
+            if (!firstApplicable || !secondApplicable) {
+                return Boolean.compare(secondApplicable, firstApplicable);
+            }
+            String firstKey = groupingRule.extractSortKey(first);
+            String secondKey = groupingRule.extractSortKey(second);
+            int comparison = Integer.compare(rankByGroup.getOrDefault(firstKey, Integer.MAX_VALUE),
+                                             rankByGroup.getOrDefault(secondKey, Integer.MAX_VALUE));
+            if (comparison == 0) {
+                comparison = groupingRule.compare(first, second);
+            }
+            return comparison != 0 ? comparison : firstKey.compareTo(secondKey);
+        };
+        return byGroup.thenComparing(childRule.comparator());
     }
     
     @Override
@@ -76,56 +292,108 @@ public class GroupNode extends SortNode {
                            childRule.getDescription());
     }
     
-    private Map<String, List<Dependency>> groupDependencies(List<Dependency> dependencies) {
-        Map<String, List<Dependency>> groups = new LinkedHashMap<>();
-        
-        for (Dependency dependency : dependencies) {
-            if (groupingRule.isApplicable(dependency)) {
-                String groupKey = groupingRule.extractSortKey(dependency);
-                groups.computeIfAbsent(groupKey, k -> new ArrayList<>()).add(dependency);
-            }
-        }
-        
-        return groups;
+    /**
+     * Returns the order the groups should be in.
+     *
+     * @return unmodifiable list of group keys, empty if any group order is accepted
+     */
+    public List<String> getGroupOrder() {
+        return Collections.unmodifiableList(groupOrder);
     }
     
-    private List<String> validateGroupOrder(List<Dependency> dependencies, 
-                                          Map<String, List<Dependency>> groups) {
-        List<String> errors = new ArrayList<>();
-        
-        if (groupOrder.isEmpty()) {
-            // No specific group order specified, accept any order
-            return errors;
-        }
-        
-        // Find first dependency in each group to check order
-        Map<String, Integer> firstOccurrence = new HashMap<>();
-        for (int i = 0; i < dependencies.size(); i++) {
-            Dependency dep = dependencies.get(i);
-            if (groupingRule.isApplicable(dep)) {
-                String groupKey = groupingRule.extractSortKey(dep);
-                firstOccurrence.putIfAbsent(groupKey, i);
+    /**
+     * Groups found in one range, numbered in order of first appearance. A grouping rule that
+     * implements {@link RankedSortOrder} is looked up by its rank in a primitive array, other
+     * grouping rules by their String key. The key of a ranked group is only extracted for the
+     * first dependency of the group.
+     */
+    private final class GroupTable {
+        private final List<String> keys = new ArrayList<>();
+        // Position of every group in the group order by group id, -1 if it is not part of it
+        private int[] orderRanks = new int[8];
+        private final int[] idByRank;
+        private final Map<String, Integer> idByKey;
+
+        GroupTable() {
+            if (groupingRule instanceof RankedSortOrder) {
+                idByRank = new int[((RankedSortOrder) groupingRule).rankCount()];
+                Arrays.fill(idByRank, -1);
+                idByKey = null;
+            } else {
+                idByRank = null;
+                idByKey = new HashMap<>();
             }
         }
-        
-        // Check that groups follow specified order
-        String previousGroup = null;
-        int previousGroupOrderIndex = -1;
-        
-        for (Map.Entry<String, Integer> entry : firstOccurrence.entrySet()) {
-            String currentGroup = entry.getKey();
-            int currentGroupOrderIndex = groupOrder.indexOf(currentGroup);
-            
-            if (currentGroupOrderIndex != -1) { // Group exists in group order
-                if (previousGroupOrderIndex != -1 && currentGroupOrderIndex < previousGroupOrderIndex) {
-                    errors.add(String.format("Group '%s' should come before group '%s'", 
-                                            currentGroup, previousGroup));
+
+        /**
+         * Returns the id of the group of an applicable dependency, adding the group if it is new.
+         */
+        int idOf(ValidationContext context, int position) {
+            if (idByRank != null) {
+                int rank = context.rank(groupingRule, position);
+                int id = idByRank[rank];
+                if (id == -1) {
+                    id = add(context.extractSortKey(groupingRule, position));
+                    idByRank[rank] = id;
                 }
-                previousGroup = currentGroup;
-                previousGroupOrderIndex = currentGroupOrderIndex;
+                return id;
+            }
+            String key = context.extractSortKey(groupingRule, position);
+            Integer id = idByKey.get(key);
+            if (id == null) {
+                id = add(key);
+                idByKey.put(key, id);
             }
+            return id;
         }
-        
-        return errors;
+
+        private int add(String key) {
+            int id = keys.size();
+            keys.add(key);
+            if (id == orderRanks.length) {
+                orderRanks = Arrays.copyOf(orderRanks, id * 2);
+            }
+            orderRanks[id] = rankByGroup.getOrDefault(key, -1);
+            return id;
+        }
+
+        int size() {
+            return keys.size();
+        }
+
+        String key(int id) {
+            return keys.get(id);
+        }
+
+        /**
+         * Returns the position of a group in the group order, -1 if it is not part of it.
+         */
+        int orderRank(int id) {
+            return orderRanks[id];
+        }
+    }
+    
+    /**
+     * Group with its rank in the group order and the sort key of its first dependency.
+     */
+    private static final class GroupEntry {
+        final int rank;
+        final Object sortKey;
+        final List<Dependency> members;
+
+        GroupEntry(int rank, Object sortKey, List<Dependency> members) {
+            this.rank = rank;
+            this.sortKey = sortKey;
+            this.members = members;
+        }
+    }
+    
+    private static Map<String, Integer> createRanks(List<String> groupOrder) {
+        Map<String, Integer> ranks = new HashMap<>();
+        for (int i = 0; i < groupOrder.size(); i++) {
+            // Same semantics as indexOf: first position wins
+            ranks.putIfAbsent(groupOrder.get(i), i);
+        }
+        return ranks;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package se.payerl.sort.node;
+
+import se.payerl.sort.SortOrder;
+import se.payerl.sort.ValidationContext;
+
+/**
+ * Counts inversions, pairs of elements in wrong order, with a merge sort in O(n log n).
+ * The number of inversions is the disorder score of a list: 0 for a sorted list and
+ * n(n-1)/2 for a reversed list of distinct elements.
+ */
+final class Inversions {
+
+    /**
+     * Compares two positions of a validation context.
+     */
+    @FunctionalInterface
+    interface PositionComparator {
+        int compare(int firstPosition, int secondPosition);
+    }
+
+    private Inversions() { }
+
+    /**
+     * Counts the pairs of applicable dependencies at positions {@code from..to} that a SortOrder
+     * orders the other way around, comparing the sort keys cached in the context.
+     * Equal dependencies are not counted. The scratch arrays of the context are used, so
+     * nothing is allocated per dependency.
+     *
+     * @param sortOrder rule giving the order
+     * @param context validation context holding the dependencies
+     * @param from first position of the range (inclusive)
+     * @param to last position of the range (exclusive)
+     * @return number of inversions
+     */
+    static long count(SortOrder sortOrder, ValidationContext context, int from, int to) {
+        int[] positions = context.positions();
+        int count = 0;
+        for (int position = from; position < to; position++) {
+            if (context.isApplicable(sortOrder, position)) {
+                positions[count++] = position;
+            }
+        }
+        return count(positions, count, context.buffer(),
+                (first, second) -> context.compare(sortOrder, first, second));
+    }
+
+    /**
+     * Counts the pairs of positions that a comparator orders the other way around.
+     * The array is sorted by the comparator when the method returns.
+     *
+     * @param positions positions in their current order
+     * @param length number of positions to use
+     * @param buffer scratch array of at least {@code length} slots
+     * @param comparator order of the positions
+     * @return number of inversions
+     */
+    static long count(int[] positions, int length, int[] buffer, PositionComparator comparator) {
+        if (length < 2) {
+            return 0;
+        }
+        return sortAndCount(positions, buffer, 0, length, comparator);
+    }
+
+    /**
+     * Sorts positions stably by a comparator, with the merge sort that counts inversions.
+     *
+     * @param positions positions to sort
+     * @param length number of positions to sort
+     * @param buffer scratch array of at least {@code length} slots
+     * @param comparator order of the positions
+     */
+    static void sort(int[] positions, int length, int[] buffer, PositionComparator comparator) {
+        count(positions, length, buffer, comparator);
+    }
+
+    private static long sortAndCount(int[] positions, int[] buffer, int from, int to, PositionComparator comparator) {
+        if (to - from < 2) {
+            return 0;
+        }
+        int middle = (from + to) >>> 1;
+        long inversions = sortAndCount(positions, buffer, from, middle, comparator)
+                        + sortAndCount(positions, buffer, middle, to, comparator);
+        int left = from;
+        int right = middle;
+        int next = from;
+        while (left < middle && right < to) {
+            if (comparator.compare(positions[left], positions[right]) <= 0) {
+                buffer[next++] = positions[left++];
+            } else {
+                // Every remaining element of the left half is after positions[right]
+                inversions += middle - left;
+                buffer[next++] = positions[right++];
+            }
+        }
+        System.arraycopy(positions, left, buffer, next, middle - left);
+        next += middle - left;
+        System.arraycopy(positions, right, buffer, next, to - right);
+        System.arraycopy(buffer, from, positions, from, to - from);
+        return inversions;
+    }
+}
@@ -0,0 +1,80 @@
+package se.payerl.sort.node;
+
+import org.apache.maven.model.Dependency;
+import se.payerl.sort.RankedSortOrder;
+import se.payerl.sort.SortOrder;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dependency decorated with its sort key, so that sorting computes every key once
+ * instead of once per comparison.
+ */
+final class KeyedDependency {
+    final Object key;
+    final Dependency dependency;
+
+    private KeyedDependency(Object key, Dependency dependency) {
+        this.key = key;
+        this.dependency = dependency;
+    }
+
+    /**
+     * Stably sorts the dependencies a SortOrder is applicable to in place. Dependencies the
+     * SortOrder is not applicable to keep their positions. SortOrders that implement
+     * {@link RankedSortOrder} are sorted by a counting sort on their ranks.
+     *
+     * @param sortOrder rule giving the order
+     * @param dependencies dependencies to sort
+     */
+    static void sortApplicable(SortOrder sortOrder, List<Dependency> dependencies) {
+        if (sortOrder instanceof RankedSortOrder) {
+            sortByRank(sortOrder, (RankedSortOrder) sortOrder, dependencies);
+            return;
+        }
+        int size = dependencies.size();
+        KeyedDependency[] applicable = new KeyedDependency[size];
+        int[] positions = new int[size];
+        int count = 0;
+        for (int position = 0; position < size; position++) {
+            Dependency dependency = dependencies.get(position);
+            if (sortOrder.isApplicable(dependency)) {
+                applicable[count] = new KeyedDependency(sortOrder.createSortKey(dependency), dependency);
+                positions[count++] = position;
+            }
+        }
+        Arrays.sort(applicable, 0, count, (first, second) -> sortOrder.compareSortKeys(first.key, second.key));
+        for (int i = 0; i < count; i++) {
+            dependencies.set(positions[i], applicable[i].dependency);
+        }
+    }
+
+    private static void sortByRank(SortOrder sortOrder, RankedSortOrder ranked, List<Dependency> dependencies) {
+        int size = dependencies.size();
+        int[] positions = new int[size];
+        int[] ranks = new int[size];
+        // counts[rank + 1] counts the rank, turned into the first slot of every rank below
+        int[] counts = new int[ranked.rankCount() + 1];
+        int count = 0;
+        for (int position = 0; position < size; position++) {
+            Dependency dependency = dependencies.get(position);
+            if (sortOrder.isApplicable(dependency)) {
+                int rank = ranked.rank(dependency);
+                ranks[count] = rank;
+                positions[count++] = position;
+                counts[rank + 1]++;
+            }
+        }
+        for (int rank = 1; rank < counts.length; rank++) {
+            counts[rank] += counts[rank - 1];
+        }
+        Dependency[] sorted = new Dependency[count];
+        for (int i = 0; i < count; i++) {
+            sorted[counts[ranks[i]]++] = dependencies.get(positions[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            dependencies.set(positions[i], sorted[i]);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package se.payerl.sort.node;
+
+import org.apache.maven.model.Dependency;
+import se.payerl.sort.SortOrder;
+import se.payerl.sort.ValidationContext;
+import se.payerl.sort.Violation;
+
+/**
+ * Reports the smallest set of dependencies that have to be moved to satisfy a SortOrder.
+ * <p>
+ * The dependencies that can stay in place form a longest non-decreasing subsequence of the
+ * applicable dependencies, compared by the sort keys cached in the {@link ValidationContext}.
+ * It is found with patience sorting in O(n log n). Every other dependency is reported once, together with
+ * the dependency it should follow in the sorted order (or precede, if it sorts first).
+ * Moves are reported in sorted order, so applying them one after another sorts the list.
+ */
+final class MinimalMoves {
+
+    private MinimalMoves() { }
+
+    /**
+     * Validates the positions {@code from..to} of a context and reports the dependencies to move.
+     * Lists that are already in order are detected without allocating.
+     *
+     * @param sortOrder rule to validate
+     * @param context validation context holding the dependencies
+     * @param from first position of the range (inclusive)
+     * @param to last position of the range (exclusive)
+     */
+    static void validate(SortOrder sortOrder, ValidationContext context, int from, int to) {
+        if (isInOrder(sortOrder, context, from, to)) {
+            return;
+        }
+
+        int[] positions = new int[to - from];
+        int count = 0;
+        for (int position = from; position < to; position++) {
+            if (context.isApplicable(sortOrder, position)) {
+                positions[count++] = position;
+            }
+        }
+
+        // tails[k] is the element ending the best subsequence of length k + 1 found so far
+        int[] tails = new int[count];
+        int[] predecessors = new int[count];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            int k = upperBound(sortOrder, context, positions, tails, length, positions[i]);
+            predecessors[i] = k > 0 ? tails[k - 1] : -1;
+            tails[k] = i;
+            if (k == length) {
+                length++;
+            }
+        }
+
+        boolean[] kept = new boolean[count];
+        for (int i = tails[length - 1]; i >= 0; i = predecessors[i]) {
+            kept[i] = true;
+        }
+
+        // The kept elements keep their relative order in a stable sort
+        int[] sorted = context.positions();
+        System.arraycopy(positions, 0, sorted, 0, count);
+        Inversions.sort(sorted, count, context.buffer(), (first, second) -> context.compare(sortOrder, first, second));
+        int[] elementAt = new int[to - from];
+        for (int i = 0; i < count; i++) {
+            elementAt[positions[i] - from] = i;
+        }
+
+        for (int j = 0; j < count; j++) {
+            int position = sorted[j];
+            if (kept[elementAt[position - from]]) {
+                continue;
+            }
+            boolean before = j == 0;
+            int target = sorted[before ? 1 : j - 1];
+            context.report(Violation.move(context.getSection(), sortOrder,
+                                          context.get(position), context.indexAt(position),
+                                          context.get(target), context.indexAt(target), before));
+            if (context.isStopped()) {
+                return;
+            }
+        }
+    }
+
+    private static boolean isInOrder(SortOrder sortOrder, ValidationContext context, int from, int to) {
+        int previousPosition = -1;
+        for (int position = from; position < to; position++) {
+            if (!context.isApplicable(sortOrder, position)) {
+                continue;
+            }
+            if (previousPosition != -1 && !context.isInOrder(sortOrder, previousPosition, position)) {
+                return false;
+            }
+            previousPosition = position;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first of {@code tails[0..length)} that sorts after the dependency at a position,
+     * or length if there is none. Equal dependencies are passed, which keeps the
+     * subsequence non-decreasing and the order of equal dependencies stable.
+     */
+    private static int upperBound(SortOrder sortOrder, ValidationContext context, int[] positions,
+                                  int[] tails, int length, int position) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (context.compare(sortOrder, positions[tails[middle]], position) > 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,199 @@
+package se.payerl.sort.node;
+
+import org.apache.maven.model.Dependency;
+import se.payerl.sort.ReportMode;
+import se.payerl.sort.SortNode;
+import se.payerl.sort.SortOrder;
+import se.payerl.sort.ValidationContext;
+import se.payerl.sort.Violation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * SortNode that applies several SortOrder rules independently to the same list.
+ * <p>
+ * This is the simple (non-group) sorting mode: every rule is checked against all
+ * dependencies it is applicable to, and the errors are reported rule by rule in the
+ * order the rules were configured. All rules are evaluated together in a single pass
+ * over the list without copying it.
+ * <p>
+ * When the sink of the context only accepts a limited number of violations, rules whose
+ * violations can no longer be reported are dropped from the pass, and the pass ends as
+ * soon as the first rule alone has filled the limit.
+ */
+public class SequenceNode extends SortNode {
+    private final List<SortOrder> sortOrders;
+    private final SortOrder[] rules;
+    private final ReportMode reportMode;
+
+    /**
+     * Creates a SequenceNode with specified sorting rules that reports every adjacent pair in wrong order.
+     *
+     * @param sortOrders The sorting rules to apply, in reporting order
+     */
+    public SequenceNode(List<SortOrder> sortOrders) {
+        this(sortOrders, ReportMode.ADJACENT);
+    }
+
+    /**
+     * Creates a SequenceNode with specified sorting rules and report mode.
+     *
+     * @param sortOrders The sorting rules to apply, in reporting order
+     * @param reportMode How violations are reported
+     */
+    public SequenceNode(List<SortOrder> sortOrders, ReportMode reportMode) {
+        Objects.requireNonNull(sortOrders, "sortOrders cannot be null");
+        this.sortOrders = Collections.unmodifiableList(new ArrayList<>(sortOrders));
+        this.rules = this.sortOrders.toArray(new SortOrder[0]);
+        this.reportMode = Objects.requireNonNull(reportMode, "reportMode cannot be null");
+    }
+
+    @Override
+    public List<String> validateDependencies(List<Dependency> dependencies) {
+        return validateAsRange(dependencies);
+    }
+
+    @Override
+    public void validateRange(ValidationContext context, int from, int to) {
+        if (reportMode == ReportMode.MINIMAL_MOVES) {
+            // Moves of one rule are computed over the whole range, so rules are analysed one after another
+            for (int rule = 0; rule < rules.length && !context.isStopped(); rule++) {
+                MinimalMoves.validate(rules[rule], context, from, to);
+            }
+            return;
+        }
+        // Single pass over the range, remembering the last applicable position of every rule
+        int[] previousPositions = new int[rules.length];
+        Arrays.fill(previousPositions, -1);
+        List<Violation>[] violationsByRule = newViolationLists(rules.length);
+        int capacity = context.remainingCapacity();
+        int activeRules = rules.length;
+
+        for (int position = from; position < to; position++) {
+            for (int rule = 0; rule < activeRules; rule++) {
+                SortOrder sortOrder = rules[rule];
+                if (!context.isApplicable(sortOrder, position)) {
+                    continue;
+                }
+                int previousPosition = previousPositions[rule];
+                if (previousPosition != -1 && !context.isInOrder(sortOrder, previousPosition, position)) {
+                    if (violationsByRule[rule] == null) {
+                        violationsByRule[rule] = new ArrayList<>();
+                    }
+                    violationsByRule[rule].add(Violation.order(context.getSection(), sortOrder,
+                                                               context.get(previousPosition), context.indexAt(previousPosition),
+                                                               context.get(position), context.indexAt(position)));
+                    activeRules = countActiveRules(violationsByRule, activeRules, capacity);
+                }
+                previousPositions[rule] = position;
+            }
+            if (activeRules == 1 && violationsByRule[0] != null && violationsByRule[0].size() >= capacity) {
+                break;
+            }
+        }
+
+        // Report rule by rule in configured order
+        for (List<Violation> ruleViolations : violationsByRule) {
+            if (ruleViolations == null) {
+                continue;
+            }
+            for (Violation violation : ruleViolations) {
+                if (context.isStopped()) {
+                    return;
+                }
+                context.report(violation);
+            }
+        }
+    }
+
+    /**
+     * Returns how many rules, counted from the first, can still contribute reported violations.
+     * Once the rules before a rule have found as many violations as the capacity, the
+     * violations of that rule and all later rules would never be reported.
+     */
+    private static int countActiveRules(List<Violation>[] violationsByRule, int activeRules, int capacity) {
+        long found = 0;
+        for (int rule = 0; rule < activeRules; rule++) {
+            if (violationsByRule[rule] != null) {
+                found += violationsByRule[rule].size();
+            }
+            if (found >= capacity) {
+                return rule + 1;
+            }
+        }
+        return activeRules;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Violation>[] newViolationLists(int size) {
+        return (List<Violation>[]) new List<?>[size];
+    }
+
+    /**
+     * Counts the inversions of every rule and returns the sum.
+     */
+    @Override
+    public long countInversions(ValidationContext context, int from, int to) {
+        long inversions = 0;
+        for (SortOrder rule : rules) {
+            inversions += Inversions.count(rule, context, from, to);
+        }
+        return inversions;
+    }
+
+    /**
+     * Sorts by every rule, the first rule taking precedence. Since the rules are independent
+     * they can conflict; the first rule is then satisfied and later rules as far as possible.
+     */
+    @Override
+    public List<Dependency> sort(List<Dependency> dependencies) {
+        requireNonNull(dependencies, "dependencies");
+        // Stable sorts from the last rule to the first give the first rule precedence
+        List<Dependency> sorted = new ArrayList<>(dependencies);
+        for (int rule = rules.length - 1; rule >= 0; rule--) {
+            KeyedDependency.sortApplicable(rules[rule], sorted);
+        }
+        return sorted;
+    }
+
+    /**
+     * Compares by every rule in order, the first rule taking precedence like in {@link #sort(List)}.
+     */
+    @Override
+    public Comparator<Dependency> comparator() {
+        Comparator<Dependency> comparator = rules.length == 0 ? (first, second) -> 0 : rules[0].comparator();
+        for (int rule = 1; rule < rules.length; rule++) {
+            comparator = comparator.thenComparing(rules[rule].comparator());
+        }
+        return comparator;
+    }
+
+    @Override
+    public String getDescription() {
+        return sortOrders.stream().map(SortOrder::getDescription).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Returns the SortOrders applied by this node.
+     *
+     * @return unmodifiable list of SortOrders in reporting order
+     */
+    public List<SortOrder> getSortOrders() {
+        return sortOrders;
+    }
+
+    /**
+     * Returns how violations are reported.
+     *
+     * @return report mode of this node
+     */
+    public ReportMode getReportMode() {
+        return reportMode;
+    }
+}
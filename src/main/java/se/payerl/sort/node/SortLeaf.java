@@ -1,57 +1,102 @@
 package se.payerl.sort.node;
 
 import org.apache.maven.model.Dependency;
+import se.payerl.jfr.RuleEvent;
+import se.payerl.sort.ReportMode;
 import se.payerl.sort.SortNode;
 import se.payerl.sort.SortOrder;
+import se.payerl.sort.ValidationContext;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * SortNode that applies a SortOrder directly to a list of dependencies.
  * <p>
  * This is a leaf node in the sorting tree that performs actual sorting validation.
+ * Violations are reported according to a {@link ReportMode}.
  */
 public class SortLeaf extends SortNode {
     private final SortOrder sortOrder;
+    private final ReportMode reportMode;
     
     /**
-     * Creates a SortLeaf with specified sorting rule.
+     * Creates a SortLeaf with specified sorting rule that reports every adjacent pair in wrong order.
      *
      * @param sortOrder The sorting rule to apply
      */
     public SortLeaf(SortOrder sortOrder) {
+        this(sortOrder, ReportMode.ADJACENT);
+    }
+    
+    /**
+     * Creates a SortLeaf with specified sorting rule and report mode.
+     *
+     * @param sortOrder The sorting rule to apply
+     * @param reportMode How violations are reported
+     */
+    public SortLeaf(SortOrder sortOrder, ReportMode reportMode) {
         this.sortOrder = Objects.requireNonNull(sortOrder, "sortOrder cannot be null");
+        this.reportMode = Objects.requireNonNull(reportMode, "reportMode cannot be null");
     }
 
     @Override
     public List<String> validateDependencies(List<Dependency> dependencies) {
-        requireNonNull(dependencies, "dependencies");
-        
-        List<String> errors = new ArrayList<>();
-        
-        if (dependencies.size() <= 1) {
-            return errors;
+        return validateAsRange(dependencies);
+    }
+
+    @Override
+    public void validateRange(ValidationContext context, int from, int to) {
+        Object event = RuleEvent.SORT_LEAF.begin();
+        validateOrder(context, from, to);
+        if (event != null && RuleEvent.end(event)) {
+            RuleEvent.commit(event, context.getModule(), context.getSection(), sortOrder.getDescription(), to - from);
         }
-        
-        // Filter dependencies that the rule applies to
-        List<Dependency> applicableDependencies = dependencies.stream()
-                .filter(sortOrder::isApplicable)
-                .collect(Collectors.toList());
-        
-        // Validate order for applicable dependencies
-        for (int i = 1; i < applicableDependencies.size(); i++) {
-            Optional<String> validationError = sortOrder.validateOrder(
-                applicableDependencies.get(i-1), 
-                applicableDependencies.get(i)
-            );
-            validationError.ifPresent(errors::add);
+    }
+
+    private void validateOrder(ValidationContext context, int from, int to) {
+        if (reportMode == ReportMode.MINIMAL_MOVES) {
+            MinimalMoves.validate(sortOrder, context, from, to);
+            return;
         }
-        
-        return errors;
+        // Validate order for applicable dependencies, skipping the others in place
+        int previousPosition = -1;
+        for (int position = from; position < to; position++) {
+            if (!context.isApplicable(sortOrder, position)) {
+                continue;
+            }
+            if (previousPosition != -1 && !context.isInOrder(sortOrder, previousPosition, position)) {
+                context.reportOrder(sortOrder, previousPosition, position);
+                if (context.isStopped()) {
+                    return;
+                }
+            }
+            previousPosition = position;
+        }
+    }
+
+    @Override
+    public long countInversions(ValidationContext context, int from, int to) {
+        return Inversions.count(sortOrder, context, from, to);
+    }
+
+    /**
+     * Sorts the applicable dependencies by the sort key of the SortOrder, computing every key once.
+     * Dependencies the SortOrder is not applicable to keep their positions.
+     */
+    @Override
+    public List<Dependency> sort(List<Dependency> dependencies) {
+        requireNonNull(dependencies, "dependencies");
+        List<Dependency> sorted = new ArrayList<>(dependencies);
+        KeyedDependency.sortApplicable(sortOrder, sorted);
+        return sorted;
+    }
+
+    @Override
+    public Comparator<Dependency> comparator() {
+        return sortOrder.comparator();
     }
 
     @Override
@@ -67,4 +112,13 @@ public class SortLeaf extends SortNode {
     public SortOrder getSortOrder() {
         return sortOrder;
     }
+    
+    /**
+     * Returns how violations are reported.
+     *
+     * @return report mode of this leaf
+     */
+    public ReportMode getReportMode() {
+        return reportMode;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,67 @@
+package se.payerl.xml;
+
+import org.apache.maven.model.Dependency;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dependencies of one &lt;dependencies&gt; element of a pom.xml with the byte range of every
+ * dependency. The range of a dependency starts after the previous dependency, so it
+ * includes the whitespace and comments in front of it.
+ */
+final class DependencySection {
+    private final String name;
+    private final int depth;
+    private final List<Dependency> dependencies = new ArrayList<>();
+    private long[] starts = new long[16];
+    private long[] ends = new long[16];
+
+    /**
+     * Creates an empty section.
+     *
+     * @param name section name, for example {@code <dependencies>}
+     * @param depth number of elements enclosing the content of the section
+     */
+    DependencySection(String name, int depth) {
+        this.name = name;
+        this.depth = depth;
+    }
+
+    void add(long start, long end, Dependency dependency) {
+        int size = dependencies.size();
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        dependencies.add(dependency);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getDepth() {
+        return depth;
+    }
+
+    List<Dependency> getDependencies() {
+        return Collections.unmodifiableList(dependencies);
+    }
+
+    int size() {
+        return dependencies.size();
+    }
+
+    long getStart(int index) {
+        return starts[index];
+    }
+
+    long getEnd(int index) {
+        return ends[index];
+    }
+}
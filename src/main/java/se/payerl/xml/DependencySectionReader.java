@@ -0,0 +1,186 @@
+package se.payerl.xml;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import se.payerl.ValidationResult;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Reads the &lt;dependencies&gt; and &lt;dependencyManagement&gt; sections of a pom.xml
+ * with a streaming tokenizer, skipping everything else in the file.
+ * <p>
+ * Only the coordinates of the dependencies (groupId, artifactId, version, type, classifier,
+ * scope, optional and systemPath) are read. Values are not interpolated, the same as in the
+ * original model of a Maven project. The file must be encoded in UTF-8 or another ASCII
+ * compatible encoding.
+ */
+public final class DependencySectionReader {
+
+    private DependencySectionReader() { }
+
+    /**
+     * Reads the dependency sections of a pom.xml into a model.
+     * The model only holds the dependencies and the dependency management.
+     *
+     * @param pom path of the pom.xml
+     * @return model with the dependency sections of the file
+     * @throws IOException if the file could not be read or parsed
+     */
+    public static Model readModel(Path pom) throws IOException {
+        Model model = new Model();
+        model.setPomFile(pom.toFile());
+        for (DependencySection section : readSections(pom)) {
+            if (ValidationResult.DEPENDENCIES.equals(section.getName())) {
+                model.setDependencies(new ArrayList<>(section.getDependencies()));
+            } else {
+                DependencyManagement dependencyManagement = new DependencyManagement();
+                dependencyManagement.setDependencies(new ArrayList<>(section.getDependencies()));
+                model.setDependencyManagement(dependencyManagement);
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Reads the dependency sections of a pom.xml together with the byte range of every dependency.
+     *
+     * @param pom path of the pom.xml
+     * @return sections in file order
+     * @throws IOException if the file could not be read or parsed
+     */
+    static List<DependencySection> readSections(Path pom) throws IOException {
+        List<DependencySection> sections = new ArrayList<>();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(pom))) {
+            checkEncoding(in);
+            XmlTokenizer tokenizer = new XmlTokenizer(in);
+            Deque<String> path = new ArrayDeque<>();
+            DependencySection section = null;
+            Dependency dependency = null;
+            String field = null;
+            StringBuilder value = new StringBuilder();
+            long chunkStart = 0;
+
+            XmlTokenizer.Token token;
+            while ((token = tokenizer.next()) != XmlTokenizer.Token.EOF) {
+                switch (token) {
+                    case START_TAG:
+                        String name = tokenizer.getName();
+                        if (section == null && "dependencies".equals(name)) {
+                            String sectionName = sectionName(path);
+                            if (sectionName != null) {
+                                section = new DependencySection(sectionName, path.size() + 1);
+                                chunkStart = tokenizer.getEnd();
+                            }
+                        } else if (section != null && path.size() == section.getDepth() && "dependency".equals(name)) {
+                            dependency = new Dependency();
+                        } else if (dependency != null && path.size() == section.getDepth() + 1) {
+                            field = name;
+                            value.setLength(0);
+                        }
+                        path.push(name);
+                        break;
+                    case END_TAG:
+                        if (path.isEmpty()) {
+                            throw new IOException("Unexpected end tag </" + tokenizer.getName() + "> at offset "
+                                    + tokenizer.getStart());
+                        }
+                        path.pop();
+                        if (field != null && path.size() == section.getDepth() + 1) {
+                            setField(dependency, field, value.toString());
+                            field = null;
+                        } else if (dependency != null && path.size() == section.getDepth()) {
+                            section.add(chunkStart, tokenizer.getEnd(), dependency);
+                            chunkStart = tokenizer.getEnd();
+                            dependency = null;
+                        } else if (section != null && path.size() == section.getDepth() - 1) {
+                            sections.add(section);
+                            section = null;
+                        }
+                        break;
+                    case TEXT:
+                        if (field != null) {
+                            value.append(tokenizer.getText());
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (!path.isEmpty()) {
+                throw new IOException("Unexpected end of document, unclosed element <" + path.peek() + ">");
+            }
+        }
+        return sections;
+    }
+
+    private static String sectionName(Deque<String> path) {
+        // The deque is used as a stack, so the innermost element comes first
+        if (path.size() == 1 && "project".equals(path.peekLast())) {
+            return ValidationResult.DEPENDENCIES;
+        }
+        if (path.size() == 2 && "project".equals(path.peekLast()) && "dependencyManagement".equals(path.peekFirst())) {
+            return ValidationResult.DEPENDENCY_MANAGEMENT;
+        }
+        return null;
+    }
+
+    private static void setField(Dependency dependency, String field, String rawValue) {
+        String value = unescape(rawValue.trim());
+        switch (field) {
+            case "groupId":
+                dependency.setGroupId(value);
+                break;
+            case "artifactId":
+                dependency.setArtifactId(value);
+                break;
+            case "version":
+                dependency.setVersion(value);
+                break;
+            case "type":
+                dependency.setType(value);
+                break;
+            case "classifier":
+                dependency.setClassifier(value);
+                break;
+            case "scope":
+                dependency.setScope(value);
+                break;
+            case "optional":
+                dependency.setOptional(value);
+                break;
+            case "systemPath":
+                dependency.setSystemPath(value);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('&') == -1) {
+            return value;
+        }
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                    .replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    private static void checkEncoding(InputStream in) throws IOException {
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        if ((first == 0xFE && second == 0xFF) || (first == 0xFF && second == 0xFE) || first == 0 || second == 0) {
+            throw new IOException("Only UTF-8 and ASCII compatible encodings are supported");
+        }
+    }
+}
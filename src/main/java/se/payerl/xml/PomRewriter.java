@@ -0,0 +1,136 @@
+package se.payerl.xml;
+
+import org.apache.maven.model.Dependency;
+import se.payerl.sort.ValidationPlan;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Rewrites the &lt;dependencies&gt; and &lt;dependencyManagement&gt; sections of a pom.xml
+ * into the order expected by a {@link ValidationPlan}.
+ * <p>
+ * Every &lt;dependency&gt; element is moved as a whole together with the whitespace and
+ * comments in front of it, so the formatting of the file is kept byte for byte. The file
+ * is processed in two streaming passes: the first pass tokenizes the file and records the
+ * byte range and coordinates of every dependency, the second pass copies byte ranges of
+ * the original file into a new file. Only the coordinates of the dependencies are held in
+ * memory, not the content of the file.
+ * <p>
+ * The file must be encoded in UTF-8 or another ASCII compatible encoding.
+ */
+public final class PomRewriter {
+    private final ValidationPlan plan;
+
+    /**
+     * Creates a rewriter that sorts dependencies with a plan.
+     *
+     * @param plan plan giving the expected order
+     */
+    public PomRewriter(ValidationPlan plan) {
+        this.plan = Objects.requireNonNull(plan, "plan cannot be null");
+    }
+
+    /**
+     * Sorts the dependency sections of a pom.xml in place.
+     * The file is left untouched if every section is already in expected order.
+     *
+     * @param pom path of the pom.xml
+     * @return names of the rewritten sections, empty if the file was not changed
+     * @throws IOException if the file could not be read, parsed or written
+     */
+    public List<String> rewrite(Path pom) throws IOException {
+        List<DependencySection> changed = new ArrayList<>();
+        List<int[]> orders = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (DependencySection section : DependencySectionReader.readSections(pom)) {
+            int[] order = order(section, plan);
+            if (order != null) {
+                changed.add(section);
+                orders.add(order);
+                names.add(section.getName());
+            }
+        }
+        if (!changed.isEmpty()) {
+            write(pom, changed, orders);
+        }
+        return names;
+    }
+
+    private static void write(Path pom, List<DependencySection> sections, List<int[]> orders) throws IOException {
+        Path temporary = Files.createTempFile(pom.toAbsolutePath().getParent(), pom.getFileName().toString(), ".tmp");
+        try {
+            copyPermissions(pom, temporary);
+            try (FileChannel in = FileChannel.open(pom, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = 0;
+                for (int i = 0; i < sections.size(); i++) {
+                    DependencySection section = sections.get(i);
+                    copy(in, position, section.getStart(0), out);
+                    for (int index : orders.get(i)) {
+                        copy(in, section.getStart(index), section.getEnd(index), out);
+                    }
+                    position = section.getEnd(section.size() - 1);
+                }
+                copy(in, position, in.size(), out);
+            }
+            try {
+                Files.move(temporary, pom, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, pom, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        try {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system, the temporary file gets default permissions
+        }
+    }
+
+    private static void copy(FileChannel in, long from, long to, FileChannel out) throws IOException {
+        long position = from;
+        while (position < to) {
+            position += in.transferTo(position, to - position, out);
+        }
+    }
+
+    /**
+     * Computes the expected order of a section.
+     *
+     * @return indices of the dependencies in expected order, or null if no dependency has to be moved
+     */
+    private static int[] order(DependencySection section, ValidationPlan plan) {
+        if (section.size() <= 1) {
+            return null;
+        }
+        List<Dependency> dependencies = section.getDependencies();
+        Map<Dependency, Integer> indexByDependency = new IdentityHashMap<>();
+        for (int i = 0; i < dependencies.size(); i++) {
+            indexByDependency.put(dependencies.get(i), i);
+        }
+        List<Dependency> sorted = plan.sort(dependencies);
+        int[] order = new int[sorted.size()];
+        boolean moved = false;
+        for (int i = 0; i < order.length; i++) {
+            order[i] = indexByDependency.get(sorted.get(i));
+            moved |= order[i] != i;
+        }
+        return moved ? order : null;
+    }
+}
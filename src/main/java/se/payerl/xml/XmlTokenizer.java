@@ -0,0 +1,262 @@
+package se.payerl.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pull tokenizer for XML that reports the byte offsets of every token.
+ * <p>
+ * The tokenizer works on bytes and only recognizes markup, which consists of ASCII
+ * characters. It therefore works for UTF-8 and other ASCII compatible encodings
+ * without decoding the document. It does not validate the document and keeps no
+ * state besides the current token, so memory use does not depend on the document size.
+ */
+final class XmlTokenizer {
+
+    /**
+     * Kind of token.
+     */
+    enum Token {
+        /** Start tag, for example {@code <dependency>}. */
+        START_TAG,
+        /** End tag, for example {@code </dependency>}. */
+        END_TAG,
+        /** Empty element tag, for example {@code <optional/>}. */
+        EMPTY_TAG,
+        /** Character data, including the content of CDATA sections. */
+        TEXT,
+        /** Comment, processing instruction or document type declaration. */
+        OTHER,
+        /** End of the document. */
+        EOF
+    }
+
+    private final InputStream in;
+    private final ByteArrayOutputStream text = new ByteArrayOutputStream();
+    private long offset;
+    private int pushedBack = -1;
+    private long tokenStart;
+    private String name;
+
+    /**
+     * Creates a tokenizer reading a document.
+     *
+     * @param in buffered stream of the document, positioned at its first byte
+     */
+    XmlTokenizer(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the next token.
+     *
+     * @return kind of the token
+     * @throws IOException if the document could not be read or ends inside markup
+     */
+    Token next() throws IOException {
+        tokenStart = offset;
+        name = null;
+        text.reset();
+        int c = read();
+        if (c == -1) {
+            return Token.EOF;
+        }
+        if (c != '<') {
+            while (c != -1 && c != '<') {
+                text.write(c);
+                c = read();
+            }
+            unread(c);
+            return Token.TEXT;
+        }
+        c = readRequired();
+        if (c == '/') {
+            name = readName(readRequired());
+            skipUntil(">");
+            return Token.END_TAG;
+        }
+        if (c == '?') {
+            skipUntil("?>");
+            return Token.OTHER;
+        }
+        if (c == '!') {
+            return readDeclaration();
+        }
+        name = readName(c);
+        return readAttributes();
+    }
+
+    /**
+     * Returns the offset of the first byte of the current token.
+     *
+     * @return start offset
+     */
+    long getStart() {
+        return tokenStart;
+    }
+
+    /**
+     * Returns the offset after the last byte of the current token.
+     *
+     * @return end offset
+     */
+    long getEnd() {
+        return offset;
+    }
+
+    /**
+     * Returns the element name of the current tag.
+     *
+     * @return element name, or null if the current token is not a tag
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the character data of the current text token decoded as UTF-8.
+     * Entity and character references are not resolved.
+     *
+     * @return text of the token
+     */
+    String getText() {
+        return new String(text.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private Token readDeclaration() throws IOException {
+        int c = readRequired();
+        if (c == '-') {
+            expect('-');
+            skipUntil("-->");
+            return Token.OTHER;
+        }
+        if (c == '[') {
+            expect('C');
+            expect('D');
+            expect('A');
+            expect('T');
+            expect('A');
+            expect('[');
+            // Content of the CDATA section is character data
+            int matched = 0;
+            while (matched < 3) {
+                c = readRequired();
+                text.write(c);
+                if (c == '>' && matched == 2) {
+                    matched = 3;
+                } else if (c == ']') {
+                    matched = matched == 2 ? 2 : matched + 1;
+                } else {
+                    matched = 0;
+                }
+            }
+            byte[] content = text.toByteArray();
+            text.reset();
+            text.write(content, 0, content.length - 3);
+            return Token.TEXT;
+        }
+        // Document type declaration, possibly with an internal subset in brackets
+        int depth = 0;
+        while (c != '>' || depth > 0) {
+            if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            } else if (c == '"' || c == '\'') {
+                skipUntil(String.valueOf((char) c));
+            }
+            c = readRequired();
+        }
+        return Token.OTHER;
+    }
+
+    private Token readAttributes() throws IOException {
+        while (true) {
+            int c = readRequired();
+            if (c == '"' || c == '\'') {
+                skipUntil(String.valueOf((char) c));
+            } else if (c == '/') {
+                expect('>');
+                return Token.EMPTY_TAG;
+            } else if (c == '>') {
+                return Token.START_TAG;
+            }
+        }
+    }
+
+    private String readName(int first) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        int c = first;
+        while (c != -1 && c != '>' && c != '/' && !isWhitespace(c)) {
+            builder.append((char) c);
+            c = read();
+        }
+        unread(c);
+        return builder.toString();
+    }
+
+    private void skipUntil(String terminator) throws IOException {
+        // Compare the last bytes read with the terminator, terminators are at most three bytes
+        int length = terminator.length();
+        int[] window = new int[length];
+        for (long count = 1; ; count++) {
+            System.arraycopy(window, 1, window, 0, length - 1);
+            window[length - 1] = readRequired();
+            if (count >= length && endsWith(window, terminator)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean endsWith(int[] window, String terminator) {
+        for (int i = 0; i < window.length; i++) {
+            if (window[i] != terminator.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = readRequired();
+        if (c != expected) {
+            throw new IOException("Unexpected character '" + (char) c + "' at offset " + (offset - 1)
+                    + ", expected '" + expected + "'");
+        }
+    }
+
+    private int readRequired() throws IOException {
+        int c = read();
+        if (c == -1) {
+            throw new IOException("Unexpected end of document at offset " + offset);
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pushedBack != -1) {
+            c = pushedBack;
+            pushedBack = -1;
+        } else {
+            c = in.read();
+        }
+        if (c != -1) {
+            offset++;
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        if (c != -1) {
+            pushedBack = c;
+            offset--;
+        }
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+}
@@ -0,0 +1,85 @@
+package se.payerl;
+
+import org.apache.maven.model.Dependency;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the in-place key comparison in AlphabeticalOrder.
+ */
+public class AlphabeticalOrderTest {
+
+    @Test
+    public void testCompareKeys_SeparatorEdgeCases() {
+        AlphabeticalOrder alphabeticalOrder = new AlphabeticalOrder();
+
+        assertSameOrder(alphabeticalOrder, createDependency("a.b", "c"), createDependency("a", "b"));
+        assertSameOrder(alphabeticalOrder, createDependency("a", "b.c"), createDependency("a.b", "c"));
+        assertSameOrder(alphabeticalOrder, createDependency("a-b", "c"), createDependency("a", "b"));
+        assertSameOrder(alphabeticalOrder, createDependency("a", "b"), createDependency("a:b", ""));
+        assertSameOrder(alphabeticalOrder, createDependency("ab", "c"), createDependency("a", "bc"));
+        assertSameOrder(alphabeticalOrder, createDependency("A", "B"), createDependency("a", "b"));
+        assertSameOrder(alphabeticalOrder, createDependency(null, "b"), createDependency("nulla", "b"));
+    }
+
+    @Test
+    public void testCompareKeys_MatchesConcatenatedKeyForRandomKeys() {
+        AlphabeticalOrder alphabeticalOrder = new AlphabeticalOrder();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            assertSameOrder(alphabeticalOrder,
+                            createDependency(randomPart(random), randomPart(random)),
+                            createDependency(randomPart(random), randomPart(random)));
+        }
+    }
+
+    @Test
+    public void testValidateOrder_InversedOrder() {
+        AlphabeticalOrder alphabeticalOrder = new AlphabeticalOrder();
+        alphabeticalOrder.setInversed(true);
+
+        // ':' sorts after '.' so a:b comes before a.b:c in inversed order
+        Optional<String> error = alphabeticalOrder.validateOrder(createDependency("a.b", "c"), createDependency("a", "b"));
+
+        assertEquals("Dependency a:b must be before a.b:c", error.orElse(""));
+        assertFalse(alphabeticalOrder.validateOrder(createDependency("a", "b"), createDependency("a.b", "c")).isPresent());
+    }
+
+    private static void assertSameOrder(AlphabeticalOrder alphabeticalOrder, Dependency first, Dependency second) {
+        String firstKey = alphabeticalOrder.extractSortKey(first);
+        String secondKey = alphabeticalOrder.extractSortKey(second);
+        assertEquals(firstKey + " vs " + secondKey,
+                     Integer.signum(firstKey.compareToIgnoreCase(secondKey)),
+                     Integer.signum(alphabeticalOrder.compareKeys(first, second)));
+        assertEquals(secondKey + " vs " + firstKey,
+                     Integer.signum(secondKey.compareToIgnoreCase(firstKey)),
+                     Integer.signum(alphabeticalOrder.compareKeys(second, first)));
+        assertEquals(firstKey + " vs " + secondKey + " by sort key",
+                     Integer.signum(alphabeticalOrder.compareKeys(first, second)),
+                     Integer.signum(alphabeticalOrder.compareSortKeys(alphabeticalOrder.createSortKey(first),
+                                                                      alphabeticalOrder.createSortKey(second))));
+    }
+
+    private static String randomPart(Random random) {
+        String alphabet = "aAbB.-:_9";
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private static Dependency createDependency(String groupId, String artifactId) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion("1.0");
+        return dependency;
+    }
+}
@@ -0,0 +1,113 @@
+package se.payerl;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import se.payerl.cli.DependencyOrderCli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the command line scanner.
+ */
+public class DependencyOrderCliTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Test
+    public void testRun_ReportsViolationsOfEveryPom() throws IOException {
+        // Arrange
+        File config = write("rules.xml", "<DependencyOrderRule><SortOrders>"
+                + "<AlphabeticalOrder><inversed>false</inversed></AlphabeticalOrder>"
+                + "</SortOrders></DependencyOrderRule>");
+        write("correct/pom.xml", pom("com.google.guava", "org.apache.commons"));
+        write("wrong/pom.xml", pom("org.apache.commons", "com.google.guava"));
+        write("wrong/target/pom.xml", pom("org.apache.commons", "com.google.guava"));
+
+        // Act
+        int exitCode = run("--config", config.getPath(), "--threads", "2", temporaryFolder.getRoot().getPath());
+
+        // Assert
+        assertEquals(DependencyOrderCli.VIOLATIONS, exitCode);
+        String output = out.toString("UTF-8");
+        assertTrue(output.contains("wrong" + File.separator + "pom.xml:"));
+        assertTrue(output.contains("Dependency com.google.guava:a must be before org.apache.commons:a"));
+        assertTrue("target directories should be skipped", output.endsWith("Checked 2 pom.xml files, 1 with violations, disorder score 1"
+                + System.lineSeparator()));
+    }
+
+    @Test
+    public void testRun_WithPropertiesConfiguration_ReturnsSuccess() throws IOException {
+        // Arrange
+        File config = write("rules.properties", "groupMode=true\n"
+                + "SortOrders=ScopeOrder,AlphabeticalOrder\n"
+                + "ScopeOrder.first=compile\n"
+                + "ScopeOrder.then=provided,test\n");
+        File pom = write("pom.xml", pom("com.google.guava", "org.apache.commons"));
+
+        // Act & Assert
+        assertEquals(DependencyOrderCli.SUCCESS, run("--config", config.getPath(), pom.getPath()));
+    }
+
+    @Test
+    public void testRun_WithQuietSarifReport_WritesEveryViolation() throws IOException {
+        // Arrange
+        File config = write("rules.properties", "SortOrders=AlphabeticalOrder\n");
+        write("a/pom.xml", pom("org.apache.commons", "com.google.guava"));
+        write("b/pom.xml", pom("com.google.guava", "org.apache.commons"));
+        write("c/pom.xml", pom("org.apache.commons", "com.google.guava"));
+        File report = new File(temporaryFolder.getRoot(), "reports/order.sarif");
+
+        // Act
+        int exitCode = run("--config", config.getPath(), "--report", report.getPath(), "--quiet",
+                           temporaryFolder.getRoot().getPath());
+
+        // Assert
+        assertEquals(DependencyOrderCli.VIOLATIONS, exitCode);
+        assertEquals("Checked 3 pom.xml files, 2 with violations, disorder score 2" + System.lineSeparator(),
+                     out.toString("UTF-8"));
+        String sarif = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+        assertTrue(sarif, sarif.startsWith("{\"version\":\"2.1.0\""));
+        assertEquals(2, sarif.split("\"ruleId\":\"AlphabeticalOrder\"", -1).length - 1);
+        assertTrue("results are written in path order",
+                   sarif.indexOf("/a/pom.xml") < sarif.indexOf("/c/pom.xml"));
+        assertTrue(sarif, sarif.endsWith("]}]}\n"));
+    }
+
+    @Test
+    public void testRun_WithoutConfiguration_ReturnsError() {
+        assertEquals(DependencyOrderCli.ERROR, run(temporaryFolder.getRoot().getPath()));
+        assertTrue(err.toString().startsWith("Usage:"));
+    }
+
+    private int run(String... args) {
+        return new DependencyOrderCli(new PrintStream(out, true), new PrintStream(err, true)).run(args);
+    }
+
+    private static String pom(String firstGroupId, String secondGroupId) {
+        return "<project>\n"
+                + "  <dependencies>\n"
+                + "    <dependency><groupId>" + firstGroupId + "</groupId><artifactId>a</artifactId></dependency>\n"
+                + "    <dependency><groupId>" + secondGroupId + "</groupId><artifactId>a</artifactId></dependency>\n"
+                + "  </dependencies>\n"
+                + "</project>\n";
+    }
+
+    private File write(String path, String content) throws IOException {
+        File file = new File(temporaryFolder.getRoot(), path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
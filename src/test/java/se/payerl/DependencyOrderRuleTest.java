@@ -2,24 +2,62 @@ package se.payerl;
 
 import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
 import org.apache.maven.enforcer.rule.api.EnforcerLogger;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.InputLocation;
+import org.apache.maven.model.InputSource;
 import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginManagement;
+import org.apache.maven.model.Profile;
 import org.apache.maven.project.MavenProject;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import se.payerl.DependencyOrderRule;
 import se.payerl.sort.SortOrder;
+import se.payerl.sort.ValidationPlan;
 import se.payerl.AlphabeticalOrder;
 import se.payerl.ScopeOrder;
+import se.payerl.cache.ResultCache;
+import se.payerl.jfr.RuleEvent;
+import se.payerl.model.ModelSections;
+import se.payerl.model.Scope;
+import se.payerl.model.Section;
+import se.payerl.ratchet.DisorderBaseline;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.Mockito.*;
 
 public class DependencyOrderRuleTest {
@@ -33,6 +71,9 @@ public class DependencyOrderRuleTest {
     @Mock
     private EnforcerLogger mockLogger;
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private DependencyOrderRule rule;
 
     @Before
@@ -46,7 +87,7 @@ public class DependencyOrderRuleTest {
         
         // Inject the mock project using reflection
         try {
-            java.lang.reflect.Field projectField = DependencyOrderRule.class.getDeclaredField("project");
+            Field projectField = DependencyOrderRule.class.getDeclaredField("project");
             projectField.setAccessible(true);
             projectField.set(rule, mockProject);
         } catch (Exception e) {
@@ -169,6 +210,671 @@ public class DependencyOrderRuleTest {
         rule.execute();
     }
 
+    @Test
+    public void testExecute_WithCache_ReplaysCachedResult() throws Exception {
+        // Arrange
+        List<SortOrder> sortOrders = Arrays.asList(new AlphabeticalOrder());
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        when(mockModel.getDependencyManagement()).thenReturn(null);
+        setSortOrders(sortOrders);
+        setField("cache", true);
+        setField("cacheDirectory", temporaryFolder.getRoot());
+
+        // Act
+        String firstMessage = executeAndGetMessage();
+        String secondMessage = executeAndGetMessage();
+
+        // Assert
+        assertEquals(firstMessage, secondMessage);
+        String cacheId = rule.getCacheId();
+        assertNotNull("Cache id should be set when cache is enabled", cacheId);
+        assertTrue("Cache entry should be named by the cache key", new File(temporaryFolder.getRoot(), cacheKey()).isFile());
+        verify(mockLogger).info("Dependency sections unchanged, using cached result " + cacheKey());
+
+        // A changed dependency section gives a new key
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInAlphabeticalOrder());
+        assertNotEquals(cacheId, rule.getCacheId());
+        rule.execute();
+    }
+
+    @Test
+    public void testGetCacheId_ScopedPerModule() {
+        // Arrange - two modules with identical dependency sections
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        when(mockModel.getDependencyManagement()).thenReturn(null);
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("cache", true);
+
+        // Act
+        when(mockProject.getId()).thenReturn("se.payerl:first:jar:1.0.0");
+        String firstCacheId = rule.getCacheId();
+        when(mockProject.getId()).thenReturn("se.payerl:second:jar:1.0.0");
+        String secondCacheId = rule.getCacheId();
+
+        // Assert - the enforcer plugin must not skip the second module, it reports its own violations
+        assertNotEquals(firstCacheId, secondCacheId);
+        assertTrue(firstCacheId.startsWith("se.payerl:first:jar:1.0.0:"));
+        assertTrue(secondCacheId.endsWith(firstCacheId.substring(firstCacheId.lastIndexOf(':'))));
+    }
+
+    @Test
+    public void testResultCache_KeyedByFilteredPluginVersion() {
+        // The version is filtered into the jar, so results of another release are never replayed
+        String version = ResultCache.getPluginVersion();
+        assertNotEquals("unknown", version);
+        assertFalse(version, version.contains("${"));
+    }
+
+    @Test
+    public void testGetCacheId_WithoutCache_ReturnsNull() {
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        assertNull(rule.getCacheId());
+    }
+
+    @Test
+    public void testExecute_WithFailFast_StopsAtFirstViolation() {
+        // Arrange - both sections are in wrong order
+        DependencyManagement dependencyManagement = new DependencyManagement();
+        dependencyManagement.setDependencies(createDependenciesInWrongAlphabeticalOrder());
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        when(mockModel.getDependencyManagement()).thenReturn(dependencyManagement);
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("failFast", true);
+
+        // Act
+        String message = executeAndGetMessage();
+
+        // Assert
+        assertTrue(message.startsWith("<dependencies> dependencies are not in correct order:"));
+        assertFalse("dependencyManagement should be skipped", message.contains("<dependencyManagement>"));
+        assertTrue(message.endsWith("Stopped after 1 violation, further violations were not looked for"));
+        verify(mockLogger).info("Stopping after 1 violation");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExecute_WithExactlyMaxViolations_StopsWithoutCheckingFurther() {
+        // Arrange - one violation in <dependencies>, and a limit of one
+        List<Dependency> managedDependencies = mock(List.class);
+        DependencyManagement dependencyManagement = new DependencyManagement();
+        dependencyManagement.setDependencies(managedDependencies);
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        when(mockModel.getDependencyManagement()).thenReturn(dependencyManagement);
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("failFast", true);
+
+        // Act
+        String message = executeAndGetMessage();
+
+        // Assert - the limit is reached by the first violation, so <dependencyManagement> is not looked at
+        assertTrue(message.startsWith("<dependencies> dependencies are not in correct order:"));
+        assertTrue(message, message.endsWith("Stopped after 1 violation, further violations were not looked for"));
+        verifyNoInteractions(managedDependencies);
+    }
+
+    @Test
+    public void testExecute_WithFix_SortsPomAndValidatesResult() throws Exception {
+        // Arrange
+        File pom = temporaryFolder.newFile("pom.xml");
+        Files.write(pom.toPath(), ("<project>\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + "  <dependencies>\n"
+                + "    <dependency><groupId>org.apache.commons</groupId><artifactId>commons-lang3</artifactId></dependency>\n"
+                + "    <dependency><groupId>com.google.guava</groupId><artifactId>guava</artifactId></dependency>\n"
+                + "  </dependencies>\n"
+                + "</project>\n").getBytes(StandardCharsets.UTF_8));
+        when(mockProject.getFile()).thenReturn(pom);
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("fix", true);
+        File cacheDirectory = temporaryFolder.newFolder("cache");
+        setField("cache", true);
+        setField("cacheDirectory", cacheDirectory);
+
+        // Act & Assert - Should not throw exception
+        rule.execute();
+        String content = new String(Files.readAllBytes(pom.toPath()), StandardCharsets.UTF_8);
+        assertTrue(content.indexOf("guava") < content.indexOf("commons-lang3"));
+        verify(mockLogger).info("Sorted <dependencies> in " + pom);
+        assertEquals("The rewritten model is not cached", 0, cacheDirectory.list().length);
+    }
+
+    @Test
+    public void testExecute_WithMaxDisorder_ToleratesLowScore() throws EnforcerRuleException {
+        // Arrange - one pair in wrong order
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("maxDisorder", 1);
+
+        // Act & Assert - Should not throw exception
+        rule.execute();
+        verify(mockLogger).info("Disorder score: 1 (<dependencies> 1)");
+        verify(mockLogger).warn("Tolerating disorder score 1");
+
+        setField("maxDisorder", 0);
+        assertTrue(executeAndGetMessage().endsWith("Disorder score 1 exceeds maxDisorder 0"));
+    }
+
+    @Test
+    public void testExecute_WithoutDisorderOptions_DoesNotCountDisorder() {
+        // Arrange
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+
+        // Act
+        executeAndGetMessage();
+
+        // Assert - nothing uses the score, so it is neither counted nor logged
+        verify(mockLogger, never()).info(startsWith("Disorder score"));
+    }
+
+    @Test
+    public void testExecute_WithMaxDisorderAndLimitReached_FailsWithUnknownScore() {
+        // Arrange - both sections are in wrong order, the first violation reaches the limit
+        DependencyManagement dependencyManagement = new DependencyManagement();
+        dependencyManagement.setDependencies(createDependenciesInWrongAlphabeticalOrder());
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        when(mockModel.getDependencyManagement()).thenReturn(dependencyManagement);
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("maxDisorder", 10);
+        setField("failFast", true);
+
+        // Act
+        String message = executeAndGetMessage();
+
+        // Assert - the score of a stopped validation is not known, so it cannot be tolerated
+        assertTrue(message, message.endsWith("Disorder score is not known, the validation stopped after 1 violation"));
+        verify(mockLogger, never()).info(startsWith("Disorder score"));
+    }
+
+    @Test
+    public void testExecute_WithRatchet_FailsOnlyIfScoreGoesUp() throws Exception {
+        // Arrange
+        File scoreFile = new File(temporaryFolder.getRoot(), "dependency-order.score");
+        when(mockProject.getBasedir()).thenReturn(temporaryFolder.getRoot());
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("ratchet", true);
+
+        // Act & Assert - first build records the score
+        rule.execute();
+        assertEquals(OptionalLong.of(1), new DisorderBaseline(scoreFile.toPath()).read());
+
+        // Same score is tolerated, a lower score is recorded
+        rule.execute();
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInAlphabeticalOrder());
+        rule.execute();
+        assertEquals(OptionalLong.of(0), new DisorderBaseline(scoreFile.toPath()).read());
+
+        // Going back up fails
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        assertTrue(executeAndGetMessage().contains("Disorder score increased from 0 to 1"));
+    }
+
+    @Test
+    public void testExecute_SharedConfigurationFromManyThreads() throws Exception {
+        // Arrange - one configuration shared by the rules of many projects, like plugin configuration under mvn -T
+        ScopeOrder scopeOrder = new ScopeOrder();
+        scopeOrder.setFirst("compile");
+        scopeOrder.setThen("test");
+        List<SortOrder> sortOrders = Arrays.asList(scopeOrder, new AlphabeticalOrder());
+        List<String> groupOrder = Arrays.asList("compile", "test");
+        int projectCount = 200;
+        List<Model> models = new ArrayList<>();
+        for (int i = 0; i < projectCount; i++) {
+            models.add(createRandomModel(new Random(i), i % 2 == 0));
+        }
+        List<String> expected = new ArrayList<>();
+        for (Model model : models) {
+            expected.add(executeWithSharedConfiguration(sortOrders, groupOrder, model));
+        }
+
+        // Act - validate every project many times from many threads at once
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for (int round = 0; round < 10; round++) {
+                for (Model model : models) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return executeWithSharedConfiguration(sortOrders, groupOrder, model);
+                    }));
+                }
+            }
+            start.countDown();
+
+            // Assert - every execution gives the serial result
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("Project " + i % projectCount, expected.get(i % projectCount),
+                             results.get(i).get(1, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue("Sorted projects are generated", expected.contains(null));
+        assertTrue("Unsorted projects are generated", expected.stream().anyMatch(Objects::nonNull));
+
+        // Assert - the configuration was frozen when the plan was compiled
+        assertTrue(scopeOrder.isFrozen());
+        assertTrue(sortOrders.get(1).isFrozen());
+        try {
+            scopeOrder.addThen("runtime");
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals(Arrays.asList(Scope.TEST), scopeOrder.getThenList());
+        }
+    }
+
+    private String executeWithSharedConfiguration(List<SortOrder> sortOrders, List<String> groupOrder, Model model)
+            throws Exception {
+        MavenProject project = new MavenProject(model);
+        project.setOriginalModel(model);
+        DependencyOrderRule projectRule = new DependencyOrderRule();
+        projectRule.setLog(mockLogger);
+        for (String name : Arrays.asList("project", "SortOrders", "groupMode", "groupOrder")) {
+            Field field = DependencyOrderRule.class.getDeclaredField(name);
+            field.setAccessible(true);
+            Object value = name.equals("project") ? project
+                    : name.equals("SortOrders") ? sortOrders
+                    : name.equals("groupMode") ? (Object) Boolean.TRUE
+                    : groupOrder;
+            field.set(projectRule, value);
+        }
+        try {
+            projectRule.execute();
+            return null;
+        } catch (EnforcerRuleException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static Model createRandomModel(Random random, boolean sorted) {
+        Model model = new Model();
+        List<Dependency> dependencies = new ArrayList<>();
+        for (int i = 0; i < 20 + random.nextInt(30); i++) {
+            Dependency dependency = new Dependency();
+            dependency.setGroupId("group" + random.nextInt(100));
+            dependency.setArtifactId("artifact" + i);
+            dependency.setVersion("1.0");
+            dependency.setScope(random.nextInt(3) == 0 ? "test" : null);
+            dependencies.add(dependency);
+        }
+        if (sorted) {
+            dependencies.sort(Comparator.comparing((Dependency dependency) -> dependency.getScope() != null)
+                                                  .thenComparing(dependency -> dependency.getGroupId() + ":"
+                                                                               + dependency.getArtifactId(),
+                                                                 String.CASE_INSENSITIVE_ORDER));
+        }
+        model.setDependencies(dependencies);
+        return model;
+    }
+
+    @Test
+    public void testExecute_WithCompilerMessageFormat_ReportsLocations() throws Exception {
+        // Arrange - locations as recorded by Maven when reading the pom.xml
+        List<Dependency> dependencies = createDependenciesInWrongAlphabeticalOrder();
+        InputSource source = new InputSource();
+        source.setLocation("/project/pom.xml");
+        dependencies.get(0).setLocation("", new InputLocation(18, 21, source));
+        dependencies.get(1).setLocation("", new InputLocation(24, 21, source));
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(dependencies);
+        when(mockModel.getDependencyManagement()).thenReturn(null);
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("messageFormat", "compiler");
+        setField("cache", true);
+        setField("cacheDirectory", temporaryFolder.getRoot());
+
+        // Act
+        String firstMessage = executeAndGetMessage();
+        String cachedMessage = executeAndGetMessage();
+
+        // Assert - the dependency to move is reported, also when the result is replayed from the cache
+        assertTrue(firstMessage, firstMessage.contains("\n/project/pom.xml:24:21: error: "
+                + "Dependency com.google.guava:guava must be before org.apache.commons:commons-lang3"));
+        assertEquals(firstMessage, cachedMessage);
+        verify(mockLogger).info("Dependency sections unchanged, using cached result " + cacheKey());
+
+        // A section that moved in the file gives a new key
+        String key = cacheKey();
+        dependencies.get(1).setLocation("", new InputLocation(25, 21, source));
+        assertNotEquals(key, cacheKey());
+
+        // The same lines in another pom.xml give a new key, so replayed violations point at the right file
+        key = cacheKey();
+        InputSource otherSource = new InputSource();
+        otherSource.setLocation("/project/module/pom.xml");
+        dependencies.get(0).setLocation("", new InputLocation(18, 21, otherSource));
+        dependencies.get(1).setLocation("", new InputLocation(25, 21, otherSource));
+        assertNotEquals(key, cacheKey());
+    }
+
+    @Test
+    public void testExecute_WithReportFormats_WritesReportsAndQuietSummary() throws Exception {
+        // Arrange - without a session the reports are written to the build directory of the project
+        Build build = new Build();
+        build.setDirectory(temporaryFolder.getRoot().getPath());
+        when(mockProject.getBuild()).thenReturn(build);
+        when(mockProject.getId()).thenReturn("se.payerl:module:jar:1.0");
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        when(mockModel.getDependencyManagement()).thenReturn(null);
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("reportFormat", "json, junit,sarif");
+        setField("quiet", true);
+
+        // Act
+        executeAndGetMessage();
+
+        // Assert
+        String json = read("dependency-order-report.json");
+        assertTrue(json, json.startsWith("{\"tool\":\"DependencyOrderRule\",\"modules\":[\n{\"module\":\"se.payerl:module:jar:1.0\""));
+        assertTrue(json, json.contains("\"message\":\"Dependency com.google.guava:guava must be before org.apache.commons:commons-lang3\""));
+        assertTrue(json, json.endsWith("]}\n"));
+        String junit = read("dependency-order-report.xml");
+        assertTrue(junit, junit.contains("<testsuite name=\"se.payerl:module:jar:1.0\" tests=\"1\" failures=\"1\">"));
+        assertTrue(junit, junit.contains("<testcase classname=\"se.payerl:module:jar:1.0\" name=\"&lt;dependencies&gt;\">"));
+        String sarif = read("dependency-order-report.sarif");
+        assertTrue(sarif, sarif.contains("\"ruleId\":\"AlphabeticalOrder\",\"level\":\"error\""));
+        assertTrue(sarif, sarif.endsWith("]}]}\n"));
+        verify(mockLogger).info("Dependency order: checked 1 module, 1 with violations (1 violation), disorder score 1");
+        verify(mockLogger, never()).info(startsWith("Disorder score"));
+    }
+
+    @Test
+    public void testExecute_Quiet_LogsSummaryOnceWhenSessionEnds() throws Exception {
+        // Arrange - a build of two modules in which the rule runs twice for the first module
+        ExecutionListener mavenListener = mock(ExecutionListener.class);
+        MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+        request.setExecutionListener(mavenListener);
+        MavenSession session = mock(MavenSession.class);
+        when(session.getRequest()).thenReturn(request);
+        setField("session", session);
+        when(mockProject.getId()).thenReturn("se.payerl:first:jar:1.0", "se.payerl:first:jar:1.0", "se.payerl:second:jar:1.0");
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        when(mockModel.getDependencyManagement()).thenReturn(null);
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("quiet", true);
+        executeAndGetMessage();
+        executeAndGetMessage();
+        executeAndGetMessage();
+        verify(mockLogger, never()).info(startsWith("Dependency order: checked"));
+
+        // Act
+        ExecutionEvent event = mock(ExecutionEvent.class);
+        request.getExecutionListener().sessionEnded(event);
+
+        // Assert
+        verify(mockLogger).info("Dependency order: checked 2 modules, 2 with violations (2 violations)");
+        verify(mavenListener).sessionEnded(event);
+    }
+
+    @Test
+    public void testExecute_WithMetrics_WritesMetricsFileAndLogsTable() throws Exception {
+        // Arrange
+        Build build = new Build();
+        build.setDirectory(temporaryFolder.getRoot().getPath());
+        when(mockProject.getBuild()).thenReturn(build);
+        when(mockProject.getId()).thenReturn("se.payerl:module:jar:1.0");
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        when(mockModel.getDependencyManagement()).thenReturn(null);
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("metrics", true);
+
+        // Act
+        executeAndGetMessage();
+
+        // Assert
+        String json = read("dependency-order-metrics.json");
+        assertTrue(json, json.startsWith("{\"tool\":\"DependencyOrderRule\",\"modules\":[\n{\"module\":\"se.payerl:module:jar:1.0\""));
+        assertTrue(json, json.contains("\"sections\":1,\"dependencies\":2,\"rules\":[{\"rule\":\"Checking for alphabetical order\""));
+        // No disorder score is used, so only the validation pass compares the two dependencies
+        assertTrue(json, json.contains("\"examined\":2,\"keysExtracted\":0,\"comparisons\":1,\"violations\":1}"));
+        verify(mockLogger).info("Dependency order metrics:");
+        verify(mockLogger).info(startsWith("se.payerl:module:jar:1.0 "));
+        verify(mockLogger).info(startsWith("1 module in "));
+    }
+
+    @Test
+    public void testExecute_WithMetrics_LogsTableOnceWhenSessionEnds() throws Exception {
+        // Arrange - the rule runs twice for the same module
+        MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+        MavenSession session = mock(MavenSession.class);
+        when(session.getRequest()).thenReturn(request);
+        setField("session", session);
+        Build build = new Build();
+        build.setDirectory(temporaryFolder.getRoot().getPath());
+        when(mockProject.getBuild()).thenReturn(build);
+        when(mockProject.getId()).thenReturn("se.payerl:module:jar:1.0");
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInWrongAlphabeticalOrder());
+        when(mockModel.getDependencyManagement()).thenReturn(null);
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("metrics", true);
+        executeAndGetMessage();
+        executeAndGetMessage();
+        verify(mockLogger, never()).info("Dependency order metrics:");
+        assertFalse(Files.exists(temporaryFolder.getRoot().toPath().resolve("dependency-order-metrics.json")));
+
+        // Act
+        request.getExecutionListener().sessionEnded(mock(ExecutionEvent.class));
+
+        // Assert
+        verify(mockLogger).info("Dependency order metrics:");
+        verify(mockLogger).info(startsWith("1 module in "));
+        String json = read("dependency-order-metrics.json");
+        assertEquals(json, json.indexOf("\"module\":"), json.lastIndexOf("\"module\":"));
+    }
+
+    @Test
+    public void testExecute_WithFlightRecording_RecordsModuleAndNodeEvents() throws Exception {
+        assumeTrue("JFR is not available", RuleEvent.isAvailable());
+        // Arrange - group mode gives a group level and a sort leaf per scope
+        when(mockProject.getId()).thenReturn("se.payerl:module:jar:1.0");
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInCorrectScopeOrder());
+        when(mockModel.getDependencyManagement()).thenReturn(null);
+        setSortOrders(Arrays.asList(new ScopeOrder("compile", "test"), new AlphabeticalOrder()));
+        setField("groupMode", true);
+
+        // Act
+        List<String> events = recordEvents(() -> {
+            try {
+                rule.execute();
+            } catch (EnforcerRuleException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Assert
+        assertTrue(events.toString(), events.contains("Module se.payerl:module:jar:1.0 dependencies,dependencyManagement "
+                + "Grouping by Checking for compile before test, then Checking for alphabetical order 2"));
+        assertTrue(events.toString(), events.contains("GroupLevel se.payerl:module:jar:1.0 <dependencies> "
+                + "Checking for compile before test 2"));
+        assertEquals(events.toString(), 2, events.stream().filter(event -> event.equals(
+                "SortLeaf se.payerl:module:jar:1.0 <dependencies> Checking for alphabetical order 1")).count());
+    }
+
+    @Test(expected = EnforcerRuleException.class)
+    public void testExecute_WithUnknownReportFormat_ShouldThrowException() throws EnforcerRuleException {
+        // Arrange
+        when(mockProject.getOriginalModel()).thenReturn(mockModel);
+        when(mockModel.getDependencies()).thenReturn(createDependenciesInAlphabeticalOrder());
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("reportFormat", "html");
+
+        // Act
+        rule.execute();
+    }
+
+    @Test
+    public void testValidate_CountsDisorderOnlyWhenAsked() {
+        // Arrange
+        Model model = new Model();
+        model.setDependencies(createDependenciesInWrongAlphabeticalOrder());
+        ValidationPlan plan = ValidationPlan.of(Arrays.asList(new AlphabeticalOrder()), false);
+
+        // Act
+        ValidationResult unscored = ValidationResult.validate(plan, model);
+        ValidationResult scored = ValidationResult.validate(plan.withDisorder(true), model);
+
+        // Assert - same violations, only the plan that asks for it counts the score
+        assertFalse(unscored.isDisorderCounted());
+        assertTrue(unscored.getDisorderBySection().isEmpty());
+        assertTrue(scored.isDisorderCounted());
+        assertEquals(1, scored.getDisorder(ValidationResult.DEPENDENCIES));
+        assertEquals(unscored.getErrorsBySection(), scored.getErrorsBySection());
+        assertNotEquals(plan.getFingerprint(), plan.withDisorder(true).getFingerprint());
+        assertEquals(plan.getFingerprint(), plan.withDisorder(true).withDisorder(false).getFingerprint());
+    }
+
+    @Test
+    public void testValidate_AllSectionsReportedByPath() {
+        // Arrange - every kind of section holds two entries in wrong order
+        Model model = new Model();
+        model.setDependencies(createDependenciesInAlphabeticalOrder());
+        Dependency withExclusions = model.getDependencies().get(0);
+        withExclusions.addExclusion(createExclusion("org.b", "b"));
+        withExclusions.addExclusion(createExclusion("org.a", "a"));
+        Build build = new Build();
+        build.addPlugin(createPlugin("org.z", "z-plugin"));
+        build.addPlugin(createPlugin("org.a", "a-plugin"));
+        build.getPlugins().get(0).setDependencies(createDependenciesInWrongAlphabeticalOrder());
+        PluginManagement pluginManagement = new PluginManagement();
+        pluginManagement.addPlugin(createPlugin("org.y", "y-plugin"));
+        pluginManagement.addPlugin(createPlugin("org.b", "b-plugin"));
+        build.setPluginManagement(pluginManagement);
+        model.setBuild(build);
+        Profile profile = new Profile();
+        profile.setId("ci");
+        profile.setDependencies(createDependenciesInWrongAlphabeticalOrder());
+        model.addProfile(profile);
+        ValidationPlan plan = ValidationPlan.of(Arrays.asList(new AlphabeticalOrder()), false);
+
+        // Act
+        ValidationResult defaultResult = ValidationResult.validate(plan, model);
+        ValidationResult result = ValidationResult.validate(plan.withSections(
+                ModelSections.of(Arrays.asList(Section.values()))), model);
+
+        // Assert - the default plan only sees the sorted <dependencies>, all sections are visited in file order
+        assertTrue(defaultResult.isSuccess());
+        assertEquals(Arrays.asList("<dependencies>",
+                                   "<dependencies><dependency com.google.guava:guava><exclusions>",
+                                   "<build><plugins>",
+                                   "<build><plugins><plugin org.z:z-plugin><dependencies>",
+                                   "<build><pluginManagement>",
+                                   "<profile ci><dependencies>"),
+                     new ArrayList<>(result.getViolationsBySection().keySet()));
+        assertEquals(5, result.getErrorCount());
+        assertEquals("Dependency org.a:a-plugin must be before org.z:z-plugin",
+                     result.getErrors("<build><plugins>").get(0));
+        assertNotEquals(plan.getFingerprint(), plan.withSections(
+                ModelSections.fromValues(Arrays.asList("plugins"))).getFingerprint());
+    }
+
+    @Test
+    public void testExecute_WithUnknownSection_ShouldThrowException() {
+        // Arrange
+        setSortOrders(Arrays.asList(new AlphabeticalOrder()));
+        setField("sections", Arrays.asList("dependencies", "repositories"));
+
+        // Act & Assert
+        assertTrue(executeAndGetMessage().startsWith("Unknown section 'repositories'"));
+    }
+
+    private static Exclusion createExclusion(String groupId, String artifactId) {
+        Exclusion exclusion = new Exclusion();
+        exclusion.setGroupId(groupId);
+        exclusion.setArtifactId(artifactId);
+        return exclusion;
+    }
+
+    private static Plugin createPlugin(String groupId, String artifactId) {
+        Plugin plugin = new Plugin();
+        plugin.setGroupId(groupId);
+        plugin.setArtifactId(artifactId);
+        return plugin;
+    }
+
+    /**
+     * Returns the name of the cache entry, the part of the cache id after the project id.
+     */
+    private String cacheKey() {
+        String cacheId = rule.getCacheId();
+        return cacheId.substring(cacheId.lastIndexOf(':') + 1);
+    }
+
+    private String executeAndGetMessage() {
+        try {
+            rule.execute();
+            fail("Expected EnforcerRuleException");
+            return null;
+        } catch (EnforcerRuleException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Runs an action during a JFR recording of the events of the rule and returns them as
+     * "name module section rule dependencies". JFR is used through reflection, since the tests
+     * are also compiled on Java 8.
+     */
+    private List<String> recordEvents(Runnable action) throws Exception {
+        Class<?> recordingType = Class.forName("jdk.jfr.Recording");
+        Object recording = recordingType.getConstructor().newInstance();
+        for (String name : Arrays.asList("Module", "GroupLevel", "SortLeaf")) {
+            recordingType.getMethod("enable", String.class).invoke(recording, "se.payerl.DependencyOrder." + name);
+        }
+        Path file = temporaryFolder.newFile("rule.jfr").toPath();
+        recordingType.getMethod("start").invoke(recording);
+        try {
+            action.run();
+        } finally {
+            recordingType.getMethod("stop").invoke(recording);
+            recordingType.getMethod("dump", Path.class).invoke(recording, file);
+            recordingType.getMethod("close").invoke(recording);
+        }
+        List<String> events = new ArrayList<>();
+        for (Object event : (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+                .getMethod("readAllEvents", Path.class).invoke(null, file)) {
+            Class<?> eventClass = Class.forName("jdk.jfr.consumer.RecordedObject");
+            Object type = Class.forName("jdk.jfr.consumer.RecordedEvent").getMethod("getEventType").invoke(event);
+            String name = (String) type.getClass().getMethod("getName").invoke(type);
+            Method getString = eventClass.getMethod("getString", String.class);
+            events.add(name.substring(name.lastIndexOf('.') + 1) + " " + getString.invoke(event, "module") + " "
+                    + getString.invoke(event, "section") + " " + getString.invoke(event, "rule") + " "
+                    + eventClass.getMethod("getInt", String.class).invoke(event, "dependencies"));
+        }
+        return events;
+    }
+
+    private String read(String name) throws IOException {
+        return new String(Files.readAllBytes(temporaryFolder.getRoot().toPath().resolve(name)),
+                          StandardCharsets.UTF_8);
+    }
+
+    private void setField(String name, Object value) {
+        try {
+            Field field = DependencyOrderRule.class.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(rule, value);
+        } catch (Exception e) {
+            fail("Failed to set " + name + ": " + e.getMessage());
+        }
+    }
+
     private List<Dependency> createDependenciesInAlphabeticalOrder() {
         List<Dependency> dependencies = new ArrayList<>();
         
@@ -247,7 +953,7 @@ public class DependencyOrderRuleTest {
 
     private void setSortOrders(List<SortOrder> sortOrders) {
         try {
-            java.lang.reflect.Field sortOrdersField = DependencyOrderRule.class.getDeclaredField("SortOrders");
+            Field sortOrdersField = DependencyOrderRule.class.getDeclaredField("SortOrders");
             sortOrdersField.setAccessible(true);
             sortOrdersField.set(rule, sortOrders);
         } catch (Exception e) {
@@ -3,14 +3,24 @@ package se.payerl;
 import org.apache.maven.model.Dependency;
 import org.junit.Test;
 import se.payerl.model.Scope;
+import se.payerl.sort.ReportMode;
+import se.payerl.sort.RuleMetrics;
+import se.payerl.sort.SortNode;
 import se.payerl.sort.SortOrder;
+import se.payerl.sort.ValidationMetrics;
+import se.payerl.sort.ValidationPlan;
+import se.payerl.sort.Violation;
+import se.payerl.sort.ViolationSink;
 import se.payerl.sort.node.GroupNode;
+import se.payerl.sort.node.SequenceNode;
 import se.payerl.sort.node.SortLeaf;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
 
 import static org.junit.Assert.*;
 
@@ -214,6 +224,507 @@ public class HierarchicalSortingTest {
         assertEquals("Enum addThen should work", Scope.TEST, mixedOrder.getThen());
     }
 
+    @Test
+    public void testValidationPlan_SharedBetweenEqualConfigurations() {
+        // Arrange - two separately configured but equal rule configurations
+        List<SortOrder> first = Arrays.asList(new ScopeOrder("compile", "test"), new AlphabeticalOrder());
+        List<SortOrder> second = Arrays.asList(new ScopeOrder("compile", "test"), new AlphabeticalOrder());
+        AlphabeticalOrder inversed = new AlphabeticalOrder();
+        inversed.setInversed(true);
+        List<SortOrder> different = Arrays.asList(new ScopeOrder("compile", "test"), inversed);
+
+        // Act
+        ValidationPlan plan = ValidationPlan.of(first, true);
+
+        // Assert
+        assertSame("Equal configurations should share plan", plan, ValidationPlan.of(second, true));
+        assertNotSame("Group mode should be part of the fingerprint", plan, ValidationPlan.of(second, false));
+        assertNotSame("Rule configuration should be part of the fingerprint", plan, ValidationPlan.of(different, true));
+        assertTrue("Plan should validate in group mode", plan.isGroupMode());
+        assertTrue("Correct hierarchy should validate", plan.validate(createMixedScopesDependencies()).isEmpty());
+    }
+
+    @Test
+    public void testValidationPlan_NotCachedForSortOrderWithoutFingerprint() {
+        // Arrange - two custom orders with the same toString but different configurations
+        SortOrder byGroupId = new GroupingOnlyOrder(Dependency::getGroupId);
+        SortOrder byArtifactId = new GroupingOnlyOrder(Dependency::getArtifactId);
+
+        // Act
+        ValidationPlan first = ValidationPlan.of(Arrays.asList(byGroupId, new AlphabeticalOrder()), true);
+        ValidationPlan second = ValidationPlan.of(Arrays.asList(byArtifactId, new AlphabeticalOrder()), true);
+
+        // Assert
+        assertFalse(first.isCacheable());
+        assertNotSame("Plans without fingerprint should never be shared", first, second);
+        assertNotEquals(first.getFingerprint(), second.getFingerprint());
+        assertSame(byArtifactId, second.getSortOrders().get(0));
+        assertTrue(ValidationPlan.of(Arrays.asList(new ScopeOrder("compile", "test")), false).isCacheable());
+    }
+
+    @Test
+    public void testValidationPlan_CacheEvictsLeastRecentlyUsedPlans() {
+        // Arrange
+        List<SortOrder> sortOrders = Arrays.asList(new ScopeOrder("compile", "test"), new AlphabeticalOrder());
+        ValidationPlan plan = ValidationPlan.of(sortOrders, true, Arrays.asList("compile", "lru"));
+        ValidationPlan unused = ValidationPlan.of(sortOrders, true, Arrays.asList("compile", "unused"));
+
+        // Act - many other configurations, while the plan stays in use
+        for (int i = 0; i < 200; i++) {
+            ValidationPlan.of(sortOrders, true, Arrays.asList("compile", "other" + i));
+            assertSame(plan, ValidationPlan.of(sortOrders, true, Arrays.asList("compile", "lru")));
+        }
+
+        // Assert - a plan that was not used in a while is compiled again
+        assertNotSame(unused, ValidationPlan.of(sortOrders, true, Arrays.asList("compile", "unused")));
+    }
+
+    @Test
+    public void testSequenceNode_ReportsErrorsRuleByRule() {
+        // Arrange - wrong scope order and wrong alphabetical order in the same list
+        SequenceNode sequenceNode = new SequenceNode(Arrays.asList(new ScopeOrder("compile", "test"), new AlphabeticalOrder()));
+        List<Dependency> dependencies = new ArrayList<>(createMixedScopesWithWrongAlphabeticalOrder());
+        dependencies.add(0, dependencies.remove(2));
+
+        // Act
+        List<String> errors = sequenceNode.validateDependencies(dependencies);
+
+        // Assert
+        assertEquals(Arrays.asList(
+                "Dependency org.apache.commons:commons-lang3 scope:compile (scope: compile) must be before junit:junit scope:test (scope: test)",
+                "Dependency com.google.guava:guava must be before org.apache.commons:commons-lang3"), errors);
+    }
+
+    @Test
+    public void testGroupNode_InterleavedGroupsAreValidatedPerGroup() {
+        // Arrange - compile, test, compile: the compile group is checked as one group
+        GroupNode groupNode = new GroupNode(new ScopeOrder("compile", "test"), new SortLeaf(new AlphabeticalOrder()));
+        List<Dependency> mixed = createMixedScopesDependencies();
+        List<Dependency> dependencies = Arrays.asList(mixed.get(1), mixed.get(2), mixed.get(0), mixed.get(3));
+
+        // Act
+        List<String> errors = groupNode.validateDependencies(dependencies);
+
+        // Assert
+        assertEquals(Arrays.asList("Dependency com.google.guava:guava must be before org.apache.commons:commons-lang3"), errors);
+    }
+
+    @Test
+    public void testGroupNode_SplitGroupViolatesGroupOrder() {
+        // Arrange - compile, test, compile with compile configured before test
+        GroupNode groupNode = new GroupNode(new ScopeOrder("compile", "test"), new SortLeaf(new AlphabeticalOrder()),
+                                            Arrays.asList("compile", "test"));
+        List<Dependency> mixed = createMixedScopesDependencies();
+        List<Dependency> dependencies = Arrays.asList(mixed.get(0), mixed.get(2), mixed.get(1), mixed.get(3));
+
+        // Act
+        List<String> errors = groupNode.validateDependencies(dependencies);
+
+        // Assert
+        assertEquals(Arrays.asList("Group 'compile' should come before group 'test'"), errors);
+    }
+
+    @Test
+    public void testValidationPlan_GroupOrderAppliesToTopLevelGroups() {
+        // Arrange
+        List<SortOrder> sortOrders = Arrays.asList(new ScopeOrder("compile", "test"), new AlphabeticalOrder());
+        ValidationPlan plan = ValidationPlan.of(sortOrders, true, Arrays.asList("test", "compile"));
+
+        // Act
+        List<String> errors = plan.validate(createMixedScopesDependencies());
+
+        // Assert
+        assertEquals(Arrays.asList("Group 'test' should come before group 'compile'"), errors);
+        assertNotSame("Group order should be part of the fingerprint", plan, ValidationPlan.of(sortOrders, true));
+    }
+
+    @Test
+    public void testGroupNode_WithCustomChildNode() {
+        // Arrange - a SortNode that only implements validateDependencies
+        List<List<Dependency>> validatedGroups = new ArrayList<>();
+        SortNode customNode = new SortNode() {
+            @Override
+            public List<String> validateDependencies(List<Dependency> dependencies) {
+                validatedGroups.add(dependencies);
+                return Arrays.asList("group of " + dependencies.size());
+            }
+
+            @Override
+            public String getDescription() { return "Custom"; }
+        };
+        GroupNode groupNode = new GroupNode(new ScopeOrder("compile", "test"), customNode);
+
+        // Act
+        List<String> errors = groupNode.validateDependencies(createMixedScopesDependencies());
+
+        // Assert
+        assertEquals(Arrays.asList("group of 2", "group of 2"), errors);
+        assertEquals("junit", validatedGroups.get(1).get(0).getArtifactId());
+    }
+
+    @Test
+    public void testValidationPlan_ReportsStructuredViolationsToSink() {
+        // Arrange - compile, test, compile: guava at index 2 must be before commons-lang3 at index 0
+        AlphabeticalOrder alphabeticalOrder = new AlphabeticalOrder();
+        ValidationPlan plan = ValidationPlan.of(Arrays.asList(new ScopeOrder("compile", "test"), alphabeticalOrder), true);
+        List<Dependency> mixed = createMixedScopesDependencies();
+        List<Dependency> dependencies = Arrays.asList(mixed.get(1), mixed.get(2), mixed.get(0), mixed.get(3));
+        List<Violation> violations = new ArrayList<>();
+
+        // Act
+        plan.validate(dependencies, "<dependencies>", violations::add);
+
+        // Assert
+        assertEquals(1, violations.size());
+        Violation violation = violations.get(0);
+        assertEquals(Violation.Kind.ORDER, violation.getKind());
+        assertEquals("<dependencies>", violation.getSection());
+        assertEquals(0, violation.getPreviousIndex());
+        assertEquals(2, violation.getCurrentIndex());
+        assertSame(dependencies.get(2), violation.getCurrent());
+        assertEquals("Dependency com.google.guava:guava must be before org.apache.commons:commons-lang3",
+                     violation.getMessage());
+    }
+
+    @Test
+    public void testViolation_MessageIsFormattedWhenRendered() {
+        // Arrange
+        int[] formatted = new int[1];
+        AlphabeticalOrder countingOrder = new AlphabeticalOrder() {
+            @Override
+            public String formatViolation(Dependency previousDependency, Dependency currentDependency) {
+                formatted[0]++;
+                return super.formatViolation(previousDependency, currentDependency);
+            }
+        };
+        List<Violation> violations = new ArrayList<>();
+
+        // Act
+        new SortLeaf(countingOrder).validate(createDependenciesInWrongAlphabeticalOrder(), null, violations::add);
+
+        // Assert
+        assertEquals(1, violations.size());
+        assertEquals("No message should be formatted during validation", 0, formatted[0]);
+        assertTrue(violations.get(0).getMessage().startsWith("Dependency com.google.guava:guava"));
+        assertEquals(1, formatted[0]);
+    }
+
+    @Test
+    public void testSequenceNode_StopsWhenSinkIsFull() {
+        // Arrange - a sink that accepts one violation and counts evaluated pairs of the second rule
+        int[] evaluated = new int[1];
+        AlphabeticalOrder countingOrder = new AlphabeticalOrder() {
+            @Override
+            public boolean isInOrder(Dependency previousDependency, Dependency currentDependency) {
+                evaluated[0]++;
+                return super.isInOrder(previousDependency, currentDependency);
+            }
+        };
+        AlphabeticalOrder inversed = new AlphabeticalOrder();
+        inversed.setInversed(true);
+        SequenceNode sequenceNode = new SequenceNode(Arrays.asList(inversed, countingOrder));
+        List<Violation> violations = new ArrayList<>();
+        ViolationSink sink = new ViolationSink() {
+            @Override
+            public void accept(Violation violation) {
+                violations.add(violation);
+            }
+
+            @Override
+            public int remainingCapacity() {
+                return 1 - violations.size();
+            }
+        };
+        List<Dependency> dependencies = new ArrayList<>(createDependenciesInAlphabeticalOrder());
+        dependencies.addAll(createDependenciesInAlphabeticalOrder());
+
+        // Act
+        sequenceNode.validate(dependencies, null, sink);
+
+        // Assert - the first rule fills the sink at the first pair, so the pass ends there
+        assertEquals(1, violations.size());
+        assertSame(inversed, violations.get(0).getRule());
+        assertEquals(0, evaluated[0]);
+    }
+
+    @Test
+    public void testSortLeaf_MinimalMovesReportsOnlyMisplacedDependency() {
+        // Arrange - e is the only misplaced dependency
+        SortLeaf sortLeaf = new SortLeaf(new AlphabeticalOrder(), ReportMode.MINIMAL_MOVES);
+        List<Violation> violations = new ArrayList<>();
+
+        // Act
+        sortLeaf.validate(createDependencies("e", "a", "b", "c", "d"), null, violations::add);
+
+        // Assert
+        assertEquals(1, violations.size());
+        Violation violation = violations.get(0);
+        assertEquals(Violation.Kind.MOVE, violation.getKind());
+        assertEquals(0, violation.getCurrentIndex());
+        assertEquals(4, violation.getPreviousIndex());
+        assertEquals("Dependency e:artifact must be moved after d:artifact", violation.getMessage());
+    }
+
+    @Test
+    public void testValidationPlan_MinimalMovesOnReversedList() {
+        // Arrange
+        ValidationPlan plan = ValidationPlan.of(Arrays.asList(new AlphabeticalOrder()), false, null, 0,
+                                                ReportMode.MINIMAL_MOVES);
+
+        // Act
+        List<String> errors = plan.validate(createDependencies("d", "c", "b", "a"));
+
+        // Assert - applying the moves in order sorts the list
+        assertEquals(Arrays.asList("Dependency b:artifact must be moved after a:artifact",
+                                   "Dependency c:artifact must be moved after b:artifact",
+                                   "Dependency d:artifact must be moved after c:artifact"), errors);
+        assertTrue(plan.validate(createDependencies("a", "b", "b", "c")).isEmpty());
+    }
+
+    @Test
+    public void testComparator_SortedListPassesValidation() {
+        // Arrange - groups by scope in group order compile, test, then alphabetical within each group
+        ScopeOrder scopeOrder = new ScopeOrder();
+        scopeOrder.setFirst("compile");
+        scopeOrder.setThen("test");
+        ValidationPlan plan = ValidationPlan.of(Arrays.asList(scopeOrder, new AlphabeticalOrder()), true,
+                                                Arrays.asList("compile", "test"));
+        List<Dependency> dependencies = createDependencies("D", "b", "e", "a", "C");
+        dependencies.get(0).setScope("test");
+        dependencies.get(3).setScope("test");
+        dependencies.get(4).setScope("provided");
+
+        // Act
+        List<Dependency> compared = new ArrayList<>(dependencies);
+        compared.sort(plan.comparator());
+        List<Dependency> sorted = plan.sort(dependencies);
+
+        // Assert - provided is not part of the scope order and comes last
+        assertEquals(Arrays.asList("b", "e", "a", "D", "C"), groupIds(compared));
+        assertTrue(plan.validate(compared).isEmpty());
+        assertTrue(plan.validate(sorted).isEmpty());
+        assertEquals(groupIds(compared), groupIds(sorted));
+    }
+
+    @Test
+    public void testValidateWithDisorder_ComputesEveryKeyOnce() {
+        // Arrange - grouping rule that counts how often it is asked for keys
+        int[] calls = new int[3];
+        ScopeOrder scopeOrder = new ScopeOrder("compile", "test") {
+            @Override
+            public boolean isApplicable(Dependency dependency) {
+                calls[0]++;
+                return super.isApplicable(dependency);
+            }
+
+            @Override
+            public String extractSortKey(Dependency dependency) {
+                calls[1]++;
+                return super.extractSortKey(dependency);
+            }
+
+            @Override
+            public int rank(Dependency dependency) {
+                calls[2]++;
+                return super.rank(dependency);
+            }
+        };
+        ValidationPlan plan = ValidationPlan.of(Arrays.asList(scopeOrder, new AlphabeticalOrder()), true,
+                                                Arrays.asList("compile", "test"));
+        List<Dependency> dependencies = createDependencies("d", "c", "b", "a");
+        dependencies.get(0).setScope("test");
+        List<Violation> violations = new ArrayList<>();
+
+        // Act
+        long disorder = plan.validateWithDisorder(dependencies, "<dependencies>", violations::add);
+
+        // Assert - validation and disorder count share the ranks, the key is only extracted per group
+        assertEquals(3, violations.size());
+        assertEquals(4, calls[0]);
+        assertEquals(2, calls[1]);
+        assertEquals("once per dependency, plus once inside isApplicable", 8, calls[2]);
+        assertEquals(plan.disorder(dependencies), disorder);
+    }
+
+    @Test
+    public void testWithMetrics_CountsWorkOfEveryRule() {
+        // Arrange
+        ValidationPlan plan = ValidationPlan.of(Arrays.asList(new ScopeOrder("compile", "test"), new AlphabeticalOrder()),
+                                                true, Arrays.asList("compile", "test"));
+        ValidationMetrics metrics = new ValidationMetrics();
+        ValidationPlan measured = plan.withMetrics(metrics);
+        List<Dependency> dependencies = createDependencies("d", "c", "b", "a");
+        dependencies.get(0).setScope("test");
+
+        // Act
+        List<Violation> expected = new ArrayList<>();
+        long expectedDisorder = plan.validateWithDisorder(dependencies, "<dependencies>", expected::add);
+        List<Violation> violations = new ArrayList<>();
+        long disorder = measured.validateWithDisorder(dependencies, "<dependencies>", violations::add);
+        measured.withParallelThreshold(1).validateWithDisorder(dependencies, "<dependencies>", violation -> { });
+
+        // Assert - metrics do not change the result and are not part of the fingerprint
+        assertEquals(expected.size(), violations.size());
+        assertEquals(expectedDisorder, disorder);
+        assertNull(plan.getMetrics());
+        assertEquals(plan.getFingerprint(), measured.getFingerprint());
+        assertEquals(2, metrics.getSections());
+        assertEquals(8, metrics.getDependencies());
+        // Plans are cached, so the rules are the SortOrders of the plan compiled first
+        assertEquals(plan.getSortOrders(), new ArrayList<>(metrics.getRules().keySet()));
+
+        // Both runs look at every dependency once per pass: validation and disorder score
+        RuleMetrics scope = metrics.getRules().get(plan.getSortOrders().get(0));
+        assertEquals(16, scope.getExamined());
+        assertEquals("group order violation, reported once per run", 2, scope.getViolations());
+        RuleMetrics alphabetical = metrics.getRules().get(plan.getSortOrders().get(1));
+        assertEquals("every dependency inside its scope group", 16, alphabetical.getExamined());
+        assertEquals(2 * 2, alphabetical.getViolations());
+        assertTrue(alphabetical.getKeysExtracted() > 0 && alphabetical.getKeysExtracted() <= 2 * 3);
+        assertTrue(alphabetical.getComparisons() >= 2 * 2);
+        assertEquals(2 * expected.size(), metrics.getViolations());
+    }
+
+    @Test
+    public void testDisorder_CountsPairsInWrongOrder() {
+        // Arrange
+        SortLeaf sortLeaf = new SortLeaf(new AlphabeticalOrder());
+
+        // Act & Assert - equal dependencies are not inversions
+        assertEquals(0, sortLeaf.disorder(createDependencies("a", "b", "b", "c")));
+        assertEquals(3, sortLeaf.disorder(createDependencies("b", "c", "d", "a")));
+        assertEquals(10, sortLeaf.disorder(createDependencies("e", "d", "c", "b", "a")));
+    }
+
+    @Test
+    public void testDisorder_GroupModeCountsGroupOrderAndGroups() {
+        // Arrange - groups by scope, in group order compile, test
+        ScopeOrder scopeOrder = new ScopeOrder();
+        scopeOrder.setFirst("compile");
+        scopeOrder.setThen("test");
+        ValidationPlan plan = ValidationPlan.of(Arrays.asList(scopeOrder, new AlphabeticalOrder()), true,
+                                                Arrays.asList("compile", "test"));
+        List<Dependency> dependencies = createDependencies("b", "a", "c");
+        dependencies.get(0).setScope("test");
+
+        // Act
+        long disorder = plan.disorder(dependencies);
+
+        // Assert - b (test) before a and c (compile) is 2 group inversions, a before c is in order
+        assertEquals(2, disorder);
+        assertEquals(0, plan.disorder(plan.sort(dependencies)));
+    }
+
+    @Test
+    public void testDisorder_GroupModeMatchesPairwiseCount() {
+        // Arrange - every scope is in the group order, so the disorder score is the number of
+        // pairs the plan's comparator orders the other way around
+        ScopeOrder scopeOrder = new ScopeOrder();
+        scopeOrder.setFirst("compile");
+        scopeOrder.setThen("provided");
+        scopeOrder.addThen("test");
+        ValidationPlan plan = ValidationPlan.of(Arrays.asList(scopeOrder, new AlphabeticalOrder()), true,
+                                                Arrays.asList("compile", "provided", "test"));
+        String[] scopes = { "compile", "provided", "test" };
+        Random random = new Random(11);
+        List<Dependency> dependencies = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Dependency dependency = new Dependency();
+            dependency.setGroupId("group" + random.nextInt(40));
+            dependency.setArtifactId("artifact" + random.nextInt(40));
+            dependency.setScope(scopes[random.nextInt(scopes.length)]);
+            dependencies.add(dependency);
+        }
+        long expected = 0;
+        for (int i = 0; i < dependencies.size(); i++) {
+            for (int j = i + 1; j < dependencies.size(); j++) {
+                if (plan.comparator().compare(dependencies.get(i), dependencies.get(j)) > 0) {
+                    expected++;
+                }
+            }
+        }
+
+        // Act - the group level and the groups share the context's scratch arrays
+        long disorder = plan.validateWithDisorder(dependencies, "<dependencies>", violation -> { });
+
+        // Assert
+        assertEquals(expected, disorder);
+        assertEquals(expected, plan.disorder(dependencies));
+    }
+
+    @Test
+    public void testParallelThreshold_SameViolationsAsSerialValidation() {
+        // Arrange - large shuffled groups by scope, with a group order and a nested group level
+        ScopeOrder scopeOrder = new ScopeOrder();
+        scopeOrder.setFirst("compile");
+        scopeOrder.setThen("runtime");
+        scopeOrder.addThen("test");
+        ValidationPlan serial = ValidationPlan.of(Arrays.asList(scopeOrder, new OptionalOrder(), new AlphabeticalOrder()),
+                                                  true, Arrays.asList("compile", "runtime", "test"));
+        ValidationPlan parallel = serial.withParallelThreshold(50);
+        String[] scopes = { "compile", "runtime", "test", "provided" };
+        Random random = new Random(7);
+        List<Dependency> dependencies = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Dependency dependency = new Dependency();
+            dependency.setGroupId("group" + random.nextInt(500));
+            dependency.setArtifactId("artifact" + i);
+            dependency.setScope(scopes[random.nextInt(scopes.length)]);
+            dependency.setOptional(random.nextInt(4) == 0);
+            dependencies.add(dependency);
+        }
+
+        // Act
+        List<String> serialViolations = new ArrayList<>();
+        long serialDisorder = serial.validateWithDisorder(dependencies, "<dependencies>",
+                                                          violation -> serialViolations.add(violation.getMessage()));
+        List<String> parallelViolations = new ArrayList<>();
+        long parallelDisorder = parallel.validateWithDisorder(dependencies, "<dependencies>",
+                                                              violation -> parallelViolations.add(violation.getMessage()));
+
+        // Assert - same violations in the same order, and the threshold does not change the fingerprint
+        assertFalse(serialViolations.isEmpty());
+        assertEquals(serialViolations, parallelViolations);
+        assertEquals(serialDisorder, parallelDisorder);
+        assertEquals(serial.validate(dependencies), parallel.validate(dependencies));
+        assertEquals(serial.getFingerprint(), parallel.getFingerprint());
+        assertEquals(50, parallel.getParallelThreshold());
+
+        // Assert - a limited sink gets the same first violations
+        for (int limit : new int[] { 1, 7, serialViolations.size() / 2 }) {
+            List<String> limited = new ArrayList<>();
+            parallel.validate(dependencies, "<dependencies>", new ViolationSink() {
+                @Override
+                public void accept(Violation violation) {
+                    limited.add(violation.getMessage());
+                }
+
+                @Override
+                public int remainingCapacity() {
+                    return limit - limited.size();
+                }
+            });
+            assertEquals(serialViolations.subList(0, limit), limited);
+        }
+    }
+
+    private static List<String> groupIds(List<Dependency> dependencies) {
+        List<String> groupIds = new ArrayList<>();
+        dependencies.forEach(dependency -> groupIds.add(dependency.getGroupId()));
+        return groupIds;
+    }
+
+    private static List<Dependency> createDependencies(String... groupIds) {
+        List<Dependency> dependencies = new ArrayList<>();
+        for (String groupId : groupIds) {
+            Dependency dependency = new Dependency();
+            dependency.setGroupId(groupId);
+            dependency.setArtifactId("artifact");
+            dependencies.add(dependency);
+        }
+        return dependencies;
+    }
+
     private List<Dependency> createDependenciesInAlphabeticalOrder() {
         List<Dependency> dependencies = new ArrayList<>();
         
@@ -371,4 +882,37 @@ public class HierarchicalSortingTest {
         
         return dependencies;
     }
+
+    /**
+     * Grouping-only SortOrder without fingerprint, the same toString for every key extractor.
+     */
+    private static class GroupingOnlyOrder extends SortOrder {
+        private final Function<Dependency, String> key;
+
+        GroupingOnlyOrder(Function<Dependency, String> key) {
+            this.key = key;
+        }
+
+        @Override
+        public String toString() { return "GroupingOnlyOrder"; }
+
+        @Override
+        public String extractSortKey(Dependency dependency) { return key.apply(dependency); }
+
+        @Override
+        public String formatDependencyForError(Dependency dependency) {
+            return dependency.getGroupId() + ":" + dependency.getArtifactId();
+        }
+
+        @Override
+        public String getDescription() { return "Grouping only"; }
+
+        @Override
+        public Optional<String> validateOrder(Dependency previousDependency, Dependency currentDependency) {
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean isApplicable(Dependency dependency) { return true; }
+    }
 } 
\ No newline at end of file
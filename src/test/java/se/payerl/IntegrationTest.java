@@ -75,6 +75,16 @@ public class IntegrationTest {
                    result.getOutput().contains("must be before"));
     }
 
+    @Test
+    public void testWrongOrderWithReactorModeShouldFail() throws Exception {
+        MavenResult result = runMavenValidate("pom-wrong-reactor.xml");
+        assertFalse("pom-wrong-reactor.xml ska misslyckas", result.isSuccess());
+        assertTrue("Ska visa reaktorläge-meddelande",
+                   result.getOutput().contains("Using reactor mode"));
+        assertTrue("Ska visa vilket beroende som är fel placerat",
+                   result.getOutput().contains("must be before"));
+    }
+
     @Test
     public void testHierarchicalOrderShouldSucceed() throws Exception {
         MavenResult result = runMavenValidate("pom-hierarchical.xml");
@@ -89,6 +99,8 @@ public class IntegrationTest {
         assertTrue("pom-multi-scope.xml ska lyckas", result.isSuccess());
         assertTrue("Ska visa multi-scope gruppläge-meddelande",
                    result.getOutput().contains("Using group sorting mode"));
+        assertTrue("Ska visa konfigurerad gruppordning",
+                   result.getOutput().contains("Group order: compile, provided, test"));
     }
 
     @Test
@@ -0,0 +1,123 @@
+package se.payerl;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import se.payerl.sort.SortOrder;
+import se.payerl.sort.ValidationPlan;
+import se.payerl.xml.PomRewriter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for rewriting the dependency order of a pom.xml.
+ */
+public class PomRewriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRewrite_KeepsCommentsAndFormatting() throws IOException {
+        // Arrange
+        Path pom = write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<project>\n"
+                + "  <dependencyManagement>\n"
+                + "    <dependencies>\n"
+                + "      <dependency><groupId>org.b</groupId><artifactId>b</artifactId></dependency>\n"
+                + "      <dependency><groupId>org.a</groupId><artifactId>a</artifactId></dependency>\n"
+                + "    </dependencies>\n"
+                + "  </dependencyManagement>\n"
+                + "  <dependencies>\n"
+                + "    <!-- Test -->\n"
+                + "    <dependency>\n"
+                + "      <groupId>junit</groupId>\n"
+                + "      <artifactId>junit</artifactId>\n"
+                + "      <scope>test</scope>\n"
+                + "    </dependency>\n"
+                + "    <dependency>\n"
+                + "      <groupId>org.slf4j</groupId>\t<artifactId attr='>'>slf4j-api</artifactId>\n"
+                + "      <exclusions><exclusion><groupId>x</groupId></exclusion></exclusions>\n"
+                + "    </dependency>\n"
+                + "  </dependencies>\n"
+                + "</project>\n");
+        PomRewriter rewriter = new PomRewriter(plan(new ScopeOrder("compile", "test"), new AlphabeticalOrder()));
+
+        // Act
+        List<String> sections = rewriter.rewrite(pom);
+
+        // Assert
+        assertEquals(Arrays.asList("<dependencyManagement>", "<dependencies>"), sections);
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<project>\n"
+                + "  <dependencyManagement>\n"
+                + "    <dependencies>\n"
+                + "      <dependency><groupId>org.a</groupId><artifactId>a</artifactId></dependency>\n"
+                + "      <dependency><groupId>org.b</groupId><artifactId>b</artifactId></dependency>\n"
+                + "    </dependencies>\n"
+                + "  </dependencyManagement>\n"
+                + "  <dependencies>\n"
+                + "    <dependency>\n"
+                + "      <groupId>org.slf4j</groupId>\t<artifactId attr='>'>slf4j-api</artifactId>\n"
+                + "      <exclusions><exclusion><groupId>x</groupId></exclusion></exclusions>\n"
+                + "    </dependency>\n"
+                + "    <!-- Test -->\n"
+                + "    <dependency>\n"
+                + "      <groupId>junit</groupId>\n"
+                + "      <artifactId>junit</artifactId>\n"
+                + "      <scope>test</scope>\n"
+                + "    </dependency>\n"
+                + "  </dependencies>\n"
+                + "</project>\n", read(pom));
+    }
+
+    @Test
+    public void testRewrite_IgnoresPluginDependencies() throws IOException {
+        // Arrange
+        String content = "<project>\n"
+                + "  <dependencies>\n"
+                + "    <dependency><groupId>a</groupId><artifactId>a</artifactId></dependency>\n"
+                + "    <dependency><groupId>b</groupId><artifactId>b</artifactId></dependency>\n"
+                + "  </dependencies>\n"
+                + "  <build><plugins><plugin><dependencies>\n"
+                + "    <dependency><groupId>z</groupId><artifactId>z</artifactId></dependency>\n"
+                + "    <dependency><groupId>y</groupId><artifactId>y</artifactId></dependency>\n"
+                + "  </dependencies></plugin></plugins></build>\n"
+                + "</project>\n";
+        Path pom = write(content);
+
+        // Act
+        List<String> sections = new PomRewriter(plan(new AlphabeticalOrder())).rewrite(pom);
+
+        // Assert
+        assertEquals(Collections.emptyList(), sections);
+        assertEquals(content, read(pom));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRewrite_UnclosedElement_Throws() throws IOException {
+        new PomRewriter(plan(new AlphabeticalOrder())).rewrite(write("<project><dependencies>"));
+    }
+
+    private static ValidationPlan plan(SortOrder... sortOrders) {
+        return ValidationPlan.of(Arrays.asList(sortOrders), sortOrders.length > 1);
+    }
+
+    private Path write(String content) throws IOException {
+        Path pom = temporaryFolder.newFile("pom.xml").toPath();
+        Files.write(pom, content.getBytes(StandardCharsets.UTF_8));
+        return pom;
+    }
+
+    private static String read(Path pom) throws IOException {
+        return new String(Files.readAllBytes(pom), StandardCharsets.UTF_8);
+    }
+}
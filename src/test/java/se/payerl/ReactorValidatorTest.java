@@ -0,0 +1,79 @@
+package se.payerl;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+import se.payerl.reactor.ReactorValidator;
+import se.payerl.sort.SortOrder;
+import se.payerl.sort.ValidationPlan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for validating all modules of a reactor at once.
+ */
+public class ReactorValidatorTest {
+
+    @Test
+    public void testResultFor_ValidatesReactorOnceAndHandsOutResults() {
+        // Arrange
+        MavenProject sorted = createProject("sorted", "a", "b");
+        MavenProject unsorted = createProject("unsorted", "b", "a");
+        MavenProject empty = createProject("empty");
+        List<MavenProject> projects = Arrays.asList(sorted, unsorted, empty);
+        MavenSession session = mock(MavenSession.class);
+        when(session.getProjects()).thenReturn(projects);
+        List<SortOrder> sortOrders = Arrays.asList(new AlphabeticalOrder());
+        ValidationPlan plan = ValidationPlan.of(sortOrders, false);
+
+        // Act
+        ValidationResult unsortedResult = ReactorValidator.resultFor(session, unsorted, plan, 4);
+        ValidationResult sortedResult = ReactorValidator.resultFor(session, sorted, plan, 4);
+        ValidationResult emptyResult = ReactorValidator.resultFor(session, empty, plan, 4);
+
+        // Assert
+        verify(session, times(1)).getProjects();
+        assertTrue(sortedResult.isSuccess());
+        assertTrue(emptyResult.isSuccess());
+        assertEquals(Arrays.asList("Dependency a:a must be before b:b"),
+                     unsortedResult.getErrors(ValidationResult.DEPENDENCIES));
+    }
+
+    @Test
+    public void testResultFor_ProjectOutsideReactorIsValidatedDirectly() {
+        // Arrange
+        MavenSession session = mock(MavenSession.class);
+        when(session.getProjects()).thenReturn(new ArrayList<>());
+        ValidationPlan plan = ValidationPlan.of(Arrays.asList(new AlphabeticalOrder()), false);
+
+        // Act
+        ValidationResult result = ReactorValidator.resultFor(session, createProject("outside", "b", "a"), plan, 2);
+
+        // Assert
+        assertEquals(1, result.getErrorCount());
+    }
+
+    private static MavenProject createProject(String artifactId, String... dependencyNames) {
+        Model model = new Model();
+        model.setGroupId("se.payerl.test");
+        model.setArtifactId(artifactId);
+        model.setVersion("1.0.0");
+        for (String name : dependencyNames) {
+            Dependency dependency = new Dependency();
+            dependency.setGroupId(name);
+            dependency.setArtifactId(name);
+            dependency.setVersion("1.0");
+            model.addDependency(dependency);
+        }
+        MavenProject project = new MavenProject(model);
+        project.setOriginalModel(model);
+        return project;
+    }
+}
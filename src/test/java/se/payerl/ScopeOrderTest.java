@@ -0,0 +1,225 @@
+package se.payerl;
+
+import org.apache.maven.model.Dependency;
+import org.junit.Test;
+import se.payerl.model.Scope;
+import se.payerl.sort.ValidationPlan;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests for the precomputed scope rank table in ScopeOrder.
+ */
+public class ScopeOrderTest {
+
+    private static final int DEPENDENCY_COUNT = 10_000;
+
+    @Test
+    public void testRank_FollowsConfiguredOrder() {
+        // Arrange
+        ScopeOrder scopeOrder = new ScopeOrder(Scope.COMPILE, Scope.PROVIDED, Scope.TEST);
+
+        // Act & Assert
+        assertEquals(0, scopeOrder.rank(createDependency("a", null)));
+        assertEquals(0, scopeOrder.rank(createDependency("a", "COMPILE")));
+        assertEquals(1, scopeOrder.rank(createDependency("a", "provided")));
+        assertEquals(2, scopeOrder.rank(createDependency("a", "Test")));
+        assertEquals(-1, scopeOrder.rank(createDependency("a", "runtime")));
+        assertFalse("Runtime is not configured", scopeOrder.isApplicable(createDependency("a", "runtime")));
+    }
+
+    @Test
+    public void testRank_UpdatedWhenConfigurationChanges() {
+        // Arrange
+        ScopeOrder scopeOrder = new ScopeOrder();
+        scopeOrder.setFirst("test");
+        scopeOrder.addThen("compile");
+
+        // Act & Assert
+        assertEquals(0, scopeOrder.rank(createDependency("a", "test")));
+        assertEquals(1, scopeOrder.rank(createDependency("a", "compile")));
+
+        scopeOrder.setThen("runtime");
+        assertEquals(-1, scopeOrder.rank(createDependency("a", "compile")));
+        assertEquals(1, scopeOrder.rank(createDependency("a", "runtime")));
+    }
+
+    @Test
+    public void testRank_ConsistentWithIsInOrderAndRankCount() {
+        // Arrange
+        ScopeOrder scopeOrder = new ScopeOrder(Scope.TEST, Scope.PROVIDED, Scope.COMPILE, Scope.PROVIDED);
+        List<Dependency> dependencies = new ArrayList<>();
+        for (Scope scope : Scope.values()) {
+            dependencies.add(createDependency(scope.name(), scope.getValue()));
+        }
+
+        // Act & Assert
+        for (Dependency previous : dependencies) {
+            for (Dependency current : dependencies) {
+                if (scopeOrder.isApplicable(previous) && scopeOrder.isApplicable(current)) {
+                    assertTrue(scopeOrder.rank(previous) < scopeOrder.rankCount());
+                    assertEquals(scopeOrder.rank(previous) <= scopeOrder.rank(current),
+                                 scopeOrder.isInOrder(previous, current));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSort_UsesRanksAndKeepsOtherScopesInPlace() {
+        // Arrange
+        ScopeOrder scopeOrder = new ScopeOrder(Scope.COMPILE, Scope.TEST);
+        ValidationPlan plan = ValidationPlan.of(Arrays.asList(scopeOrder), false);
+        List<Dependency> dependencies = new ArrayList<>();
+        dependencies.add(createDependency("t1", "test"));
+        dependencies.add(createDependency("r", "runtime"));
+        dependencies.add(createDependency("c1", "compile"));
+        dependencies.add(createDependency("t2", "test"));
+        dependencies.add(createDependency("c2", null));
+
+        // Act
+        List<Dependency> sorted = plan.sort(dependencies);
+
+        // Assert - stable within a scope, runtime is not configured and keeps its position
+        List<String> groupIds = new ArrayList<>();
+        sorted.forEach(dependency -> groupIds.add(dependency.getGroupId()));
+        assertEquals(Arrays.asList("c1", "r", "c2", "t1", "t2"), groupIds);
+        assertTrue(plan.validate(sorted).isEmpty());
+    }
+
+    @Test
+    public void testFreeze_RejectsConfigurationChanges() {
+        // Arrange
+        ScopeOrder scopeOrder = new ScopeOrder();
+        scopeOrder.setFirst("compile");
+        scopeOrder.setThen("test");
+
+        // Act
+        ValidationPlan.of(Arrays.asList(scopeOrder, new AlphabeticalOrder()), true);
+
+        // Assert - setters fail and the then list cannot be changed behind the plan's back
+        assertTrue(scopeOrder.isFrozen());
+        assertThrows(IllegalStateException.class, () -> scopeOrder.setFirst("test"));
+        assertThrows(IllegalStateException.class, () -> scopeOrder.setThen("runtime"));
+        assertThrows(IllegalStateException.class, () -> scopeOrder.addThen("runtime"));
+        assertThrows(UnsupportedOperationException.class, () -> scopeOrder.getThenList().add(Scope.RUNTIME));
+        assertEquals(1, scopeOrder.rank(createDependency("a", "test")));
+    }
+
+    @Test
+    public void testFromValue_IsCaseInsensitive() {
+        assertEquals(Scope.PROVIDED, Scope.fromValue("PrOvIdEd"));
+        assertEquals(Scope.IMPORT, Scope.fromValue("import"));
+        assertEquals(Scope.COMPILE, Scope.fromValue("unknown"));
+        assertEquals(Scope.COMPILE, Scope.fromValue(null));
+    }
+
+    @Test
+    public void testValidateOrder_WrongOrderReportsBothScopes() {
+        // Arrange
+        ScopeOrder scopeOrder = new ScopeOrder("compile", "test");
+
+        // Act
+        Optional<String> error = scopeOrder.validateOrder(createDependency("junit", "Test"), createDependency("guava", null));
+
+        // Assert
+        assertEquals("Dependency guava:guava scope:compile (scope: compile) must be before junit:junit scope:Test (scope: test)",
+                     error.orElse(""));
+    }
+
+    @Test
+    public void testValidation_DoesNotAllocateBeyondErrorList() {
+        com.sun.management.ThreadMXBean threadBean = allocationMeasuringBean();
+        ScopeOrder scopeOrder = new ScopeOrder(Scope.COMPILE, Scope.PROVIDED, Scope.RUNTIME, Scope.TEST);
+        List<Dependency> dependencies = createSortedDependencies();
+        List<String> errors = new ArrayList<>(DEPENDENCY_COUNT);
+
+        // Warm up so that class loading and lazy initialization are not measured
+        validate(scopeOrder, dependencies, errors);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        int groups = validate(scopeOrder, dependencies, errors);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("Sorted list should not produce errors", errors.isEmpty());
+        assertEquals(5, groups);
+        // A single allocation per dependency would amount to well over 100 kB
+        assertTrue("Validation allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    @Test
+    public void testExtractSortKey_IsScopeAsWritten() {
+        // Arrange
+        ScopeOrder scopeOrder = new ScopeOrder("compile", "test");
+
+        // Act & Assert - only a missing scope is given a key, ranks are what ignore case
+        assertEquals("compile", scopeOrder.extractSortKey(createDependency("a", null)));
+        assertEquals("Test", scopeOrder.extractSortKey(createDependency("a", "Test")));
+        assertEquals("foo", scopeOrder.extractSortKey(createDependency("a", "foo")));
+    }
+
+    /**
+     * Validates dependencies the way a sort leaf does, checking applicability and the order of
+     * every adjacent pair, and groups them by sort key.
+     *
+     * @return number of groups of consecutive dependencies with the same key
+     */
+    private static int validate(ScopeOrder scopeOrder, List<Dependency> dependencies, List<String> errors) {
+        Dependency previous = null;
+        String previousKey = null;
+        int groups = 0;
+        for (Dependency dependency : dependencies) {
+            String key = scopeOrder.extractSortKey(dependency);
+            if (!key.equals(previousKey)) {
+                groups++;
+                previousKey = key;
+            }
+            if (!scopeOrder.isApplicable(dependency)) {
+                continue;
+            }
+            if (previous != null) {
+                Optional<String> error = scopeOrder.validateOrder(previous, dependency);
+                if (error.isPresent()) {
+                    errors.add(error.get());
+                }
+            }
+            previous = dependency;
+        }
+        return groups;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationMeasuringBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue("Allocation measurement not available", bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue("Allocation measurement not supported", threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        return threadBean;
+    }
+
+    private static List<Dependency> createSortedDependencies() {
+        String[] scopes = { null, "provided", "runtime", "system", "test" };
+        List<Dependency> dependencies = new ArrayList<>(DEPENDENCY_COUNT);
+        for (int i = 0; i < DEPENDENCY_COUNT; i++) {
+            dependencies.add(createDependency("artifact" + i, scopes[i * scopes.length / DEPENDENCY_COUNT]));
+        }
+        return dependencies;
+    }
+
+    private static Dependency createDependency(String name, String scope) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId(name);
+        dependency.setArtifactId(name);
+        dependency.setVersion("1.0");
+        dependency.setScope(scope);
+        return dependency;
+    }
+}